@@ -0,0 +1,86 @@
+package com.crud.peliculas.pelicula.benchmark;
+
+import com.crud.peliculas.pelicula.metrics.PeliculaMetrics;
+import com.crud.peliculas.pelicula.repository.PeliculaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base de datos H2 en memoria (modo MSSQLServer) con el esquema de scriptDB,
+ * usada como fuente de datos de los benchmarks.
+ */
+public final class BenchmarkDatabase {
+
+    private static final int SEED_CHUNK = 5_000;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Crea una base en memoria con nombre propio y el esquema de la tabla Peliculas.
+     *
+     * @param name Nombre de la base, para que cada benchmark use la suya.
+     * @return DataSource de la base creada.
+     */
+    public static DataSource create(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=MSSQLServer;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        return dataSource;
+    }
+
+    /**
+     * Crea el PeliculaRepository de la aplicación sobre la base indicada, con la misma
+     * inyección de dependencias y valores por defecto de configuración que en producción.
+     *
+     * @param dataSource Base creada con {@link #create(String)}.
+     * @return Repositorio listo para usar.
+     */
+    public static PeliculaRepository repository(DataSource dataSource) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(JdbcTemplate.class, () -> new JdbcTemplate(dataSource));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.register(PeliculaMetrics.class, PeliculaRepository.class);
+        context.refresh();
+        return context.getBean(PeliculaRepository.class);
+    }
+
+    /**
+     * Inserta {@code rows} películas de prueba en bloques.
+     *
+     * @param jdbcTemplate JdbcTemplate sobre la base creada con {@link #create(String)}.
+     * @param rows Número de filas a insertar.
+     */
+    public static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        String sql = "INSERT INTO Peliculas (Nombre, Descripcion, Cubierta, Puntaje, Estado, Estado_alquiler) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+        List<Object[]> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 1; i <= rows; i++) {
+            chunk.add(new Object[]{
+                    "Pelicula " + i,
+                    "Descripcion de la pelicula numero " + i + " usada para medir el mapeo de filas.",
+                    "https://cdn.example.com/cubiertas/" + i + ".jpg",
+                    i % 10,
+                    i % 3 == 0 ? "Edicion" : "Publicada",
+                    i % 2 == 0 ? "Alquilada" : "Disponible"
+            });
+            if (chunk.size() == SEED_CHUNK) {
+                jdbcTemplate.batchUpdate(sql, chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, chunk);
+        }
+    }
+}
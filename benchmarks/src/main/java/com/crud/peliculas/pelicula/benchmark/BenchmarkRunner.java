@@ -0,0 +1,109 @@
+package com.crud.peliculas.pelicula.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ejecuta los benchmarks y guarda los resultados en el formato JSON de JMH. Si se indica una
+ * línea base (el JSON de una ejecución anterior), compara cada benchmark con el mismo nombre y
+ * parámetros y termina con código 2 cuando alguno empeora más que el umbral, para detener una
+ * publicación con una regresión de rendimiento.
+ *
+ * Uso: java -cp benchmarks/target/benchmarks.jar com.crud.peliculas.pelicula.benchmark.BenchmarkRunner \
+ *          [--include regex] [--result archivo.json] [--baseline base.json] [--threshold 0.10]
+ */
+public final class BenchmarkRunner {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String include = ".*Benchmark.*";
+        String result = "jmh-result.json";
+        String baseline = null;
+        double threshold = 0.10;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--include" -> include = args[i + 1];
+                case "--result" -> result = args[i + 1];
+                case "--baseline" -> baseline = args[i + 1];
+                case "--threshold" -> threshold = Double.parseDouble(args[i + 1]);
+                default -> {
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build()).run();
+
+        if (baseline != null && compare(new File(baseline), new File(result), threshold) > 0) {
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Compara dos resultados JSON de JMH e imprime una línea por benchmark.
+     *
+     * @return Número de benchmarks que empeoraron más que el umbral.
+     */
+    static int compare(File baselineFile, File currentFile, double threshold) throws IOException {
+        Map<String, JsonNode> baseline = index(MAPPER.readTree(baselineFile));
+        Map<String, JsonNode> current = index(MAPPER.readTree(currentFile));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            double old = before.path("primaryMetric").path("score").asDouble();
+            double now = entry.getValue().path("primaryMetric").path("score").asDouble();
+            // En throughput un valor mayor es mejor; en los modos de tiempo, uno menor
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            double change = old == 0 ? 0 : (now - old) / old;
+            double worsening = higherIsBetter ? -change : change;
+            boolean regression = worsening > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf(Locale.ROOT, "%s %s: %.3f -> %.3f %s (%+.1f%%)%n",
+                    regression ? "REGRESION" : "ok", entry.getKey(), old, now,
+                    entry.getValue().path("primaryMetric").path("scoreUnit").asText(), change * 100);
+        }
+        return regressions;
+    }
+
+    /**
+     * Indexa los resultados por nombre de benchmark, modo y parámetros.
+     */
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> index = new TreeMap<>();
+        for (JsonNode node : results) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                params.put(field.getKey(), field.getValue().asText());
+            }
+            index.put(node.path("benchmark").asText() + " " + node.path("mode").asText() + " " + params, node);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,115 @@
+package com.crud.peliculas.pelicula.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de carga de lazo cerrado contra una instancia en ejecución de la aplicación:
+ * {@code concurrency} clientes envían solicitudes GET seguidas durante {@code seconds} segundos.
+ * Imprime una línea JSON con solicitudes atendidas, errores, throughput y percentiles de latencia,
+ * para comparar el modo de hilos de plataforma con el perfil "virtual".
+ *
+ * Uso: java -cp benchmarks/target/benchmarks.jar com.crud.peliculas.pelicula.benchmark.LoadTest \
+ *          http://localhost:9000/api/v1/pelicula/list 500 30
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Uso: LoadTest <url> <concurrencia> <segundos>");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0]);
+        int concurrency = Integer.parseInt(args[1]);
+        long durationNanos = Duration.ofSeconds(Long.parseLong(args[2])).toNanos();
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 8)))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        List<Future<Worker>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(workers.submit(() -> new Worker().run(client, request, deadline)));
+        }
+
+        long ok = 0;
+        long errors = 0;
+        long[] latencies = new long[0];
+        for (Future<Worker> future : futures) {
+            Worker worker = future.get();
+            ok += worker.ok;
+            errors += worker.errors;
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+        }
+        workers.shutdown();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(latencies);
+
+        System.out.printf(Locale.ROOT,
+                "{\"url\":\"%s\",\"concurrency\":%d,\"seconds\":%.1f,\"ok\":%d,\"errors\":%d," +
+                        "\"throughput\":%.1f,\"p50Ms\":%.2f,\"p99Ms\":%.2f,\"maxMs\":%.2f}%n",
+                uri, concurrency, elapsedSeconds, ok, errors, ok / elapsedSeconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+        System.exit(0);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * Cliente que envía solicitudes una tras otra y guarda la latencia de cada una.
+     */
+    private static final class Worker {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long ok;
+        private long errors;
+
+        Worker run(HttpClient client, HttpRequest request, long deadline) {
+            while (System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() < 400) {
+                        ok++;
+                    } else {
+                        errors++;
+                    }
+                } catch (Exception e) {
+                    errors++;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - start;
+            }
+            return this;
+        }
+    }
+}
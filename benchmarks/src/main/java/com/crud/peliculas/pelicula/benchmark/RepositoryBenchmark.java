@@ -0,0 +1,54 @@
+package com.crud.peliculas.pelicula.benchmark;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.repository.PeliculaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de PeliculaRepository.findAll (consulta y mapeo de todas las filas) con catálogos
+ * de 10 mil, 100 mil y 1 millón de películas. El contador auxiliar "rows" reporta las filas
+ * mapeadas por segundo, comparable entre tamaños.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private PeliculaRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DataSource dataSource = BenchmarkDatabase.create("repository" + rows);
+        BenchmarkDatabase.seed(new JdbcTemplate(dataSource), rows);
+        repository = BenchmarkDatabase.repository(dataSource);
+    }
+
+    @Benchmark
+    public List<PeliculaModel> findAll(RowMapperBenchmark.RowCounter counter) {
+        List<PeliculaModel> result = repository.findAll();
+        counter.rows += result.size();
+        return result;
+    }
+}
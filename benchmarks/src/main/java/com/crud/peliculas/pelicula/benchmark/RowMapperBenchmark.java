@@ -0,0 +1,78 @@
+package com.crud.peliculas.pelicula.benchmark;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.repository.PeliculaRowMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el mapeo de SELECT * FROM peliculas con BeanPropertyRowMapper (implementación anterior
+ * de PeliculaRepository.findAll) frente a PeliculaRowMapper. El contador auxiliar "rows"
+ * reporta las filas mapeadas por segundo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMapperBenchmark {
+
+    private static final String SQL = "SELECT * FROM peliculas";
+
+    @Param({"10000"})
+    public int rows;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(BenchmarkDatabase.create("rowmapper" + rows));
+        BenchmarkDatabase.seed(jdbcTemplate, rows);
+    }
+
+    @Benchmark
+    public List<PeliculaModel> beanPropertyRowMapper(RowCounter counter) {
+        List<PeliculaModel> result = jdbcTemplate.query(SQL, BeanPropertyRowMapper.newInstance(PeliculaModel.class));
+        counter.rows += result.size();
+        return result;
+    }
+
+    @Benchmark
+    public List<PeliculaModel> peliculaRowMapper(RowCounter counter) {
+        List<PeliculaModel> result = jdbcTemplate.query(SQL, PeliculaRowMapper.newInstance());
+        counter.rows += result.size();
+        return result;
+    }
+
+    /**
+     * Contador de filas mapeadas, reportado por JMH como filas por segundo.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class RowCounter {
+
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.crud.peliculas.pelicula.benchmark;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de serializar a JSON una List&lt;PeliculaModel&gt; con la configuración de Jackson que
+ * aplica Spring Boot: en un arreglo de bytes completo (GET /list) y en streaming con un
+ * JsonGenerator sobre el flujo de salida (GET /list/stream).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<PeliculaModel> peliculas;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Equivalente al ObjectMapper de Spring Boot: módulos registrados y fechas ISO-8601
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+
+        LocalDate fecha = LocalDate.of(2024, 1, 1);
+        peliculas = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            PeliculaModel pelicula = new PeliculaModel();
+            pelicula.setId((long) i);
+            pelicula.setNombre("Pelicula " + i);
+            pelicula.setDescripcion("Descripcion de la pelicula numero " + i + " usada para medir la serializacion.");
+            pelicula.setCubierta("https://cdn.example.com/cubiertas/" + i + ".jpg");
+            pelicula.setPuntaje(i % 10);
+            pelicula.setEstado(i % 3 == 0 ? "Edicion" : "Publicada");
+            pelicula.setEstadoAlquiler(i % 2 == 0 ? "Alquilada" : "Disponible");
+            pelicula.setFechaCreacion(fecha);
+            pelicula.setFechaModificacion(fecha.plusDays(i % 365));
+            peliculas.add(pelicula);
+        }
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(peliculas);
+    }
+
+    @Benchmark
+    public long streamWithGenerator() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            for (PeliculaModel pelicula : peliculas) {
+                generator.writeObject(pelicula);
+            }
+            generator.writeEndArray();
+        }
+        return out.count;
+    }
+
+    /**
+     * Flujo de salida que descarta los bytes y solo los cuenta, en lugar de la respuesta HTTP.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.crud.peliculas.pelicula.benchmark;
+
+import com.crud.peliculas.pelicula.search.InvertedIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de búsqueda del índice de texto (InvertedIndex) con un catálogo sintético.
+ * El vocabulario sigue una distribución de Zipf, como el texto real: pocos términos
+ * aparecen en muchas películas y la mayoría en pocas.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class TextIndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int TERMS_PER_FILM = 20;
+
+    @Param({"1000000"})
+    public int films;
+
+    private InvertedIndex index;
+
+    private String[] vocabulary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            vocabulary[i] = "termino" + i;
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        index = new InvertedIndex();
+        Map<String, Float> terms = new HashMap<>();
+        for (int id = 1; id <= films; id++) {
+            terms.clear();
+            for (int t = 0; t < TERMS_PER_FILM; t++) {
+                terms.merge(vocabulary[zipf(random)], t < 3 ? 3f : 1f, Float::sum);
+            }
+            index.put(id, terms);
+        }
+    }
+
+    /**
+     * Término poco frecuente (decenas de películas).
+     */
+    @Benchmark
+    public List<InvertedIndex.Hit> rareTerm() {
+        return index.search(List.of(vocabulary[20_000]), 20);
+    }
+
+    /**
+     * Dos términos de frecuencia media (miles de películas).
+     */
+    @Benchmark
+    public List<InvertedIndex.Hit> twoMediumTerms() {
+        return index.search(List.of(vocabulary[300], vocabulary[700]), 20);
+    }
+
+    /**
+     * Término muy frecuente (decenas de miles de películas): peor caso habitual.
+     */
+    @Benchmark
+    public List<InvertedIndex.Hit> commonTerm() {
+        return index.search(List.of(vocabulary[5]), 20);
+    }
+
+    /**
+     * Índice con distribución aproximada de Zipf (exponente 1) sobre el vocabulario.
+     */
+    private static int zipf(SplittableRandom random) {
+        double u = random.nextDouble();
+        return (int) Math.min(VOCABULARY - 1, Math.floor(Math.exp(u * Math.log(VOCABULARY + 1.0)) - 1));
+    }
+}
@@ -0,0 +1,110 @@
+package com.crud.peliculas.pelicula.benchmark;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara los formatos de la API (JSON, CBOR y Smile) al codificar y decodificar una lista de
+ * {@value #SIZE} películas con la misma configuración de Jackson que aplica Spring Boot.
+ * Los tiempos se reportan en nanosegundos por película; los bytes por película de cada formato
+ * se imprimen al preparar el benchmark.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final int SIZE = 1000;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+
+    private JavaType listType;
+
+    private List<PeliculaModel> peliculas;
+
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Smile con referencias a nombres y valores repetidos, como en WireFormatConfig
+        MapperBuilder<?, ?> builder = switch (format) {
+            case "json" -> JsonMapper.builder();
+            case "cbor" -> CBORMapper.builder();
+            case "smile" -> SmileMapper.builder(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build());
+            default -> throw new IllegalArgumentException("Formato desconocido: " + format);
+        };
+        objectMapper = builder
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        listType = objectMapper.getTypeFactory().constructCollectionType(List.class, PeliculaModel.class);
+
+        LocalDate fecha = LocalDate.of(2024, 1, 1);
+        peliculas = new ArrayList<>(SIZE);
+        for (int i = 1; i <= SIZE; i++) {
+            PeliculaModel pelicula = new PeliculaModel();
+            pelicula.setId((long) i);
+            pelicula.setNombre("Pelicula " + i);
+            pelicula.setDescripcion("Descripcion de la pelicula numero " + i + " usada para medir la serializacion.");
+            pelicula.setCubierta("https://cdn.example.com/cubiertas/" + i + ".jpg");
+            pelicula.setPuntaje(i % 10);
+            pelicula.setEstado(i % 3 == 0 ? "Edicion" : "Publicada");
+            pelicula.setEstadoAlquiler(i % 2 == 0 ? "Alquilada" : "Disponible");
+            pelicula.setFechaCreacion(fecha);
+            pelicula.setFechaModificacion(fecha.plusDays(i % 365));
+            peliculas.add(pelicula);
+        }
+
+        encoded = objectMapper.writeValueAsBytes(peliculas);
+        System.out.printf("%n%s: %d bytes, %.1f bytes por película%n", format, encoded.length, (double) encoded.length / SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(peliculas);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public List<PeliculaModel> decode() throws IOException {
+        return objectMapper.readValue(encoded, listType);
+    }
+}
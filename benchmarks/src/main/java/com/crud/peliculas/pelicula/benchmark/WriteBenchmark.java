@@ -0,0 +1,111 @@
+package com.crud.peliculas.pelicula.benchmark;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.repository.PeliculaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara guardar y actualizar {@code size} películas una a una (save/update) frente a un
+ * único lote JDBC (saveAll/updateAll) con PeliculaRepository.
+ *
+ * H2 en memoria no tiene latencia de red, por lo que la diferencia medida aquí es el límite
+ * inferior de la que se observa contra SQL Server, donde cada sentencia individual es un viaje.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WriteBenchmark {
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PeliculaRepository repository;
+
+    // Películas nuevas para las inserciones, sin ID
+    private List<PeliculaModel> nuevas;
+
+    // Películas existentes para las actualizaciones, con su ID
+    private List<PeliculaModel> existentes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DataSource dataSource = BenchmarkDatabase.create("write" + size);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = BenchmarkDatabase.repository(dataSource);
+
+        nuevas = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            PeliculaModel pelicula = new PeliculaModel();
+            pelicula.setNombre("Pelicula " + i);
+            pelicula.setDescripcion("Descripcion de la pelicula numero " + i);
+            pelicula.setPuntaje(i % 10);
+            pelicula.setEstado("Publicada");
+            pelicula.setEstadoAlquiler("Disponible");
+            nuevas.add(pelicula);
+        }
+    }
+
+    /**
+     * Vacía la tabla antes de cada iteración para que las inserciones no la hagan crecer
+     * sin límite, y deja {@code size} filas para las actualizaciones.
+     */
+    @Setup(Level.Iteration)
+    public void resetTable() {
+        jdbcTemplate.update("DELETE FROM Peliculas");
+        BenchmarkDatabase.seed(jdbcTemplate, size);
+        existentes = repository.findAll();
+        for (PeliculaModel pelicula : existentes) {
+            pelicula.setNombre(pelicula.getNombre() + " (editada)");
+        }
+    }
+
+    @Benchmark
+    public int saveEach() {
+        int rows = 0;
+        for (PeliculaModel pelicula : nuevas) {
+            rows += repository.save(pelicula);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public int[] saveAll() {
+        return repository.saveAll(nuevas);
+    }
+
+    @Benchmark
+    public int updateEach() {
+        int rows = 0;
+        for (PeliculaModel pelicula : existentes) {
+            rows += repository.update(pelicula);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public int[] updateAll() {
+        return repository.updateAll(existentes);
+    }
+}
@@ -0,0 +1,14 @@
+-- Esquema equivalente a scriptDB para los benchmarks sobre H2 (modo MSSQLServer).
+DROP TABLE IF EXISTS Peliculas;
+
+CREATE TABLE Peliculas (
+    Id INT IDENTITY(1,1) PRIMARY KEY,
+    Nombre VARCHAR(255) NOT NULL,
+    Descripcion TEXT,
+    Cubierta VARCHAR(255),
+    Puntaje NUMERIC(2, 1) CHECK (Puntaje BETWEEN 0 AND 10),
+    Estado VARCHAR(20) NOT NULL CHECK (Estado IN ('Publicada', 'Edicion')),
+    Estado_alquiler VARCHAR(20) NOT NULL CHECK (Estado_alquiler IN ('Disponible', 'Alquilada')),
+    Fecha_creacion DATETIME DEFAULT GETDATE(),
+    Fecha_modificacion DATETIME DEFAULT GETDATE()
+);
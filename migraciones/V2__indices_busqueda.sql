@@ -0,0 +1,15 @@
+-- Índices para el endpoint /api/v1/pelicula/search.
+-- Se aplica sobre la base creada con scriptDB (versión 1 del esquema).
+
+-- Filtros de igualdad por Estado y Estado_alquiler con rango de Puntaje.
+-- Las columnas incluidas permiten ordenar por nombre o fechas sin volver a la tabla;
+-- Descripcion (TEXT) no puede incluirse y se lee solo para las filas devueltas.
+CREATE INDEX IX_Peliculas_Estado_EstadoAlquiler_Puntaje
+    ON Peliculas (Estado, Estado_alquiler, Puntaje)
+    INCLUDE (Nombre, Cubierta, Fecha_creacion, Fecha_modificacion);
+
+-- Orden por nombre (sort=nombre) sin ordenar en memoria. El filtro nombre de /search busca el
+-- texto en cualquier parte (LIKE '%texto%') y con este índice solo puede recorrerlo completo.
+CREATE INDEX IX_Peliculas_Nombre
+    ON Peliculas (Nombre)
+    INCLUDE (Estado, Estado_alquiler, Puntaje);
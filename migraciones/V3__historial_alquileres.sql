@@ -0,0 +1,43 @@
+-- Historial de alquileres y agregados para /api/v1/pelicula/stats/rentals y /stats/top.
+-- Se aplica después de V2__indices_busqueda.sql.
+
+-- Registro de solo inserción: una fila por cada cambio efectivo del estado de alquiler.
+-- Tipo es el estado al que pasó la película: 'Alquilada' (alquiler) o 'Disponible' (devolución).
+-- No tiene llave foránea a Peliculas: el historial se conserva al eliminar la película.
+CREATE TABLE Alquileres_eventos (
+    Id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    Pelicula_id INT NOT NULL,
+    Tipo VARCHAR(20) NOT NULL CHECK (Tipo IN ('Disponible', 'Alquilada')),
+    Fecha DATETIME2(3) NOT NULL
+);
+
+CREATE INDEX IX_Alquileres_eventos_Pelicula_Fecha
+    ON Alquileres_eventos (Pelicula_id, Fecha);
+
+-- Agregados por película y hora, mantenidos en la misma transacción que cada evento.
+-- La llave por período primero sirve los rangos de tiempo de todas las películas; el índice
+-- por película sirve la serie de una sola película.
+CREATE TABLE Alquileres_por_hora (
+    Hora DATETIME2(0) NOT NULL,
+    Pelicula_id INT NOT NULL,
+    Alquileres INT NOT NULL,
+    Devoluciones INT NOT NULL,
+    CONSTRAINT PK_Alquileres_por_hora PRIMARY KEY (Hora, Pelicula_id)
+);
+
+CREATE INDEX IX_Alquileres_por_hora_Pelicula
+    ON Alquileres_por_hora (Pelicula_id, Hora)
+    INCLUDE (Alquileres, Devoluciones);
+
+-- Agregados por película y día, usados por /stats/top y las series diarias.
+CREATE TABLE Alquileres_por_dia (
+    Dia DATE NOT NULL,
+    Pelicula_id INT NOT NULL,
+    Alquileres INT NOT NULL,
+    Devoluciones INT NOT NULL,
+    CONSTRAINT PK_Alquileres_por_dia PRIMARY KEY (Dia, Pelicula_id)
+);
+
+CREATE INDEX IX_Alquileres_por_dia_Pelicula
+    ON Alquileres_por_dia (Pelicula_id, Dia)
+    INCLUDE (Alquileres, Devoluciones);
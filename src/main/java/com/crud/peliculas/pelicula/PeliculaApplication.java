@@ -2,8 +2,12 @@ package com.crud.peliculas.pelicula;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// La configuración automática de R2DBC se excluye: su ReactiveTransactionManager reemplazaría al
+// gestor de transacciones JDBC. La conexión R2DBC se crea solo con el perfil "reactive" (ReactiveConfig).
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class PeliculaApplication {
 
     public static void main(String[] args) {
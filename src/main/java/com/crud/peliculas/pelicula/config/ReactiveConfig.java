@@ -0,0 +1,64 @@
+package com.crud.peliculas.pelicula.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la pila reactiva (perfil "reactive"): un pool de conexiones R2DBC y el
+ * DatabaseClient usado por R2dbcPeliculaRepository. La URL define el driver: r2dbc:mssql://
+ * para SQL Server en producción y r2dbc:h2:mem:// en las pruebas.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Value("${pelicula.r2dbc.url}")
+    private String url;
+
+    @Value("${pelicula.r2dbc.username:}")
+    private String username;
+
+    @Value("${pelicula.r2dbc.password:}")
+    private String password;
+
+    // Conexiones del pool; con E/S no bloqueante unas pocas atienden miles de solicitudes concurrentes
+    @Value("${pelicula.r2dbc.pool.max-size:20}")
+    private int maxSize;
+
+    @Value("${pelicula.r2dbc.pool.max-idle-time:30m}")
+    private Duration maxIdleTime;
+
+    /**
+     * Pool de conexiones R2DBC; se cierra junto con el contexto.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory() {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options.build());
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(Math.min(maxSize, 5))
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionPool connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
@@ -0,0 +1,110 @@
+package com.crud.peliculas.pelicula.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+/**
+ * Registro de las escrituras recientes para la consistencia de lectura con una réplica.
+ *
+ * PeliculaService llama a {@link #record()} al aceptar cada escritura, antes de enviarla a la base
+ * de datos o a la cola write-behind. Durante {@code sticky-window}, el tiempo que la réplica puede
+ * tardar en recibir el cambio:
+ * <ul>
+ *   <li>las lecturas del cliente que escribió van al primario ({@link ReplicaRoutingDataSource});</li>
+ *   <li>ninguna lectura llena las cachés compartidas, porque podría venir de una réplica atrasada
+ *       y servirse después a quien escribió ({@link #isWriteWindowOpen()}).</li>
+ * </ul>
+ * El cliente se identifica por la cabecera {@code X-Client-Id} o, si no la envía, por su
+ * dirección IP. Sin réplica configurada no registra nada.
+ */
+@Component
+@Profile("!reactive")
+public class RecentWriters {
+
+    // Cabecera con la que un cliente se identifica para la consistencia de sus lecturas
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    // Las escrituras solo se registran si hay una réplica
+    @Value("${pelicula.datasource.replica.url:}")
+    private String replicaUrl;
+
+    // Tiempo durante el que las lecturas de un cliente van al primario después de que escribe
+    @Value("${pelicula.datasource.replica.sticky-window:2s}")
+    private Duration stickyWindow;
+
+    private boolean enabled;
+
+    // Clientes que escribieron dentro de la ventana de consistencia
+    private Cache<String, Boolean> clients;
+
+    // Instante (System.nanoTime) de la última escritura de cualquier cliente
+    private volatile long lastWrite;
+
+    /**
+     * Construye el registro de clientes con la ventana configurada.
+     */
+    @PostConstruct
+    void init() {
+        enabled = replicaUrl != null && !replicaUrl.isBlank();
+        clients = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(100_000)
+                .build();
+        lastWrite = System.nanoTime() - stickyWindow.toNanos();
+    }
+
+    /**
+     * Registra una escritura del cliente de la solicitud en curso. Fuera de una solicitud HTTP
+     * (por ejemplo, el vaciado de la cola write-behind) solo se abre la ventana global.
+     */
+    public void record() {
+        if (!enabled) {
+            return;
+        }
+        lastWrite = System.nanoTime();
+        String client = currentClient();
+        if (client != null) {
+            clients.put(client, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @return true si el cliente de la solicitud en curso escribió dentro de la ventana.
+     */
+    public boolean isCurrentClientSticky() {
+        if (!enabled) {
+            return false;
+        }
+        String client = currentClient();
+        return client != null && clients.getIfPresent(client) != null;
+    }
+
+    /**
+     * @return true si algún cliente escribió dentro de la ventana: una lectura de la réplica puede
+     *         no incluir esa escritura y no debe guardarse en una caché compartida.
+     */
+    public boolean isWriteWindowOpen() {
+        return enabled && System.nanoTime() - lastWrite < stickyWindow.toNanos();
+    }
+
+    /**
+     * @return Identificador del cliente de la solicitud HTTP en curso, o null fuera de una solicitud.
+     */
+    private static String currentClient() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        String clientId = servletAttributes.getRequest().getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? clientId : servletAttributes.getRequest().getRemoteAddr();
+    }
+}
@@ -0,0 +1,73 @@
+package com.crud.peliculas.pelicula.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuración de lectura desde una réplica, activa cuando se define
+ * {@code pelicula.datasource.replica.url}. Crea un pool Hikari para el primario (propiedades
+ * {@code spring.datasource.*}) y otro para la réplica ({@code pelicula.datasource.replica.*}),
+ * con tamaños independientes, y los combina en un {@link ReplicaRoutingDataSource}. La ventana de
+ * consistencia ({@code sticky-window}) la aplica {@link RecentWriters}.
+ *
+ * Sin réplica configurada, Spring Boot crea el DataSource habitual y todo va al primario.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "pelicula.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    // Tiempo sin intentar la réplica después de un fallo
+    @Value("${pelicula.datasource.replica.retry-after:5s}")
+    private Duration retryAfter;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("pelicula.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${pelicula.datasource.replica.url}") String url,
+                                              @Value("${pelicula.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${pelicula.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    /**
+     * DataSource usado por JdbcTemplate y por el administrador de transacciones.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 RecentWriters recentWriters,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, recentWriters, retryAfter, meterRegistry));
+    }
+}
@@ -0,0 +1,123 @@
+package com.crud.peliculas.pelicula.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * DataSource que envía las lecturas a una réplica y todo lo demás al primario.
+ *
+ * Una conexión es de lectura cuando se obtiene dentro de una transacción
+ * {@code @Transactional(readOnly = true)}; por eso este DataSource se usa envuelto en un
+ * LazyConnectionDataSourceProxy, que pide la conexión física después de que la transacción
+ * marca si es de solo lectura.
+ *
+ * Consistencia de lectura de las propias escrituras: cuando un cliente escribió hace poco, según
+ * {@link RecentWriters}, sus lecturas van al primario. Las escrituras se registran donde se
+ * aceptan (PeliculaService) y no al obtener una conexión: una lectura fuera de una transacción de
+ * solo lectura también usa el primario y no convierte a quien la hace en escritor.
+ *
+ * Si la réplica no entrega una conexión, la lectura se hace en el primario y la réplica no se
+ * vuelve a intentar durante {@code retryAfter}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final DataSource primary;
+
+    private final DataSource replica;
+
+    private final Duration retryAfter;
+
+    // Clientes que escribieron dentro de la ventana de consistencia
+    private final RecentWriters recentWriters;
+
+    private final Counter replicaReads;
+
+    private final Counter primaryReads;
+
+    private final Counter fallbacks;
+
+    // Instante (System.nanoTime) hasta el que no se intenta la réplica después de un fallo
+    private volatile long replicaDownUntil;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, RecentWriters recentWriters, Duration retryAfter,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryAfter = retryAfter;
+        this.recentWriters = recentWriters;
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.primaryReads = readCounter(meterRegistry, "primary");
+        this.fallbacks = Counter.builder("pelicula.datasource.replica.fallbacks")
+                .description("Lecturas enviadas al primario porque la réplica no entregó una conexión")
+                .register(meterRegistry);
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("pelicula.datasource.reads")
+                .description("Conexiones de solo lectura por destino")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        if (recentWriters.isCurrentClientSticky()) {
+            // El cliente escribió hace poco: la réplica podría no tener su cambio todavía
+            return Route.PRIMARY;
+        }
+        return System.nanoTime() - replicaDownUntil < 0 ? Route.PRIMARY : Route.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Route route = (Route) determineCurrentLookupKey();
+        if (route == Route.PRIMARY) {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                primaryReads.increment();
+            }
+            return primary.getConnection();
+        }
+
+        try {
+            Connection connection = replica.getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            // Hikari lanza PoolInitializationException (no verificada) si la réplica no responde al iniciar el pool
+            replicaDownUntil = System.nanoTime() + retryAfter.toNanos();
+            fallbacks.increment();
+            logger.warn("Réplica no disponible, se lee del primario durante {}: {}", retryAfter, e.getMessage());
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Las credenciales de cada pool se configuran en el pool
+        return getConnection();
+    }
+}
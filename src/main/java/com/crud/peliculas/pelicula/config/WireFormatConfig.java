@@ -0,0 +1,39 @@
+package com.crud.peliculas.pelicula.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Formatos binarios de la API para los consumidores entre servicios: CBOR (application/cbor)
+ * y Smile (application/x-jackson-smile), negociados con las cabeceras Accept y Content-Type.
+ * JSON sigue siendo el formato por defecto.
+ *
+ * Los convertidores parten del Jackson2ObjectMapperBuilder de Spring Boot, de modo que aplican la
+ * misma configuración que las respuestas JSON (módulos, fechas ISO-8601 y propiedades spring.jackson.*).
+ */
+@Configuration
+@Profile("!reactive")
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // Las referencias a nombres de campo repetidos (activadas por defecto) evitan escribir en cada
+        // película los mismos nombres; las de valores hacen lo mismo con Estado y Estado_alquiler.
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(factory).build());
+    }
+}
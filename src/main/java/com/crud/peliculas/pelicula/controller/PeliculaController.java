@@ -1,41 +1,606 @@
 package com.crud.peliculas.pelicula.controller;
 
+import com.crud.peliculas.pelicula.cubierta.CubiertaCache;
+import com.crud.peliculas.pelicula.model.BatchResult;
+import com.crud.peliculas.pelicula.model.ImportResult;
 import com.crud.peliculas.pelicula.model.ServiceResponse;
 import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import com.crud.peliculas.pelicula.model.RentalResult;
+import com.crud.peliculas.pelicula.model.RentalStat;
+import com.crud.peliculas.pelicula.model.TopPelicula;
+import com.crud.peliculas.pelicula.service.CatalogVersion;
 import com.crud.peliculas.pelicula.service.IPeliculaService;
+import com.crud.peliculas.pelicula.service.IPeliculaTransferService;
+import com.crud.peliculas.pelicula.service.IRentalStatsService;
+import com.crud.peliculas.pelicula.service.PeliculaEventPublisher;
+import com.crud.peliculas.pelicula.service.RenderedCatalog;
+import com.crud.peliculas.pelicula.service.RentalStatsService;
+import com.crud.peliculas.pelicula.service.TransferFormat;
+import com.crud.peliculas.pelicula.validation.PeliculaValidator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Controlador para manejar las solicitudes relacionadas con la entidad Película.
  * Expone endpoints para las operaciones CRUD (listar, guardar, actualizar y eliminar).
+ * Con el perfil "reactive" las mismas rutas las atiende PeliculaReactiveController.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("api/v1/pelicula") // Ruta base para las solicitudes de películas.
 @CrossOrigin("*") // Permite solicitudes desde cualquier origen (considerar restringir a dominios específicos en producción).
 public class PeliculaController {
 
+    // Tamaño de página por defecto y máximo permitido para la paginación por cursor
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // Número máximo de resultados de la búsqueda por texto
+    private static final int MAX_TEXT_RESULTS = 100;
+
+    // Tipo de contenido de Smile, el formato binario de Jackson (MediaType no tiene una constante)
+    private static final String SMILE_MEDIA_TYPE = "application/x-jackson-smile";
+
+    // Rango por defecto y máximo (en días) de las estadísticas de alquileres, y tamaño máximo del ranking
+    private static final int DEFAULT_STATS_DAYS = 7;
+    private static final int MAX_HOURLY_STATS_DAYS = 31;
+    private static final int MAX_STATS_DAYS = 366;
+    private static final int MAX_TOP_RESULTS = 100;
+
+    // Encabezado con el cursor de la siguiente página
+    private static final String NEXT_AFTER_HEADER = "X-Next-After";
+
+    // Atributos con los que Tomcat envía un archivo con sendfile en lugar de copiarlo (org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     // Inyección de dependencia del servicio de película
     @Autowired
     private IPeliculaService iPeliculaService;
 
+    // Servicio de exportación e importación masiva del catálogo
+    @Autowired
+    private IPeliculaTransferService iPeliculaTransferService;
+
+    // Estadísticas de alquileres calculadas con los agregados del historial
+    @Autowired
+    private IRentalStatsService iRentalStatsService;
+
+    // Suscripciones a los cambios del catálogo
+    @Autowired
+    private PeliculaEventPublisher peliculaEventPublisher;
+
+    // Serializador JSON configurado por Spring Boot, usado para escribir las respuestas en streaming
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Caché en disco de las cubiertas y sus variantes redimensionadas
+    @Autowired
+    private CubiertaCache cubiertaCache;
+
+    // Tiempo durante el que el navegador reutiliza una cubierta sin revalidarla
+    @Value("${pelicula.cubierta.max-age:1d}")
+    private Duration cubiertaMaxAge;
+
     /**
      * Endpoint para listar todas las películas.
-     * @return ResponseEntity con una lista de películas.
+     * El catálogo se sirve ya serializado y, si el cliente acepta gzip, ya comprimido: la respuesta
+     * se construye una vez por versión del catálogo y luego solo se copian sus bytes.
+     * La respuesta lleva el ETag de la versión del catálogo, con el sufijo {@code -gzip} si va
+     * comprimida: cada representación tiene su propio ETag fuerte. Si el cliente lo envía en
+     * {@code If-None-Match} y no hubo escrituras, se responde 304 sin consultar la base de datos.
+     * @param acceptEncoding Codificaciones aceptadas por el cliente.
+     * @param request Solicitud en curso, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con el arreglo JSON de películas, o 304 si el cliente ya tiene la versión actual.
+     */
+    @GetMapping(value = "/list", params = {"!after", "!limit"})
+    public ResponseEntity<byte[]> list(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                       WebRequest request) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        if (request.checkNotModified(representationEtag(iPeliculaService.catalogVersion().etag(), gzip ? "gzip" : null))) {
+            // El cliente ya tiene esta versión: 304 sin cuerpo
+            return null;
+        }
+
+        // Llama al servicio para obtener el catálogo ya serializado
+        RenderedCatalog catalog = iPeliculaService.findAllRendered();
+
+        // Retorna una respuesta con el estado HTTP 200 (OK), los bytes de la lista y su versión.
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(representationEtag(catalog.etag(), gzip ? "gzip" : null))
+                .lastModified(catalog.lastModified())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(gzip ? catalog.gzip() : catalog.json());
+    }
+
+    /**
+     * Endpoint para listar todas las películas en CBOR, elegido con la cabecera Accept. Admite las
+     * mismas solicitudes condicionales que la versión JSON, con el sufijo {@code -cbor} en el ETag.
+     * @param request Solicitud en curso, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con la lista de películas, o 304 si el cliente ya tiene la versión actual.
+     */
+    @GetMapping(value = "/list", params = {"!after", "!limit"}, produces = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<List<PeliculaModel>> listCbor(WebRequest request) {
+        return listBinary(request, "cbor");
+    }
+
+    /**
+     * Endpoint para listar todas las películas en Smile, elegido con la cabecera Accept. Admite las
+     * mismas solicitudes condicionales que la versión JSON, con el sufijo {@code -smile} en el ETag.
+     * @param request Solicitud en curso, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con la lista de películas, o 304 si el cliente ya tiene la versión actual.
+     */
+    @GetMapping(value = "/list", params = {"!after", "!limit"}, produces = SMILE_MEDIA_TYPE)
+    public ResponseEntity<List<PeliculaModel>> listSmile(WebRequest request) {
+        return listBinary(request, "smile");
+    }
+
+    /**
+     * Lista el catálogo para un formato binario; el convertidor del formato negociado lo codifica.
+     */
+    private ResponseEntity<List<PeliculaModel>> listBinary(WebRequest request, String format) {
+        // La versión se lee antes que los datos: si cambia mientras se leen, el cliente volverá a pedirlos
+        CatalogVersion.Snapshot version = iPeliculaService.catalogVersion();
+        String etag = representationEtag(version.etag(), format);
+        if (request.checkNotModified(etag)) {
+            // El cliente ya tiene esta versión: 304 sin cuerpo
+            return null;
+        }
+
+        // El catálogo pre-serializado es JSON: aquí lo codifica el convertidor del formato negociado
+        List<PeliculaModel> peliculas = iPeliculaService.findAll();
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(version.lastModified(peliculas))
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .body(peliculas);
+    }
+
+    /**
+     * ETag de una representación del catálogo: el de la versión con el sufijo de la representación
+     * dentro de las comillas ({@code "v42"} pasa a {@code "v42-gzip"}), o el de la versión si es null.
+     */
+    static String representationEtag(String etag, String representation) {
+        if (representation == null) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + representation + "\"";
+    }
+
+    /**
+     * Endpoint para listar las películas por páginas.
+     * Con {@code after} y/o {@code limit} devuelve una página ordenada por ID que empieza después
+     * del ID indicado; si la página está completa, el encabezado {@code X-Next-After} contiene
+     * el cursor para solicitar la siguiente. Admite las mismas solicitudes condicionales que /list.
+     * @param after Último ID recibido en la página anterior (opcional).
+     * @param limit Tamaño de la página (opcional, entre 1 y {@value #MAX_PAGE_SIZE}).
+     * @param request Solicitud en curso, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con una página de películas, o 304 si el cliente ya tiene la versión actual.
      */
     @GetMapping("/list")
-    public ResponseEntity<List<PeliculaModel>> list() {
-        // Llama al servicio para obtener todas las películas
-        List<PeliculaModel> result = iPeliculaService.findAll();
+    public ResponseEntity<List<PeliculaModel>> listPage(@RequestParam(required = false) Long after,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        WebRequest request) {
+        return page(after, limit, request, null);
+    }
+
+    /**
+     * Endpoint para listar las películas por páginas en CBOR, con el sufijo {@code -cbor} en el ETag.
+     * @param after Último ID recibido en la página anterior (opcional).
+     * @param limit Tamaño de la página (opcional, entre 1 y {@value #MAX_PAGE_SIZE}).
+     * @param request Solicitud en curso, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con una página de películas, o 304 si el cliente ya tiene la versión actual.
+     */
+    @GetMapping(value = "/list", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<List<PeliculaModel>> listPageCbor(@RequestParam(required = false) Long after,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            WebRequest request) {
+        return page(after, limit, request, "cbor");
+    }
+
+    /**
+     * Endpoint para listar las películas por páginas en Smile, con el sufijo {@code -smile} en el ETag.
+     * @param after Último ID recibido en la página anterior (opcional).
+     * @param limit Tamaño de la página (opcional, entre 1 y {@value #MAX_PAGE_SIZE}).
+     * @param request Solicitud en curso, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con una página de películas, o 304 si el cliente ya tiene la versión actual.
+     */
+    @GetMapping(value = "/list", produces = SMILE_MEDIA_TYPE)
+    public ResponseEntity<List<PeliculaModel>> listPageSmile(@RequestParam(required = false) Long after,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             WebRequest request) {
+        return page(after, limit, request, "smile");
+    }
+
+    /**
+     * Lista una página del catálogo; {@code format} es el sufijo del ETag del formato negociado,
+     * o null para JSON.
+     */
+    private ResponseEntity<List<PeliculaModel>> page(Long after, Integer limit, WebRequest request, String format) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE || (after != null && after < 0)) {
+            // Parámetros de paginación fuera de rango
+            return ResponseEntity.badRequest().build();
+        }
+
+        // La versión se lee antes que los datos: si cambia mientras se leen, el cliente volverá a pedirlos
+        CatalogVersion.Snapshot version = iPeliculaService.catalogVersion();
+        String etag = representationEtag(version.etag(), format);
+        if (request.checkNotModified(etag)) {
+            // El cliente ya tiene esta versión: 304 sin cuerpo
+            return null;
+        }
+
+        // Llama al servicio para obtener solo la página solicitada
+        List<PeliculaModel> page = iPeliculaService.findPage(after != null ? after : 0L, pageSize);
 
-        // Retorna una respuesta con el estado HTTP 200 (OK) y la lista de películas.
+        // Si la página está completa puede haber más filas: se informa el cursor siguiente.
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(version.lastModified(page))
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (page.size() == pageSize) {
+            builder.header(NEXT_AFTER_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+        }
+        return builder.body(page);
+    }
+
+    /**
+     * Endpoint para obtener una película por su ID, con el mismo ETag de versión del catálogo que /list.
+     * @param id El ID de la película.
+     * @param request Solicitud en curso, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con la película, 304 si el cliente ya tiene la versión actual o 404 si no existe.
+     */
+    @GetMapping("/{id:\\d+}")
+    public ResponseEntity<PeliculaModel> findById(@PathVariable int id, WebRequest request) {
+        return item(id, request, null);
+    }
+
+    /**
+     * Endpoint para obtener una película por su ID en CBOR, con el sufijo {@code -cbor} en el ETag.
+     * @param id El ID de la película.
+     * @param request Solicitud en curso, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con la película, 304 si el cliente ya tiene la versión actual o 404 si no existe.
+     */
+    @GetMapping(value = "/{id:\\d+}", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<PeliculaModel> findByIdCbor(@PathVariable int id, WebRequest request) {
+        return item(id, request, "cbor");
+    }
+
+    /**
+     * Endpoint para obtener una película por su ID en Smile, con el sufijo {@code -smile} en el ETag.
+     * @param id El ID de la película.
+     * @param request Solicitud en curso, para evaluar las cabeceras condicionales.
+     * @return ResponseEntity con la película, 304 si el cliente ya tiene la versión actual o 404 si no existe.
+     */
+    @GetMapping(value = "/{id:\\d+}", produces = SMILE_MEDIA_TYPE)
+    public ResponseEntity<PeliculaModel> findByIdSmile(@PathVariable int id, WebRequest request) {
+        return item(id, request, "smile");
+    }
+
+    /**
+     * Busca una película por su ID; {@code format} es el sufijo del ETag del formato negociado,
+     * o null para JSON.
+     */
+    private ResponseEntity<PeliculaModel> item(int id, WebRequest request, String format) {
+        CatalogVersion.Snapshot version = iPeliculaService.catalogVersion();
+        String etag = representationEtag(version.etag(), format);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        return iPeliculaService.findById(id)
+                .map(pelicula -> ResponseEntity.ok()
+                        .eTag(etag)
+                        .lastModified(version.lastModified(List.of(pelicula)))
+                        .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                        .body(pelicula))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Endpoint para obtener la cubierta de una película desde la caché en disco, en lugar de que cada
+     * cliente la descargue del origen a tamaño completo. Con {@code w} se sirve una versión reducida
+     * al menor ancho configurado que cubra el pedido. La respuesta lleva un ETag propio de la imagen
+     * y Cache-Control con max-age; el archivo se envía con sendfile cuando Tomcat lo permite.
+     * @param id El ID de la película.
+     * @param w Ancho deseado en píxeles (opcional).
+     * @return 200 con la imagen, 304 si el cliente ya la tiene, 404 si la película no existe o no
+     * tiene cubierta, o 502 si no se pudo obtener del origen.
+     */
+    @GetMapping("/{id:\\d+}/cubierta")
+    public ResponseEntity<ServiceResponse> cubierta(@PathVariable int id, @RequestParam(required = false) Integer w,
+                                                    HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ServiceResponse serviceResponse = new ServiceResponse();
+        String url = iPeliculaService.findById(id).map(PeliculaModel::getCubierta).orElse(null);
+        if (url == null || url.isBlank()) {
+            serviceResponse.setMessage("Película no encontrada o sin cubierta.");
+            return new ResponseEntity<>(serviceResponse, HttpStatus.NOT_FOUND);
+        }
+
+        CubiertaCache.Lease cubierta;
+        try {
+            cubierta = cubiertaCache.open(url, w);
+        } catch (Exception e) {
+            serviceResponse.setMessage("Error al obtener la cubierta: " + e.getMessage());
+            return new ResponseEntity<>(serviceResponse, HttpStatus.BAD_GATEWAY);
+        }
+
+        // El archivo no se borra de la caché mientras se envía
+        try (cubierta) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(cubiertaMaxAge).cachePublic().getHeaderValue());
+            if (new ServletWebRequest(request, response).checkNotModified("\"" + cubierta.entry().key() + "\"")) {
+                return null;
+            }
+            sendFile(cubierta.entry(), request, response);
+            return null;
+        }
+    }
+
+    /**
+     * Escribe el archivo en la respuesta sin pasarlo por la memoria de la aplicación. Con el conector
+     * de Tomcat que admite sendfile, se le indica el archivo y el kernel lo copia directamente al
+     * socket después de que el controlador retorna; en otro caso se copia con FileChannel.transferTo.
+     */
+    private static void sendFile(CubiertaCache.Entry cubierta, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setContentType(cubierta.contentType());
+        response.setContentLengthLong(cubierta.length());
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, cubierta.file().toString());
+            request.setAttribute(SENDFILE_START_ATTR, 0L);
+            request.setAttribute(SENDFILE_END_ATTR, cubierta.length());
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(cubierta.file(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < cubierta.length()) {
+                long sent = channel.transferTo(position, cubierta.length() - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    /**
+     * Endpoint para listar todas las películas en modo streaming.
+     * Las filas se escriben en la respuesta como un arreglo JSON a medida que la base de datos
+     * las entrega, por lo que la memoria usada por solicitud no depende del tamaño del catálogo.
+     * @return ResponseEntity con el cuerpo que escribe el arreglo de películas.
+     */
+    @GetMapping("/list/stream")
+    public ResponseEntity<StreamingResponseBody> listStream() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                iPeliculaService.streamAll(pelicula -> {
+                    try {
+                        generator.writeObject(pelicula);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Endpoint de Server-Sent Events con los cambios del catálogo: created, updated, deleted y
+     * rental, con el ID de la película y los campos modificados, y reset cuando el cliente debe
+     * recargar el catálogo. Cada evento lleva un número de secuencia como id; el navegador lo
+     * reenvía en {@code Last-Event-ID} al reconectarse y recibe los eventos que se perdió.
+     * @param lastEventIdHeader Último evento recibido, enviado por EventSource al reconectarse.
+     * @param lastEventId Alternativa como parámetro de la URL, para clientes que no envían la cabecera.
+     * @return Conexión SSE abierta.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                             @RequestParam(required = false) Long lastEventId) {
+        return peliculaEventPublisher.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    /**
+     * Endpoint para buscar películas con filtros aplicados en la base de datos.
+     * Parámetros opcionales: estado, estadoAlquiler, puntajeMin, puntajeMax, nombre (texto contenido),
+     * sort (id, nombre, puntaje, fechaCreacion, fechaModificacion), direction (asc, desc)
+     * y limit (entre 1 y 1000, por defecto 100).
+     * @param criteria Filtros de la búsqueda tomados de los parámetros de la URL.
+     * @return ResponseEntity con las películas encontradas, o 400 si algún parámetro no es válido.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PeliculaModel>> search(@ModelAttribute PeliculaSearchCriteria criteria) {
+        if (PeliculaValidator.validate(criteria) != null) {
+            // Parámetros de búsqueda no válidos
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Llama al servicio para ejecutar la búsqueda
+        List<PeliculaModel> result = iPeliculaService.search(criteria);
         return new ResponseEntity<>(result, HttpStatus.OK);
     }
 
+    /**
+     * Endpoint para buscar películas por palabras del nombre o la descripción.
+     * Los resultados se ordenan por relevancia; las coincidencias en el nombre pesan más.
+     * @param q Texto de la consulta.
+     * @param limit Número máximo de resultados (entre 1 y {@value #MAX_TEXT_RESULTS}, por defecto 20).
+     * @return ResponseEntity con las películas encontradas.
+     */
+    @GetMapping("/search/text")
+    public ResponseEntity<List<PeliculaModel>> searchText(@RequestParam String q,
+                                                          @RequestParam(defaultValue = "20") int limit) {
+        if (q.isBlank() || limit < 1 || limit > MAX_TEXT_RESULTS) {
+            // Consulta vacía o límite fuera de rango
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Llama al servicio para buscar en el índice de texto
+        List<PeliculaModel> result = iPeliculaService.searchText(q, limit);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint con los alquileres y devoluciones por hora o por día, de todas las películas o de una.
+     * Se calcula con los agregados del historial, sin recorrer los eventos; solo aparecen los
+     * períodos con actividad.
+     * @param peliculaId ID de la película (opcional; sin él se suman todas).
+     * @param granularity "day" (por defecto) o "hour".
+     * @param from Primer día, ISO yyyy-MM-dd (por defecto, seis días antes de {@code to}).
+     * @param to Último día, ISO yyyy-MM-dd (por defecto, hoy).
+     * @return ResponseEntity con los períodos, o 400 si el rango supera {@value #MAX_HOURLY_STATS_DAYS}
+     *         días por hora o {@value #MAX_STATS_DAYS} días por día.
+     */
+    @GetMapping("/stats/rentals")
+    public ResponseEntity<List<RentalStat>> rentalStats(@RequestParam(required = false) Integer peliculaId,
+                                                        @RequestParam(defaultValue = RentalStatsService.DAY) String granularity,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(DEFAULT_STATS_DAYS - 1);
+        boolean hourly = RentalStatsService.HOUR.equals(granularity);
+        if ((!hourly && !RentalStatsService.DAY.equals(granularity))
+                || !validStatsRange(first, last, hourly ? MAX_HOURLY_STATS_DAYS : MAX_STATS_DAYS)) {
+            // Granularidad desconocida o rango fuera de los límites
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Llama al servicio de estadísticas
+        return new ResponseEntity<>(iRentalStatsService.rentals(peliculaId, granularity, first, last), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint con las películas más alquiladas en un rango de días, calculado con los agregados diarios.
+     * @param from Primer día, ISO yyyy-MM-dd (por defecto, seis días antes de {@code to}).
+     * @param to Último día, ISO yyyy-MM-dd (por defecto, hoy).
+     * @param limit Número de películas (entre 1 y {@value #MAX_TOP_RESULTS}, por defecto 10).
+     * @return ResponseEntity con el ranking, o 400 si algún parámetro está fuera de rango.
+     */
+    @GetMapping("/stats/top")
+    public ResponseEntity<List<TopPelicula>> topRentals(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(DEFAULT_STATS_DAYS - 1);
+        if (limit < 1 || limit > MAX_TOP_RESULTS || !validStatsRange(first, last, MAX_STATS_DAYS)) {
+            // Límite o rango fuera de los límites
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Llama al servicio de estadísticas
+        return new ResponseEntity<>(iRentalStatsService.top(first, last, limit), HttpStatus.OK);
+    }
+
+    private static boolean validStatsRange(LocalDate first, LocalDate last, int maxDays) {
+        return !first.isAfter(last) && ChronoUnit.DAYS.between(first, last) < maxDays;
+    }
+
+    /**
+     * Endpoint para exportar el catálogo completo en NDJSON o CSV.
+     * Las filas se escriben directamente desde el cursor de la base de datos.
+     * @param format Formato de salida: "ndjson" (por defecto) o "csv".
+     * @return ResponseEntity con el cuerpo que escribe el catálogo como archivo adjunto.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        TransferFormat transferFormat;
+        try {
+            transferFormat = TransferFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            // Formato no soportado
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream -> iPeliculaTransferService.exportAll(outputStream, transferFormat);
+        return ResponseEntity.ok()
+                .contentType(transferFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"peliculas." + transferFormat.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Endpoint para importar películas desde un archivo NDJSON o CSV enviado como cuerpo de la solicitud.
+     * El formato se toma del parámetro {@code format} o, si no se indica, del Content-Type
+     * ({@code application/x-ndjson} o {@code text/csv}). Las filas que no cumplen las
+     * restricciones del esquema se rechazan sin detener la importación.
+     * @param body Contenido del archivo, leído de forma incremental.
+     * @param contentType Content-Type de la solicitud.
+     * @param format Formato de entrada (opcional).
+     * @return ResponseEntity con el resumen de la importación.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportResult> importCatalog(InputStream body,
+                                                      @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                                      @RequestParam(required = false) String format) {
+        TransferFormat transferFormat;
+        try {
+            transferFormat = format != null
+                    ? TransferFormat.fromName(format)
+                    : TransferFormat.fromMediaType(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException e) {
+            // Formato no soportado o Content-Type ausente
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+
+        // Llama al servicio para importar el archivo
+        ImportResult result = iPeliculaTransferService.importAll(body, transferFormat);
+
+        // Si la importación se detuvo antes del final del archivo, se informa con 422.
+        HttpStatus status = result.isCompleted() ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status).body(result);
+    }
+
     /**
      * Endpoint para guardar una nueva película.
      * @param peliculaModel Objeto que representa la película a guardar.
@@ -65,6 +630,28 @@ public class PeliculaController {
         }
     }
 
+    /**
+     * Endpoint para guardar varias películas en una sola solicitud.
+     * Las películas se insertan en lotes dentro de una transacción: o se guardan todas o ninguna.
+     * @param peliculas Arreglo de películas a guardar.
+     * @return ResponseEntity con el resultado de cada película, en el mismo orden recibido.
+     */
+    @PostMapping("/save/batch")
+    public ResponseEntity<List<BatchResult>> saveBatch(@RequestBody List<PeliculaModel> peliculas) {
+        if (peliculas == null || peliculas.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            // Llama al servicio para guardar el lote de películas
+            int[] result = iPeliculaService.saveAll(peliculas);
+            return ResponseEntity.ok(toBatchResults(result, "Película guardada exitosamente", "Error al guardar la película."));
+        } catch (Exception e) {
+            // En caso de una excepción, ninguna película del lote se guarda.
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(failedBatch(peliculas.size(), "Error al guardar el lote de películas: " + e.getMessage()));
+        }
+    }
+
     /**
      * Endpoint para actualizar una película existente.
      * @param peliculaModel Objeto que contiene los datos de la película a actualizar.
@@ -87,6 +674,57 @@ public class PeliculaController {
                 serviceResponse.setMessage("Error al actualizar la película: Película no encontrada");
                 return new ResponseEntity<>(serviceResponse, HttpStatus.NOT_FOUND);
             }
+        } catch (IllegalArgumentException e) {
+            // La película no cumple las restricciones de la tabla
+            serviceResponse.setMessage("Error al actualizar la película: " + e.getMessage());
+            return new ResponseEntity<>(serviceResponse, HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            // En caso de una excepción, captura el error y retorna una respuesta con el mensaje.
+            serviceResponse.setMessage("Error al actualizar la película: " + e.getMessage());
+            return new ResponseEntity<>(serviceResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Endpoint para actualizar solo algunos campos de una película. El cuerpo es un objeto JSON con
+     * los campos a modificar (nombre, cubierta, descripcion, puntaje, estado, estadoAlquiler); los
+     * campos ausentes no se escriben y un campo enviado con null se guarda como NULL.
+     * @param id El ID de la película.
+     * @param cambios Campos a modificar con su nuevo valor.
+     * @return ResponseEntity con 200 si se actualizó, 400 si algún campo no es válido o 404 si no existe.
+     */
+    @PatchMapping("/{id:\\d+}")
+    public ResponseEntity<ServiceResponse> patch(@PathVariable int id, @RequestBody Map<String, Object> cambios) {
+        ServiceResponse serviceResponse = new ServiceResponse();
+
+        PeliculaModel valores;
+        try {
+            valores = objectMapper.convertValue(cambios, PeliculaModel.class);
+        } catch (IllegalArgumentException e) {
+            serviceResponse.setMessage("Error al actualizar la película: tipo de dato no válido");
+            return new ResponseEntity<>(serviceResponse, HttpStatus.BAD_REQUEST);
+        }
+        String error = PeliculaValidator.validatePatch(valores, cambios.keySet());
+        if (error != null) {
+            serviceResponse.setMessage("Error al actualizar la película: " + error);
+            return new ResponseEntity<>(serviceResponse, HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            // Llama al servicio para actualizar solo los campos recibidos
+            int result = iPeliculaService.patch(id, valores, cambios.keySet());
+
+            if (result == 1) {
+                serviceResponse.setMessage("Película actualizada exitosamente");
+                return new ResponseEntity<>(serviceResponse, HttpStatus.OK);
+            } else {
+                serviceResponse.setMessage("Error al actualizar la película: Película no encontrada");
+                return new ResponseEntity<>(serviceResponse, HttpStatus.NOT_FOUND);
+            }
+        } catch (IllegalArgumentException e) {
+            // La película no cumple las restricciones de la tabla
+            serviceResponse.setMessage("Error al actualizar la película: " + e.getMessage());
+            return new ResponseEntity<>(serviceResponse, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             // En caso de una excepción, captura el error y retorna una respuesta con el mensaje.
             serviceResponse.setMessage("Error al actualizar la película: " + e.getMessage());
@@ -94,6 +732,29 @@ public class PeliculaController {
         }
     }
 
+    /**
+     * Endpoint para actualizar varias películas en una sola solicitud.
+     * Las películas se actualizan en lotes dentro de una transacción; las que no existen
+     * se informan como no encontradas sin afectar al resto.
+     * @param peliculas Arreglo de películas con los datos actualizados.
+     * @return ResponseEntity con el resultado de cada película, en el mismo orden recibido.
+     */
+    @PostMapping("/update/batch")
+    public ResponseEntity<List<BatchResult>> updateBatch(@RequestBody List<PeliculaModel> peliculas) {
+        if (peliculas == null || peliculas.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            // Llama al servicio para actualizar el lote de películas
+            int[] result = iPeliculaService.updateAll(peliculas);
+            return ResponseEntity.ok(toBatchResults(result, "Película actualizada exitosamente", "Película no encontrada."));
+        } catch (Exception e) {
+            // En caso de una excepción, ninguna película del lote se actualiza.
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(failedBatch(peliculas.size(), "Error al actualizar el lote de películas: " + e.getMessage()));
+        }
+    }
+
     /**
      * Endpoint para eliminar una película por su ID.
      * @param id El ID de la película a eliminar.
@@ -145,6 +806,10 @@ public ResponseEntity<ServiceResponse> updateEstadoAlquiler(@PathVariable int id
             serviceResponse.setMessage("Película no encontrada.");
             return new ResponseEntity<>(serviceResponse, HttpStatus.NOT_FOUND);
         }
+    } catch (IllegalArgumentException e) {
+        // El estado no es uno de los permitidos
+        serviceResponse.setMessage("Error al actualizar el estado de alquiler: " + e.getMessage());
+        return new ResponseEntity<>(serviceResponse, HttpStatus.BAD_REQUEST);
     } catch (Exception e) {
         // En caso de una excepción, captura el error y retorna una respuesta con el mensaje.
         serviceResponse.setMessage("Error al actualizar el estado de alquiler: " + e.getMessage());
@@ -152,4 +817,119 @@ public ResponseEntity<ServiceResponse> updateEstadoAlquiler(@PathVariable int id
     }
 }
 
+    /**
+     * Endpoint para alquilar una película disponible.
+     * La transición es atómica: si dos clientes alquilan la misma película a la vez, solo uno lo logra.
+     * @param id El ID de la película.
+     * @return ResponseEntity con 200 si se alquiló, 409 si ya estaba alquilada o 404 si no existe.
+     */
+    @PutMapping("/checkout/{id}")
+    public ResponseEntity<ServiceResponse> checkout(@PathVariable int id) {
+        return rentalResponse(() -> iPeliculaService.checkout(id),
+                "Película alquilada exitosamente", "La película ya está alquilada.");
+    }
+
+    /**
+     * Endpoint para devolver una película alquilada.
+     * @param id El ID de la película.
+     * @return ResponseEntity con 200 si se devolvió, 409 si ya estaba disponible o 404 si no existe.
+     */
+    @PutMapping("/return/{id}")
+    public ResponseEntity<ServiceResponse> returnPelicula(@PathVariable int id) {
+        return rentalResponse(() -> iPeliculaService.returnPelicula(id),
+                "Película devuelta exitosamente", "La película ya está disponible.");
+    }
+
+    /**
+     * Convierte el resultado de una transición del alquiler en la respuesta HTTP correspondiente.
+     */
+    private static ResponseEntity<ServiceResponse> rentalResponse(Supplier<RentalResult> transition,
+                                                                  String successMessage, String conflictMessage) {
+        ServiceResponse serviceResponse = new ServiceResponse();
+        try {
+            return switch (transition.get()) {
+                case OK -> {
+                    serviceResponse.setMessage(successMessage);
+                    yield new ResponseEntity<>(serviceResponse, HttpStatus.OK);
+                }
+                case CONFLICT -> {
+                    // Otra solicitud cambió el estado primero.
+                    serviceResponse.setMessage(conflictMessage);
+                    yield new ResponseEntity<>(serviceResponse, HttpStatus.CONFLICT);
+                }
+                case NOT_FOUND -> {
+                    serviceResponse.setMessage("Película no encontrada.");
+                    yield new ResponseEntity<>(serviceResponse, HttpStatus.NOT_FOUND);
+                }
+            };
+        } catch (Exception e) {
+            // En caso de una excepción, captura el error y retorna una respuesta con el mensaje.
+            serviceResponse.setMessage("Error al actualizar el estado de alquiler: " + e.getMessage());
+            return new ResponseEntity<>(serviceResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Indica si el encabezado Accept-Encoding admite gzip con un peso q mayor que 0. Una entrada
+     * explícita de gzip (o x-gzip) tiene prioridad sobre "*", de modo que {@code gzip;q=0, *} no
+     * admite gzip; sin entrada explícita se aplica el peso de "*".
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    q = qValue(parameter.substring(2).trim());
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = Math.max(gzip, q);
+            } else if (coding.equals("*")) {
+                any = Math.max(any, q);
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    /**
+     * Interpreta un peso q (de 0 a 1, con hasta tres decimales); un valor inválido cuenta como 0.
+     */
+    private static double qValue(String value) {
+        if (!value.matches("0(\\.\\d{0,3})?|1(\\.0{0,3})?")) {
+            return 0;
+        }
+        return Double.parseDouble(value);
+    }
+
+    /**
+     * Convierte las filas afectadas por cada elemento de un lote en su resultado individual.
+     */
+    private static List<BatchResult> toBatchResults(int[] rows, String successMessage, String failureMessage) {
+        List<BatchResult> results = new ArrayList<>(rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            boolean success = rows[i] == 1;
+            results.add(new BatchResult(i, success, success ? successMessage : failureMessage));
+        }
+        return results;
+    }
+
+    /**
+     * Resultado de un lote revertido: todos los elementos se informan como fallidos.
+     */
+    private static List<BatchResult> failedBatch(int size, String message) {
+        List<BatchResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(new BatchResult(i, false, message));
+        }
+        return results;
+    }
+
 }
@@ -0,0 +1,208 @@
+package com.crud.peliculas.pelicula.controller;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import com.crud.peliculas.pelicula.model.RentalResult;
+import com.crud.peliculas.pelicula.model.ServiceResponse;
+import com.crud.peliculas.pelicula.service.IPeliculaReactiveService;
+import com.crud.peliculas.pelicula.validation.PeliculaValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Controlador reactivo de películas (perfil "reactive").
+ * Expone las rutas de lectura, escritura y alquiler de PeliculaController sobre WebFlux: ningún
+ * hilo queda bloqueado esperando a la base de datos, por lo que un número pequeño de hilos del
+ * event loop atiende muchas solicitudes concurrentes. La exportación, importación, operaciones
+ * por lote y búsqueda por texto siguen disponibles solo en la pila bloqueante.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("api/v1/pelicula") // Ruta base para las solicitudes de películas.
+@CrossOrigin("*") // Permite solicitudes desde cualquier origen (considerar restringir a dominios específicos en producción).
+public class PeliculaReactiveController {
+
+    // Tamaño de página por defecto y máximo permitido para la paginación por cursor
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // Encabezado con el cursor de la siguiente página
+    private static final String NEXT_AFTER_HEADER = "X-Next-After";
+
+    // Inyección de dependencia del servicio reactivo de película
+    @Autowired
+    private IPeliculaReactiveService iPeliculaReactiveService;
+
+    /**
+     * Endpoint para listar las películas.
+     * Sin parámetros devuelve el catálogo completo, escrito a medida que se lee. Con {@code after}
+     * y/o {@code limit} devuelve una página ordenada por ID y, si está completa, el encabezado
+     * {@code X-Next-After} con el cursor de la siguiente.
+     * @param after Último ID recibido en la página anterior (opcional).
+     * @param limit Tamaño de la página (opcional, entre 1 y {@value #MAX_PAGE_SIZE}).
+     * @return Mono con la respuesta y la lista de películas.
+     */
+    @GetMapping("/list")
+    public Mono<ResponseEntity<Flux<PeliculaModel>>> list(@RequestParam(required = false) Long after,
+                                                          @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(iPeliculaReactiveService.findAll()));
+        }
+
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE || (after != null && after < 0)) {
+            // Parámetros de paginación fuera de rango
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        // La página está acotada: se reúne para conocer el cursor antes de escribir los encabezados
+        return iPeliculaReactiveService.findPage(after != null ? after : 0L, pageSize)
+                .collectList()
+                .map(page -> {
+                    ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+                    if (page.size() == pageSize) {
+                        builder.header(NEXT_AFTER_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+                    }
+                    return builder.body(Flux.fromIterable(page));
+                });
+    }
+
+    /**
+     * Endpoint para listar todas las películas en modo streaming.
+     * Por defecto escribe un arreglo JSON; con {@code Accept: application/x-ndjson} escribe una
+     * película por línea. En ambos casos la lectura sigue el ritmo al que el cliente consume.
+     * @return Flux con todas las películas.
+     */
+    @GetMapping(value = "/list/stream", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<PeliculaModel> listStream() {
+        return iPeliculaReactiveService.findAll();
+    }
+
+    /**
+     * Endpoint para buscar películas con filtros aplicados en la base de datos.
+     * Acepta los mismos parámetros que la búsqueda de PeliculaController.
+     * @param criteria Filtros de la búsqueda tomados de los parámetros de la URL.
+     * @return Mono con las películas encontradas, o 400 si algún parámetro no es válido.
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<PeliculaModel>>> search(@ModelAttribute PeliculaSearchCriteria criteria) {
+        if (PeliculaValidator.validate(criteria) != null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return iPeliculaReactiveService.search(criteria)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Endpoint para guardar una nueva película.
+     * @param peliculaModel Objeto que representa la película a guardar.
+     * @return Mono con el mensaje de éxito o error.
+     */
+    @PostMapping("/save")
+    public Mono<ResponseEntity<ServiceResponse>> save(@RequestBody PeliculaModel peliculaModel) {
+        return iPeliculaReactiveService.save(peliculaModel)
+                .map(result -> result == 1
+                        ? response(HttpStatus.OK, "Película guardada exitosamente")
+                        : response(HttpStatus.BAD_REQUEST, "Error al guardar la película."))
+                .onErrorResume(e -> Mono.just(response(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Error al guardar la película: " + e.getMessage())));
+    }
+
+    /**
+     * Endpoint para actualizar una película existente.
+     * @param peliculaModel Objeto que contiene los datos de la película a actualizar.
+     * @return Mono con el mensaje de éxito o error.
+     */
+    @PostMapping("/update")
+    public Mono<ResponseEntity<ServiceResponse>> update(@RequestBody PeliculaModel peliculaModel) {
+        return iPeliculaReactiveService.update(peliculaModel)
+                .map(result -> result == 1
+                        ? response(HttpStatus.OK, "Película actualizada exitosamente")
+                        : response(HttpStatus.NOT_FOUND, "Error al actualizar la película: Película no encontrada"))
+                .onErrorResume(e -> Mono.just(response(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Error al actualizar la película: " + e.getMessage())));
+    }
+
+    /**
+     * Endpoint para eliminar una película por su ID.
+     * @param id El ID de la película a eliminar.
+     * @return Mono con el mensaje de éxito o error.
+     */
+    @DeleteMapping("/delete/{id}")
+    public Mono<ResponseEntity<ServiceResponse>> delete(@PathVariable int id) {
+        return iPeliculaReactiveService.deleteById(id)
+                .map(result -> result == 1
+                        ? response(HttpStatus.OK, "Película eliminada exitosamente.")
+                        : response(HttpStatus.NOT_FOUND, "Película no encontrada."))
+                .onErrorResume(e -> Mono.just(response(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Error al eliminar la película: " + e.getMessage())));
+    }
+
+    /**
+     * Endpoint para actualizar el estado de alquiler de una película.
+     * @param id El ID de la película.
+     * @param estadoAlquiler El nuevo estado de alquiler.
+     * @return Mono con el mensaje de éxito o error.
+     */
+    @PutMapping("/updateEstadoAlquiler/{id}")
+    public Mono<ResponseEntity<ServiceResponse>> updateEstadoAlquiler(@PathVariable int id, @RequestBody String estadoAlquiler) {
+        return iPeliculaReactiveService.updateEstadoAlquiler(id, estadoAlquiler)
+                .map(result -> result == 1
+                        ? response(HttpStatus.OK, "Estado de alquiler actualizado exitosamente")
+                        : response(HttpStatus.NOT_FOUND, "Película no encontrada."))
+                .onErrorResume(e -> Mono.just(response(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Error al actualizar el estado de alquiler: " + e.getMessage())));
+    }
+
+    /**
+     * Endpoint para alquilar una película disponible.
+     * @param id El ID de la película.
+     * @return Mono con 200 si se alquiló, 409 si ya estaba alquilada o 404 si no existe.
+     */
+    @PutMapping("/checkout/{id}")
+    public Mono<ResponseEntity<ServiceResponse>> checkout(@PathVariable int id) {
+        return rentalResponse(iPeliculaReactiveService.checkout(id),
+                "Película alquilada exitosamente", "La película ya está alquilada.");
+    }
+
+    /**
+     * Endpoint para devolver una película alquilada.
+     * @param id El ID de la película.
+     * @return Mono con 200 si se devolvió, 409 si ya estaba disponible o 404 si no existe.
+     */
+    @PutMapping("/return/{id}")
+    public Mono<ResponseEntity<ServiceResponse>> returnPelicula(@PathVariable int id) {
+        return rentalResponse(iPeliculaReactiveService.returnPelicula(id),
+                "Película devuelta exitosamente", "La película ya está disponible.");
+    }
+
+    /**
+     * Convierte el resultado de una transición del alquiler en la respuesta HTTP correspondiente.
+     */
+    private static Mono<ResponseEntity<ServiceResponse>> rentalResponse(Mono<RentalResult> transition,
+                                                                        String successMessage, String conflictMessage) {
+        return transition
+                .map(result -> switch (result) {
+                    case OK -> response(HttpStatus.OK, successMessage);
+                    case CONFLICT -> response(HttpStatus.CONFLICT, conflictMessage);
+                    case NOT_FOUND -> response(HttpStatus.NOT_FOUND, "Película no encontrada.");
+                })
+                .onErrorResume(e -> Mono.just(response(HttpStatus.INTERNAL_SERVER_ERROR,
+                        "Error al actualizar el estado de alquiler: " + e.getMessage())));
+    }
+
+    private static ResponseEntity<ServiceResponse> response(HttpStatus status, String message) {
+        ServiceResponse serviceResponse = new ServiceResponse();
+        serviceResponse.setMessage(message);
+        return new ResponseEntity<>(serviceResponse, status);
+    }
+}
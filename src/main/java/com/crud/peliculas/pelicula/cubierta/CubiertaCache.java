@@ -0,0 +1,650 @@
+package com.crud.peliculas.pelicula.cubierta;
+
+import com.crud.peliculas.pelicula.service.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Caché en disco de las cubiertas de las películas (GET /{id}/cubierta).
+ *
+ * La primera solicitud de una cubierta la descarga del origen (la URL de PeliculaModel.cubierta) y
+ * la guarda en {@code directory}; las variantes de menor ancho se generan desde esa copia y también
+ * se guardan. Los anchos pedidos se redondean hacia arriba a uno de {@code widths}, de modo que cada
+ * cubierta tiene como mucho un archivo por ancho configurado más el original. Un ancho igual o
+ * mayor que el del original devuelve el original.
+ *
+ * Los archivos se nombran con el SHA-256 de la URL: si la cubierta de una película cambia, la nueva
+ * URL no reutiliza los archivos anteriores, que terminan descartándose por antigüedad. Cuando el
+ * total supera {@code max-cache-size} se descartan los archivos usados hace más tiempo (LRU). Al
+ * iniciar, el índice se reconstruye con los archivos del directorio ordenados por fecha de escritura.
+ *
+ * Cada archivo se escribe con un nombre nuevo y se publica con un rename atómico, nunca sobre uno
+ * existente. Las respuestas leen los archivos con {@link #open}, que cuenta los lectores: un archivo
+ * descartado se borra cuando ninguna respuesta lo está leyendo y pasaron {@code deleteGrace} desde la
+ * última, que cubre el momento entre que el controlador entrega el archivo a sendfile y Tomcat lo abre.
+ *
+ * Las descargas y redimensionados simultáneos de un mismo archivo se agrupan con {@link SingleFlight}.
+ * Solo se aceptan URL http y https de los hosts de {@code allowed-hosts} (vacío no permite ninguno),
+ * con respuestas image/jpeg, image/png, image/gif o image/webp de hasta {@code max-image-size} y,
+ * según su cabecera, hasta {@code max-image-pixels} píxeles: así una imagen pequeña comprimida que
+ * ocuparía gigabytes al decodificarla se rechaza antes de redimensionarla.
+ * Como la URL la elige quien edita la película, cada host se resuelve antes de conectar y se
+ * rechazan las direcciones locales y privadas (salvo con {@code allow-private-addresses}); las
+ * redirecciones se siguen una a una con las mismas comprobaciones.
+ */
+@Component
+@Profile("!reactive")
+public class CubiertaCache {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(CubiertaCache.class);
+
+    // Extensión de los archivos guardados según el tipo de contenido del origen
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp");
+
+    // Códigos de redirección que se siguen, hasta MAX_REDIRECTS por descarga
+    private static final Set<Integer> REDIRECTS = Set.of(301, 302, 303, 307, 308);
+
+    private static final int MAX_REDIRECTS = 5;
+
+    // Variantes recordadas como no más pequeñas que su original
+    private static final int MAX_NOT_SMALLER = 10_000;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Directorio de la caché; debe estar en un disco local
+    @Value("${pelicula.cubierta.directory:cubiertas}")
+    private Path directory;
+
+    // Tamaño máximo de todos los archivos de la caché
+    @Value("${pelicula.cubierta.max-cache-size:512MB}")
+    private DataSize maxCacheSize;
+
+    // Tamaño máximo de una cubierta descargada del origen
+    @Value("${pelicula.cubierta.max-image-size:10MB}")
+    private DataSize maxImageSize;
+
+    // Número máximo de píxeles (ancho por alto) de una cubierta; se lee de la cabecera sin decodificarla
+    @Value("${pelicula.cubierta.max-image-pixels:25000000}")
+    private long maxImagePixels;
+
+    // Anchos de las variantes redimensionadas
+    @Value("${pelicula.cubierta.widths:160,320,640,1280}")
+    private int[] widths;
+
+    // Hosts de origen permitidos; vacío no permite ninguno
+    @Value("${pelicula.cubierta.allowed-hosts:}")
+    private Set<String> allowedHosts;
+
+    // Permite orígenes en direcciones locales o privadas (solo para desarrollo y pruebas)
+    @Value("${pelicula.cubierta.allow-private-addresses:false}")
+    private boolean allowPrivateAddresses;
+
+    // Tiempo máximo de conexión y de respuesta del origen
+    @Value("${pelicula.cubierta.timeout:5s}")
+    private Duration timeout;
+
+    private HttpClient httpClient;
+
+    // Archivos de la caché por clave, del usado hace más tiempo al más reciente; protegido por su monitor
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long cachedBytes;
+
+    // Lectores de cada archivo; protegido por el monitor de index
+    private final Map<Path, Readers> readers = new HashMap<>();
+
+    // Archivos que salieron del índice y se borrarán cuando nadie los lea; protegido por el monitor de index
+    private final Set<Path> evicted = new HashSet<>();
+
+    // Tiempo que se conserva un archivo descartado después de su último lector
+    private Duration deleteGrace = Duration.ofSeconds(30);
+
+    // Sufijo de los nombres de archivo; cada escritura usa uno nuevo
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+
+    // Variantes que no serían más pequeñas que el original, que se sirve en su lugar
+    private final Cache<String, Boolean> notSmaller = Caffeine.newBuilder().maximumSize(MAX_NOT_SMALLER).build();
+
+    private Counter hits;
+
+    private Counter misses;
+
+    /**
+     * Archivo de la caché listo para enviarse.
+     *
+     * @param key Clave del archivo (hash de la URL y ancho); sirve también como ETag.
+     * @param file Ruta del archivo.
+     * @param contentType Tipo de contenido de la imagen.
+     * @param length Tamaño del archivo en bytes.
+     */
+    public record Entry(String key, Path file, String contentType, long length) {
+    }
+
+    /**
+     * Lectura de un archivo de la caché: mientras no se cierre, el archivo no se borra aunque se
+     * descarte del índice.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final Entry entry;
+
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * @return Archivo leído.
+         */
+        public Entry entry() {
+            return entry;
+        }
+
+        @Override
+        public void close() {
+            synchronized (index) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                Readers fileReaders = readers.get(entry.file());
+                fileReaders.count--;
+                fileReaders.releasedAt = System.nanoTime();
+                deleteEvicted();
+            }
+        }
+    }
+
+    // Número de lectores de un archivo y momento en que se liberó el último (System.nanoTime)
+    private static final class Readers {
+
+        private int count;
+
+        private long releasedAt;
+    }
+
+    /**
+     * Crea el directorio, reconstruye el índice con los archivos existentes y registra las métricas.
+     */
+    @PostConstruct
+    void init() throws IOException {
+        widths = Arrays.stream(widths).filter(width -> width > 0).sorted().distinct().toArray();
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                // Las redirecciones se siguen en fetch para validar cada destino
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(Files::isRegularFile).toList();
+        }
+        // Los temporales son escrituras que no terminaron antes de detener la aplicación
+        files.stream().filter(file -> file.getFileName().toString().endsWith(".tmp")).forEach(CubiertaCache::deleteQuietly);
+        List<Path> existing = files.stream()
+                .filter(file -> !file.getFileName().toString().endsWith(".tmp"))
+                .sorted(Comparator.comparing(CubiertaCache::lastModified))
+                .toList();
+        synchronized (index) {
+            for (Path file : existing) {
+                // <clave>.<generación>.<extensión>
+                String name = file.getFileName().toString();
+                int dot = name.lastIndexOf('.');
+                String contentType = dot < 0 ? null : contentTypeOf(name.substring(dot + 1));
+                if (contentType == null) {
+                    continue;
+                }
+                Entry entry = new Entry(name.substring(0, name.indexOf('.')), file.toAbsolutePath(), contentType, file.toFile().length());
+                Entry previous = index.put(entry.key(), entry);
+                if (previous != null) {
+                    // Versión anterior de la misma clave que no llegó a borrarse
+                    cachedBytes -= previous.length();
+                    deleteQuietly(previous.file());
+                }
+                cachedBytes += entry.length();
+            }
+            evict();
+        }
+        logger.info("Caché de cubiertas en {}: {} archivos, {} bytes", directory.toAbsolutePath(), index.size(), cachedBytes);
+
+        hits = Counter.builder("pelicula.cubierta.requests")
+                .description("Cubiertas servidas desde la caché en disco")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("pelicula.cubierta.requests")
+                .description("Cubiertas descargadas del origen o redimensionadas")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("pelicula.cubierta.cache.bytes", this, CubiertaCache::cachedBytes)
+                .description("Bytes ocupados por la caché de cubiertas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Obtiene una cubierta desde la caché, descargándola o redimensionándola si no está.
+     *
+     * @param url URL de la cubierta en el origen.
+     * @param width Ancho pedido en píxeles, o null para el original.
+     * @return Archivo de la caché con la imagen.
+     */
+    public Entry get(String url, Integer width) {
+        String base = hash(url);
+        int variantWidth = variantWidth(width);
+        if (variantWidth != 0) {
+            String key = base + "-" + variantWidth;
+            if (notSmaller.getIfPresent(key) == null) {
+                // El original solo se necesita si la variante no está en la caché
+                Entry variant = cachedOrLoad(key, () -> resize(cachedOrLoad(base, () -> fetch(url, base)), key, variantWidth));
+                if (variant != null) {
+                    return variant;
+                }
+                notSmaller.put(key, Boolean.TRUE);
+            }
+        }
+        return cachedOrLoad(base, () -> fetch(url, base));
+    }
+
+    /**
+     * Obtiene una cubierta como {@link #get} y la reserva para leerla: el archivo no se borra hasta
+     * cerrar el resultado.
+     *
+     * @param url URL de la cubierta en el origen.
+     * @param width Ancho pedido en píxeles, o null para el original.
+     * @return Lectura del archivo, que el llamador debe cerrar al terminar de enviarlo.
+     */
+    public Lease open(String url, Integer width) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Entry entry = get(url, width);
+            synchronized (index) {
+                // El archivo pudo descartarse entre get y este bloque; en ese caso se vuelve a cargar
+                if (entry.equals(index.get(entry.key())) && Files.exists(entry.file())) {
+                    readers.computeIfAbsent(entry.file(), file -> new Readers()).count++;
+                    return new Lease(entry);
+                }
+            }
+        }
+        throw new IllegalStateException("La cubierta se descartó de la caché mientras se cargaba");
+    }
+
+    /**
+     * @return Ancho de la variante para el ancho pedido: el menor de {@code widths} que lo cubre,
+     * el mayor si lo supera, o 0 para el original.
+     */
+    int variantWidth(Integer width) {
+        if (width == null || width <= 0 || widths.length == 0) {
+            return 0;
+        }
+        for (int candidate : widths) {
+            if (candidate >= width) {
+                return candidate;
+            }
+        }
+        return widths[widths.length - 1];
+    }
+
+    private Entry cachedOrLoad(String key, Supplier<Entry> loader) {
+        Entry cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        return singleFlight.execute("cubierta", key, () -> {
+            // Otra solicitud pudo terminar la carga mientras esta esperaba
+            Entry loaded = lookup(key);
+            if (loaded != null) {
+                hits.increment();
+                return loaded;
+            }
+            misses.increment();
+            return loader.get();
+        });
+    }
+
+    private Entry lookup(String key) {
+        synchronized (index) {
+            Entry entry = index.get(key);
+            if (entry != null && !Files.exists(entry.file())) {
+                // Borrado fuera de la aplicación
+                index.remove(key);
+                cachedBytes -= entry.length();
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * Descarga la cubierta del origen y la guarda como original.
+     */
+    private Entry fetch(String url, String key) {
+        URI uri = URI.create(url);
+        try {
+            for (int redirects = 0; ; redirects++) {
+                checkOrigin(uri);
+                HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+                HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    if (REDIRECTS.contains(response.statusCode())) {
+                        if (redirects == MAX_REDIRECTS) {
+                            throw new IllegalStateException("El origen redirigió más de " + MAX_REDIRECTS + " veces");
+                        }
+                        String location = response.headers().firstValue("Location")
+                                .orElseThrow(() -> new IllegalStateException("El origen redirigió sin Location"));
+                        uri = uri.resolve(location);
+                        continue;
+                    }
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("El origen respondió " + response.statusCode());
+                    }
+                    String contentType = response.headers().firstValue("Content-Type").orElse("")
+                            .split(";")[0].trim().toLowerCase();
+                    String extension = EXTENSIONS.get(contentType);
+                    if (extension == null) {
+                        throw new IllegalStateException("El origen no devolvió una imagen: " + contentType);
+                    }
+                    if (response.headers().firstValueAsLong("Content-Length").orElse(0) > maxImageSize.toBytes()) {
+                        throw new IllegalStateException("La cubierta supera " + maxImageSize);
+                    }
+                    // Sin Content-Length o si el origen lo incumple, se corta al superar el límite
+                    byte[] bytes = body.readNBytes(Math.toIntExact(maxImageSize.toBytes()) + 1);
+                    if (bytes.length > maxImageSize.toBytes()) {
+                        throw new IllegalStateException("La cubierta supera " + maxImageSize);
+                    }
+                    try (ImageInputStream image = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+                        ImageReader reader = reader(image);
+                        if (reader != null) {
+                            reader.dispose();
+                        }
+                    }
+                    logger.info("Cubierta descargada de {} ({} bytes)", uri.getHost(), bytes.length);
+                    return store(key, extension, bytes);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al descargar la cubierta", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras descargaba la cubierta", e);
+        }
+    }
+
+    /**
+     * Comprueba que se puede descargar de la URL: esquema http o https, host permitido y, salvo con
+     * allow-private-addresses, que ninguna de sus direcciones sea local o privada. El cliente HTTP
+     * vuelve a resolver el host al conectar, pero lo obtiene de la caché de DNS de la JVM, que
+     * conserva las direcciones comprobadas aquí.
+     */
+    private void checkOrigin(URI uri) {
+        if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+            throw new IllegalArgumentException("La cubierta debe ser una URL http o https");
+        }
+        String host = uri.getHost();
+        if (host == null || allowedHosts.stream().noneMatch(host::equalsIgnoreCase)) {
+            throw new IllegalArgumentException("El host " + host + " no está en pelicula.cubierta.allowed-hosts");
+        }
+        if (allowPrivateAddresses) {
+            return;
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("No se pudo resolver el host " + host, e);
+        }
+        for (InetAddress address : addresses) {
+            if (isPrivate(address)) {
+                throw new IllegalArgumentException("El host " + host + " resuelve a una dirección local o privada");
+            }
+        }
+    }
+
+    /**
+     * @return true si la dirección no es pública: local, de enlace, privada (RFC 1918 y fc00::/7),
+     * compartida (100.64.0.0/10), sin especificar o multicast.
+     */
+    static boolean isPrivate(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            // 0.0.0.0/8 y 100.64.0.0/10
+            return bytes[0] == 0 || (bytes[0] == 100 && (bytes[1] & 0xC0) == 64);
+        }
+        // Direcciones únicas locales de IPv6
+        return (bytes[0] & 0xFE) == 0xFC;
+    }
+
+    /**
+     * Genera la variante de {@code width} píxeles de ancho del original.
+     *
+     * @return La variante guardada, o null si el original no es más ancho o no se puede decodificar.
+     */
+    private Entry resize(Entry original, String key, int width) {
+        try {
+            BufferedImage source;
+            try (ImageInputStream image = ImageIO.createImageInputStream(original.file().toFile())) {
+                ImageReader reader = image == null ? null : reader(image);
+                if (reader == null) {
+                    return null;
+                }
+                try {
+                    // Se comprueba el ancho antes de decodificar: si no es mayor, se sirve el original
+                    if (reader.getWidth(0) <= width) {
+                        return null;
+                    }
+                    source = reader.read(0);
+                } finally {
+                    reader.dispose();
+                }
+            }
+            int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+            boolean alpha = source.getColorModel().hasAlpha();
+            BufferedImage target = new BufferedImage(width, height,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = target.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(source, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+
+            // JPEG no admite transparencia
+            String extension = alpha ? "png" : "jpg";
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(target, alpha ? "png" : "jpeg", out);
+            return store(key, extension, out.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al redimensionar la cubierta", e);
+        }
+    }
+
+    /**
+     * Obtiene un lector para la imagen y comprueba sus dimensiones leyendo solo la cabecera.
+     *
+     * @return El lector, que el llamador debe liberar, o null si ImageIO no reconoce el formato.
+     * @throws IllegalStateException Si la imagen supera max-image-pixels.
+     */
+    private ImageReader reader(ImageInputStream image) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(image);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(image, true, true);
+        long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+        if (pixels > maxImagePixels) {
+            reader.dispose();
+            throw new IllegalStateException("La cubierta tiene " + pixels + " píxeles; el máximo es " + maxImagePixels);
+        }
+        return reader;
+    }
+
+    /**
+     * Escribe el archivo en un temporal y lo mueve a su nombre final, para que una lectura nunca vea
+     * un archivo a medias, y lo registra en el índice.
+     */
+    private Entry store(String key, String extension, byte[] bytes) {
+        try {
+            // Un nombre nuevo en cada escritura: un archivo que se está enviando nunca se reemplaza
+            Path file = directory.resolve(key + "." + generation.incrementAndGet() + "." + extension);
+            Path temp = directory.resolve(file.getFileName() + ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            Entry entry = new Entry(key, file.toAbsolutePath(), contentTypeOf(extension), bytes.length);
+            synchronized (index) {
+                Entry previous = index.put(key, entry);
+                if (previous != null) {
+                    cachedBytes -= previous.length();
+                    evicted.add(previous.file());
+                }
+                cachedBytes += entry.length();
+                evict();
+            }
+            return entry;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al guardar la cubierta en la caché", e);
+        }
+    }
+
+    /**
+     * Descarta los archivos usados hace más tiempo hasta que el total cabe en max-cache-size y borra
+     * los que nadie está leyendo. El archivo recién guardado se conserva aunque por sí solo supere el
+     * límite. Se llama con el monitor de index.
+     */
+    private void evict() {
+        Iterator<Entry> iterator = index.values().iterator();
+        while (cachedBytes > maxCacheSize.toBytes() && index.size() > 1 && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            cachedBytes -= eldest.length();
+            evicted.add(eldest.file());
+        }
+        deleteEvicted();
+    }
+
+    /**
+     * Borra los archivos descartados sin lectores cuyo último lector terminó hace más de deleteGrace.
+     * Se llama con el monitor de index.
+     */
+    private void deleteEvicted() {
+        long now = System.nanoTime();
+        evicted.removeIf(file -> {
+            Readers fileReaders = readers.get(file);
+            if (fileReaders != null
+                    && (fileReaders.count > 0 || now - fileReaders.releasedAt < deleteGrace.toNanos())) {
+                return false;
+            }
+            readers.remove(file);
+            deleteQuietly(file);
+            return true;
+        });
+    }
+
+    /**
+     * @return Bytes ocupados por los archivos de la caché.
+     */
+    public long cachedBytes() {
+        synchronized (index) {
+            return cachedBytes;
+        }
+    }
+
+    private static String contentTypeOf(String extension) {
+        return EXTENSIONS.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(extension))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String hash(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+}
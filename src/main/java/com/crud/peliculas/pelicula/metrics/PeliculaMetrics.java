@@ -0,0 +1,69 @@
+package com.crud.peliculas.pelicula.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Métricas propias del acceso a datos de películas, etiquetadas por operación del repositorio:
+ * <ul>
+ *     <li>{@code pelicula.repository.errors}: errores capturados por el repositorio, que de otro
+ *     modo solo se verían como un resultado vacío o 0.</li>
+ *     <li>{@code pelicula.repository.rows}: distribución de filas devueltas por las consultas.</li>
+ *     <li>{@code pelicula.repository.slow}: consultas que superan el umbral de consulta lenta.</li>
+ * </ul>
+ */
+@Component
+public class PeliculaMetrics {
+
+    // Logger de los errores y consultas lentas del repositorio
+    private static final Logger logger = LoggerFactory.getLogger(PeliculaMetrics.class);
+
+    static final String ERRORS = "pelicula.repository.errors";
+    static final String ROWS = "pelicula.repository.rows";
+    static final String SLOW = "pelicula.repository.slow";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Registra un error capturado por el repositorio, con su traza en el log.
+     *
+     * @param operation Nombre de la operación del repositorio (findAll, save, update...).
+     * @param e Excepción capturada.
+     */
+    public void error(String operation, Throwable e) {
+        logger.error("Error en la operación {} del repositorio: {}", operation, e.getMessage(), e);
+        meterRegistry.counter(ERRORS, "operation", operation, "exception", e.getClass().getSimpleName()).increment();
+    }
+
+    /**
+     * Registra el número de filas devueltas por una consulta.
+     *
+     * @param operation Nombre de la operación del repositorio.
+     * @param rows Filas devueltas.
+     */
+    public void rows(String operation, int rows) {
+        DistributionSummary.builder(ROWS)
+                .description("Filas devueltas por las consultas del repositorio")
+                .baseUnit("rows")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(rows);
+    }
+
+    /**
+     * Registra una consulta que superó el umbral de consulta lenta.
+     *
+     * @param operation Nombre de la operación del repositorio.
+     * @param millis Duración de la consulta en milisegundos.
+     */
+    public void slow(String operation, long millis) {
+        logger.warn("Consulta lenta en la operación {} del repositorio: {} ms", operation, millis);
+        meterRegistry.counter(SLOW, "operation", operation).increment();
+    }
+}
@@ -0,0 +1,68 @@
+package com.crud.peliculas.pelicula.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Mide cada operación de PeliculaRepository (acceso JDBC) con el timer {@code pelicula.repository},
+ * etiquetado por operación y con histograma de percentiles, y cuenta como consulta lenta la que
+ * supera {@code pelicula.metrics.slow-query-threshold}.
+ *
+ * Se mide el repositorio JDBC y no CachedPeliculaRepository, para que los tiempos correspondan
+ * a las consultas que llegan a la base de datos. Con shards se mide ShardedPeliculaRepository:
+ * cada tiempo incluye la consulta en paralelo a todos los shards.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    static final String TIMER = "pelicula.repository";
+
+    // Recorridos cuya duración incluye la escritura de la respuesta: se miden, pero no son consultas lentas
+    private static final Set<String> STREAMING_OPERATIONS = Set.of("streamAll");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PeliculaMetrics peliculaMetrics;
+
+    // Duración a partir de la cual una operación del repositorio se registra como consulta lenta
+    @Value("${pelicula.metrics.slow-query-threshold:500ms}")
+    private Duration slowQueryThreshold;
+
+    @Around("execution(public * com.crud.peliculas.pelicula.repository.PeliculaRepository.*(..)) || " +
+            "execution(public * com.crud.peliculas.pelicula.repository.ShardedPeliculaRepository.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        String exception = "none";
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder(TIMER)
+                    .description("Duración de las operaciones del repositorio JDBC")
+                    .tag("operation", operation)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(elapsed));
+            if (elapsed > slowQueryThreshold.toNanos() && !STREAMING_OPERATIONS.contains(operation)) {
+                peliculaMetrics.slow(operation, Duration.ofNanos(elapsed).toMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.crud.peliculas.pelicula.model;
+
+import lombok.Data;
+
+/**
+ * Clase que representa el resultado de un elemento dentro de una operación por lotes.
+ * Cada elemento del arreglo recibido obtiene un BatchResult en la misma posición.
+ */
+@Data // Lombok generará automáticamente los getters, setters, toString(), equals() y hashCode()
+public class BatchResult {
+
+    // Posición del elemento dentro del arreglo recibido
+    private int index;
+
+    // Indicador de si la operación sobre el elemento fue exitosa
+    private Boolean success;
+
+    // Mensaje asociado con el resultado del elemento
+    private String message;
+
+    public BatchResult() {
+        // Constructor vacío requerido para la deserialización
+    }
+
+    /**
+     * Constructor para crear el resultado de un elemento.
+     *
+     * @param index Posición del elemento dentro del lote.
+     * @param success Indica si la operación fue exitosa.
+     * @param message Mensaje relacionado con el resultado.
+     */
+    public BatchResult(int index, Boolean success, String message) {
+        this.index = index;
+        this.success = success;
+        this.message = message;
+    }
+}
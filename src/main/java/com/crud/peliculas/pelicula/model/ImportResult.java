@@ -0,0 +1,43 @@
+package com.crud.peliculas.pelicula.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase que representa el resultado de una importación masiva de películas.
+ * Solo se conservan los primeros errores para que el resumen no crezca con el tamaño del archivo.
+ */
+@Data // Lombok generará automáticamente los getters, setters, toString(), equals() y hashCode()
+public class ImportResult {
+
+    // Número máximo de errores detallados en la respuesta
+    public static final int MAX_ERRORS = 100;
+
+    // Filas leídas del archivo
+    private long read;
+
+    // Filas guardadas en la base de datos
+    private long imported;
+
+    // Filas rechazadas por no cumplir las restricciones del esquema
+    private long rejected;
+
+    // Indica si se leyó el archivo completo o la importación se detuvo por un error
+    private boolean completed;
+
+    // Detalle de los primeros errores encontrados
+    private List<String> errors = new ArrayList<>();
+
+    /**
+     * Registra un error, descartando el detalle cuando ya se alcanzó el máximo.
+     *
+     * @param error Descripción del error.
+     */
+    public void addError(String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+}
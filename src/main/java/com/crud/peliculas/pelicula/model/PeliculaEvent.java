@@ -0,0 +1,51 @@
+package com.crud.peliculas.pelicula.model;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Clase que representa un cambio del catálogo publicado en GET /events.
+ * Solo lleva el ID de la película y los campos que cambiaron, no la película completa.
+ */
+@Data // Lombok generará automáticamente los getters, setters, toString(), equals() y hashCode()
+public class PeliculaEvent {
+
+    // Tipos de evento
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    public static final String RENTAL = "rental";
+
+    // El cliente debe recargar el catálogo: cambios por lote o eventos que ya no están en el buffer
+    public static final String RESET = "reset";
+
+    // Número de secuencia del evento, usado como id del evento SSE y en Last-Event-ID
+    private long sequence;
+
+    // Tipo de cambio (created, updated, deleted, rental o reset)
+    private String type;
+
+    // ID de la película afectada (null en los eventos reset)
+    private Long id;
+
+    // Campos modificados con su nuevo valor
+    private Map<String, Object> changes;
+
+    public PeliculaEvent() {
+        // Constructor vacío requerido para la deserialización
+    }
+
+    /**
+     * Constructor para crear un evento todavía sin número de secuencia.
+     *
+     * @param type Tipo de cambio.
+     * @param id ID de la película afectada.
+     * @param changes Campos modificados con su nuevo valor.
+     */
+    public PeliculaEvent(String type, Long id, Map<String, Object> changes) {
+        this.type = type;
+        this.id = id;
+        this.changes = changes;
+    }
+}
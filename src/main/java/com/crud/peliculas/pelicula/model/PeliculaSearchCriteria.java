@@ -0,0 +1,39 @@
+package com.crud.peliculas.pelicula.model;
+
+import lombok.Data;
+
+/**
+ * Clase que representa los filtros, el orden y el límite de una búsqueda de películas.
+ * Todos los filtros son opcionales; los que se informan se combinan con AND.
+ */
+@Data // Lombok generará automáticamente los getters, setters, toString(), equals() y hashCode()
+public class PeliculaSearchCriteria {
+
+    // Estado exacto de la película ("Publicada", "Edicion")
+    private String estado;
+
+    // Estado exacto del alquiler ("Disponible", "Alquilada")
+    private String estadoAlquiler;
+
+    // Puntaje mínimo (inclusive)
+    private Integer puntajeMin;
+
+    // Puntaje máximo (inclusive)
+    private Integer puntajeMax;
+
+    // Texto que debe contener el nombre
+    private String nombre;
+
+    // Campo de ordenamiento: id, nombre, puntaje, fechaCreacion o fechaModificacion
+    private String sort = "id";
+
+    // Dirección del ordenamiento: asc o desc
+    private String direction = "asc";
+
+    // Número máximo de películas a devolver
+    private Integer limit = 100;
+
+    public PeliculaSearchCriteria() {
+        // Constructor vacío usado por el enlace de parámetros de Spring
+    }
+}
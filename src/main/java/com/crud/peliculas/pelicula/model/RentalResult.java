@@ -0,0 +1,16 @@
+package com.crud.peliculas.pelicula.model;
+
+/**
+ * Resultado de una transición del estado de alquiler (alquilar o devolver una película).
+ */
+public enum RentalResult {
+
+    // La transición se aplicó
+    OK,
+
+    // La película no estaba en el estado esperado: otra solicitud ganó la transición
+    CONFLICT,
+
+    // La película no existe
+    NOT_FOUND
+}
@@ -0,0 +1,39 @@
+package com.crud.peliculas.pelicula.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Clase que representa los alquileres y devoluciones de un período (hora o día) en las
+ * estadísticas de /stats/rentals.
+ */
+@Data // Lombok generará automáticamente los getters, setters, toString(), equals() y hashCode()
+public class RentalStat {
+
+    // Inicio del período: la hora en punto, o el día a las 00:00
+    private LocalDateTime periodo;
+
+    // Películas alquiladas en el período
+    private long alquileres;
+
+    // Películas devueltas en el período
+    private long devoluciones;
+
+    public RentalStat() {
+        // Constructor vacío requerido para la deserialización
+    }
+
+    /**
+     * Constructor para crear las estadísticas de un período.
+     *
+     * @param periodo Inicio del período.
+     * @param alquileres Alquileres del período.
+     * @param devoluciones Devoluciones del período.
+     */
+    public RentalStat(LocalDateTime periodo, long alquileres, long devoluciones) {
+        this.periodo = periodo;
+        this.alquileres = alquileres;
+        this.devoluciones = devoluciones;
+    }
+}
@@ -0,0 +1,36 @@
+package com.crud.peliculas.pelicula.model;
+
+import lombok.Data;
+
+/**
+ * Clase que representa una película del ranking de las más alquiladas en /stats/top.
+ */
+@Data // Lombok generará automáticamente los getters, setters, toString(), equals() y hashCode()
+public class TopPelicula {
+
+    // ID de la película
+    private Long id;
+
+    // Nombre actual de la película; null si fue eliminada
+    private String nombre;
+
+    // Alquileres en el rango consultado
+    private long alquileres;
+
+    public TopPelicula() {
+        // Constructor vacío requerido para la deserialización
+    }
+
+    /**
+     * Constructor para crear una posición del ranking.
+     *
+     * @param id ID de la película.
+     * @param nombre Nombre de la película.
+     * @param alquileres Alquileres en el rango consultado.
+     */
+    public TopPelicula(Long id, String nombre, long alquileres) {
+        this.id = id;
+        this.nombre = nombre;
+        this.alquileres = alquileres;
+    }
+}
@@ -0,0 +1,266 @@
+package com.crud.peliculas.pelicula.ratelimit;
+
+import com.crud.peliculas.pelicula.model.ServiceResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Control de admisión delante de la API (/api/**): limita la tasa de cada cliente por grupo de
+ * endpoints y descarta solicitudes cuando el servidor está saturado, de modo que un cliente que
+ * insiste no agote los hilos de Tomcat ni el pool JDBC de los demás.
+ *
+ * Límite por cliente: un {@link TokenBucket} por cliente y grupo. El cliente se identifica por
+ * la cabecera {@code X-API-Key} si la clave está en {@code api-keys} y, si no, por su dirección IP:
+ * una clave desconocida no da un balde nuevo, así que cambiarla en cada solicitud no evade el
+ * límite. Los grupos son:
+ * <ul>
+ *   <li>{@code bulk}: catálogo completo (/list sin paginar, /list/stream), /export, /import y lotes;</li>
+ *   <li>{@code write}: las demás escrituras;</li>
+ *   <li>{@code read}: las demás lecturas.</li>
+ * </ul>
+ * Al superar el límite se responde 429 con Retry-After. Los baldes de clientes inactivos durante
+ * {@code idle-eviction} se descartan.
+ *
+ * Descarte de carga: se responde 503 con Retry-After cuando las solicitudes en curso llegan a
+ * {@code max-in-flight} o cuando los hilos que esperan una conexión de algún pool Hikari llegan a
+ * {@code max-pool-waiters}. Rechazar de inmediato mantiene estable la latencia de las solicitudes
+ * admitidas, en lugar de que todas esperen connection-timeout y fallen.
+ *
+ * El filtro se activa cuando la aplicación está lista, después del calentamiento (CatalogWarmup).
+ */
+@Component
+@Profile("!reactive")
+public class RateLimitFilter extends OncePerRequestFilter implements ApplicationListener<ApplicationReadyEvent> {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    // Cabecera con la clave de API del cliente
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    static final String BULK = "bulk";
+    static final String WRITE = "write";
+    static final String READ = "read";
+
+    @Autowired
+    private ObjectProvider<HikariDataSource> pools;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Permite desactivar el control de admisión
+    @Value("${pelicula.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // Claves de API reconocidas; las demás solicitudes se limitan por IP
+    @Value("${pelicula.rate-limit.api-keys:}")
+    private Set<String> apiKeys;
+
+    // Solicitudes por segundo y ráfaga de cada grupo, por cliente
+    @Value("${pelicula.rate-limit.bulk.rate:2}")
+    private double bulkRate;
+
+    @Value("${pelicula.rate-limit.bulk.burst:5}")
+    private int bulkBurst;
+
+    @Value("${pelicula.rate-limit.write.rate:20}")
+    private double writeRate;
+
+    @Value("${pelicula.rate-limit.write.burst:40}")
+    private int writeBurst;
+
+    @Value("${pelicula.rate-limit.read.rate:100}")
+    private double readRate;
+
+    @Value("${pelicula.rate-limit.read.burst:200}")
+    private int readBurst;
+
+    // Tiempo sin solicitudes tras el que se descarta el balde de un cliente
+    @Value("${pelicula.rate-limit.idle-eviction:10m}")
+    private Duration idleEviction;
+
+    // Umbrales de descarte de carga
+    @Value("${pelicula.rate-limit.max-in-flight:150}")
+    private int maxInFlight;
+
+    @Value("${pelicula.rate-limit.max-pool-waiters:10}")
+    private int maxPoolWaiters;
+
+    // Retry-After de las respuestas 503
+    @Value("${pelicula.rate-limit.shed-retry-after:1s}")
+    private Duration shedRetryAfter;
+
+    private Cache<String, TokenBucket> buckets;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Se activa con ApplicationReadyEvent
+    private volatile boolean ready;
+
+    private Map<String, Counter> rateRejections;
+
+    private Counter overloadRejections;
+
+    // Pools Hikari del contexto, resueltos al activarse el filtro
+    private List<HikariDataSource> hikariPools = List.of();
+
+    /**
+     * Construye el mapa de baldes y registra las métricas.
+     */
+    @PostConstruct
+    void init() {
+        buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleEviction)
+                .maximumSize(100_000)
+                .build();
+        rateRejections = Map.of(
+                BULK, rejections("rate", BULK),
+                WRITE, rejections("rate", WRITE),
+                READ, rejections("rate", READ));
+        overloadRejections = rejections("overload", "all");
+        Gauge.builder("pelicula.ratelimit.in-flight", inFlight, AtomicInteger::get)
+                .description("Solicitudes a la API en curso")
+                .register(meterRegistry);
+    }
+
+    private Counter rejections(String reason, String group) {
+        return Counter.builder("pelicula.ratelimit.rejected")
+                .description("Solicitudes rechazadas por el control de admisión")
+                .tag("reason", reason)
+                .tag("group", group)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        hikariPools = pools.orderedStream().toList();
+        ready = true;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !ready
+                || HttpMethod.OPTIONS.matches(request.getMethod())
+                || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String group = group(request);
+        long wait = bucket(client(request), group).tryAcquire(System.nanoTime());
+        if (wait > 0) {
+            rateRejections.get(group).increment();
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, wait,
+                    "Demasiadas solicitudes; intente de nuevo más tarde.");
+            return;
+        }
+
+        int current = inFlight.incrementAndGet();
+        try {
+            if (current > maxInFlight || poolWaiters() >= maxPoolWaiters) {
+                overloadRejections.increment();
+                reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, shedRetryAfter.toNanos(),
+                        "Servidor saturado; intente de nuevo más tarde.");
+                return;
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private TokenBucket bucket(String client, String group) {
+        return buckets.get(group + ':' + client, key -> switch (group) {
+            case BULK -> new TokenBucket(bulkRate, bulkBurst);
+            case WRITE -> new TokenBucket(writeRate, writeBurst);
+            default -> new TokenBucket(readRate, readBurst);
+        });
+    }
+
+    /**
+     * Clasifica la solicitud en su grupo de límites.
+     */
+    static String group(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean get = HttpMethod.GET.matches(request.getMethod());
+        if (path.endsWith("/export") || path.endsWith("/import") || path.endsWith("/batch")
+                || path.endsWith("/list/stream")
+                || (get && path.endsWith("/list") && request.getParameter("after") == null
+                        && request.getParameter("limit") == null)) {
+            return BULK;
+        }
+        return get ? READ : WRITE;
+    }
+
+    private String client(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * @return Mayor número de hilos esperando una conexión entre los pools Hikari del contexto.
+     */
+    private int poolWaiters() {
+        int waiters = 0;
+        for (HikariDataSource pool : hikariPools) {
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            if (bean != null) {
+                waiters = Math.max(waiters, bean.getThreadsAwaitingConnection());
+            }
+        }
+        return waiters;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, long waitNanos,
+                        String message) throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        logger.debug("Solicitud rechazada con {}: {}", status.value(), message);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (request.getHeader(HttpHeaders.ORIGIN) != null) {
+            // El rechazo no pasa por @CrossOrigin del controlador; sin esta cabecera el navegador no lo expone
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+        }
+        ServiceResponse body = new ServiceResponse();
+        body.setMessage(message);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
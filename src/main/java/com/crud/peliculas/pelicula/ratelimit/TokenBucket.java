@@ -0,0 +1,56 @@
+package com.crud.peliculas.pelicula.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin bloqueos, expresado como GCRA (generic cell rate algorithm): en lugar de
+ * guardar los tokens disponibles y el instante de la última recarga, guarda un único valor, el
+ * instante teórico en que el balde volvería a estar lleno. Tomar un token es un compareAndSet
+ * sobre ese valor, sin locks ni hilos de recarga.
+ *
+ * Equivale a un balde de {@code burst} tokens que se recarga a {@code rate} tokens por segundo.
+ */
+public final class TokenBucket {
+
+    // Tiempo en que se repone un token
+    private final long intervalNanos;
+
+    // Adelanto máximo sobre el instante actual: burst tokens
+    private final long capacityNanos;
+
+    // Instante teórico (System.nanoTime) en que el balde vuelve a estar lleno
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param rate Tokens repuestos por segundo.
+     * @param burst Tokens disponibles con el balde lleno.
+     */
+    public TokenBucket(double rate, int burst) {
+        if (rate <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate y burst deben ser positivos");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / rate));
+        this.capacityNanos = intervalNanos * burst;
+    }
+
+    /**
+     * Intenta tomar un token.
+     *
+     * @param now Instante actual según System.nanoTime.
+     * @return 0 si se tomó el token; si no, los nanosegundos que faltan para que haya uno.
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = base + intervalNanos;
+            long ahead = next - now;
+            if (ahead > capacityNanos) {
+                return ahead - capacityNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
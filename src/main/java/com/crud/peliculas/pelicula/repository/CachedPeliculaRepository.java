@@ -0,0 +1,294 @@
+package com.crud.peliculas.pelicula.repository;
+
+import com.crud.peliculas.pelicula.config.RecentWriters;
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Repositorio con caché en memoria de lectura directa (read-through) que envuelve a
+ * {@link PeliculaRepository}. Mantiene una caché acotada de películas por ID y una instantánea
+ * de la lista completa; las operaciones de escritura invalidan las entradas afectadas.
+ * Las estadísticas de aciertos, fallos y desalojos se publican en Micrometer
+ * (métricas {@code cache.gets}, {@code cache.evictions}, etc. con la etiqueta {@code cache}).
+ *
+ * Con una réplica de lectura, lo que se carga en la caché puede venir de ella. Mientras alguna
+ * escritura está dentro de la ventana de consistencia ({@link RecentWriters#isWriteWindowOpen()})
+ * las lecturas que no están en caché van a la base de datos sin guardarse: una réplica atrasada
+ * dejaría el valor anterior en la caché y se lo serviría también a quien escribió.
+ *
+ * Se desactiva con {@code pelicula.cache.enabled=false}, en cuyo caso se usa directamente
+ * {@link PeliculaRepository}.
+ */
+@Primary
+@Repository
+@Profile("!reactive")
+@ConditionalOnProperty(name = "pelicula.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CachedPeliculaRepository implements IPeliculaRepository {
+
+    // Clave única de la instantánea de la lista completa
+    private static final String ALL_KEY = "all";
+
+    @Autowired
+    @Qualifier("peliculaRepository")
+    private IPeliculaRepository delegate; // Repositorio JDBC al que se delegan las consultas y escrituras
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RecentWriters recentWriters;
+
+    // Tiempo de vida de las entradas de la caché
+    @Value("${pelicula.cache.ttl:30s}")
+    private Duration ttl;
+
+    // Número máximo de películas guardadas en la caché por ID
+    @Value("${pelicula.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    private Cache<Integer, PeliculaModel> byId;
+
+    private Cache<String, List<PeliculaModel>> list;
+
+    /**
+     * Construye las cachés con la configuración recibida y registra sus métricas.
+     */
+    @PostConstruct
+    void init() {
+        byId = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        list = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(1)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "peliculas.porId");
+        CaffeineCacheMetrics.monitor(meterRegistry, list, "peliculas.lista");
+    }
+
+    /**
+     * Devuelve la instantánea de la lista completa, consultando la base de datos solo si no está en caché.
+     * Una lista vacía no se guarda, porque el repositorio también la devuelve cuando la consulta falla.
+     *
+     * @return Lista de objetos PeliculaModel.
+     */
+    @Override
+    public List<PeliculaModel> findAll() {
+        if (recentWriters.isWriteWindowOpen()) {
+            List<PeliculaModel> cached = list.getIfPresent(ALL_KEY);
+            return cached != null ? cached : delegate.findAll();
+        }
+        List<PeliculaModel> result = list.get(ALL_KEY, key -> {
+            List<PeliculaModel> loaded = delegate.findAll();
+            return loaded.isEmpty() ? null : List.copyOf(loaded);
+        });
+        return result != null ? result : List.of();
+    }
+
+    /**
+     * Devuelve una película por ID, consultando la base de datos solo si no está en caché.
+     *
+     * @param id El ID de la película.
+     * @return La película encontrada, o vacío si no existe.
+     */
+    @Override
+    public Optional<PeliculaModel> findById(int id) {
+        if (recentWriters.isWriteWindowOpen()) {
+            PeliculaModel cached = byId.getIfPresent(id);
+            return cached != null ? Optional.of(cached) : delegate.findById(id);
+        }
+        return Optional.ofNullable(byId.get(id, key -> delegate.findById(key).orElse(null)));
+    }
+
+    /**
+     * Devuelve varias películas por ID; solo las que no están en caché se consultan, en una sola consulta.
+     *
+     * @param ids Los IDs de las películas.
+     * @return Las películas encontradas indexadas por ID.
+     */
+    @Override
+    public Map<Integer, PeliculaModel> findByIds(Collection<Integer> ids) {
+        if (recentWriters.isWriteWindowOpen()) {
+            Map<Integer, PeliculaModel> result = new HashMap<>(byId.getAllPresent(ids));
+            List<Integer> missing = ids.stream().filter(id -> !result.containsKey(id)).toList();
+            if (!missing.isEmpty()) {
+                result.putAll(delegate.findByIds(missing));
+            }
+            return result;
+        }
+        return byId.getAll(ids, missing -> delegate.findByIds(List.copyOf(missing)));
+    }
+
+    /**
+     * Las páginas se leen siempre de la base de datos: su forma depende del cursor del cliente.
+     */
+    @Override
+    public List<PeliculaModel> findPage(long afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    /**
+     * Las búsquedas se resuelven en la base de datos, que aplica los filtros con sus índices.
+     */
+    @Override
+    public List<PeliculaModel> search(PeliculaSearchCriteria criteria) {
+        return delegate.search(criteria);
+    }
+
+    /**
+     * El recorrido en streaming se hace siempre sobre la base de datos para no retener el catálogo.
+     */
+    @Override
+    public void streamAll(Consumer<PeliculaModel> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public int save(PeliculaModel peliculaModel) {
+        try {
+            return delegate.save(peliculaModel);
+        } finally {
+            list.invalidate(ALL_KEY);
+        }
+    }
+
+    @Override
+    public int[] saveAll(List<PeliculaModel> peliculas) {
+        try {
+            return delegate.saveAll(peliculas);
+        } finally {
+            invalidateNowAndAfterCommit(() -> list.invalidate(ALL_KEY));
+        }
+    }
+
+    @Override
+    public int update(PeliculaModel peliculaModel) {
+        try {
+            return delegate.update(peliculaModel);
+        } finally {
+            invalidate(peliculaModel.getId());
+        }
+    }
+
+    @Override
+    public int[] updateAll(List<PeliculaModel> peliculas) {
+        try {
+            return delegate.updateAll(peliculas);
+        } finally {
+            invalidateNowAndAfterCommit(() -> {
+                peliculas.forEach(pelicula -> {
+                    if (pelicula.getId() != null) {
+                        byId.invalidate(pelicula.getId().intValue());
+                    }
+                });
+                list.invalidate(ALL_KEY);
+            });
+        }
+    }
+
+    @Override
+    public int deleteById(int id) {
+        try {
+            return delegate.deleteById(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public int patch(int id, PeliculaModel cambios, Set<String> fields) {
+        try {
+            return delegate.patch(id, cambios, fields);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public int updateEstadoAlquiler(int id, String estadoAlquiler) {
+        try {
+            return delegate.updateEstadoAlquiler(id, estadoAlquiler);
+        } finally {
+            // Se ejecuta en la transacción de PeliculaService junto con el historial de alquileres
+            invalidateNowAndAfterCommit(() -> invalidate(id));
+        }
+    }
+
+    @Override
+    public int[] patchAll(List<PeliculaModel> peliculas, Set<String> fields) {
+        try {
+            return delegate.patchAll(peliculas, fields);
+        } finally {
+            invalidateNowAndAfterCommit(() -> {
+                peliculas.forEach(pelicula -> byId.invalidate(pelicula.getId().intValue()));
+                list.invalidate(ALL_KEY);
+            });
+        }
+    }
+
+    @Override
+    public int compareAndSetEstadoAlquiler(int id, String expected, String estadoAlquiler) {
+        try {
+            return delegate.compareAndSetEstadoAlquiler(id, expected, estadoAlquiler);
+        } finally {
+            invalidateNowAndAfterCommit(() -> invalidate(id));
+        }
+    }
+
+    /**
+     * Elimina de la caché la película indicada y la instantánea de la lista.
+     * Si hay una carga en curso para la misma clave, Caffeine espera a que termine antes de
+     * eliminarla, de modo que un valor leído antes de la escritura no sobrevive a ella. Por eso la
+     * lista se invalida por su clave y no con invalidateAll, que no espera a las cargas en curso.
+     */
+    private void invalidate(Number id) {
+        if (id != null) {
+            byId.invalidate(id.intValue());
+        }
+        list.invalidate(ALL_KEY);
+    }
+
+    /**
+     * Invalida de inmediato y, si hay una transacción activa, de nuevo al terminarla: una lectura
+     * concurrente entre la escritura y el commit todavía vería los datos anteriores y podría
+     * volver a cargarlos en la caché.
+     */
+    private void invalidateNowAndAfterCommit(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+}
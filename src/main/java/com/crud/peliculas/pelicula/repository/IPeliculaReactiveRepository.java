@@ -0,0 +1,33 @@
+package com.crud.peliculas.pelicula.repository;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Interfaz del repositorio reactivo de películas.
+ * Ofrece las mismas operaciones que IPeliculaRepository sin bloquear el hilo que las invoca:
+ * las consultas devuelven un Flux que entrega las filas a medida que llegan y respeta la
+ * demanda del suscriptor.
+ */
+public interface IPeliculaReactiveRepository {
+
+    Flux<PeliculaModel> findAll();
+
+    Mono<PeliculaModel> findById(int id);
+
+    Flux<PeliculaModel> findPage(long afterId, int limit);
+
+    Flux<PeliculaModel> search(PeliculaSearchCriteria criteria);
+
+    Mono<Integer> save(PeliculaModel peliculaModel);
+
+    Mono<Integer> update(PeliculaModel peliculaModel);
+
+    Mono<Integer> deleteById(int id);
+
+    Mono<Integer> updateEstadoAlquiler(int id, String estadoAlquiler);
+
+    Mono<Integer> compareAndSetEstadoAlquiler(int id, String expected, String estadoAlquiler);
+}
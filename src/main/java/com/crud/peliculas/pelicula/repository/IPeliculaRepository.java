@@ -1,7 +1,13 @@
 package com.crud.peliculas.pelicula.repository;
 
 import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Interfaz para definir las operaciones CRUD (Crear, Leer, Actualizar, Eliminar)
@@ -19,13 +25,64 @@ public interface IPeliculaRepository {
     public List<PeliculaModel> findAll();
 
     /**
-     * Guarda una nueva película en la base de datos.
+     * Obtiene una película por su ID.
+     *
+     * @param id El ID de la película.
+     * @return La película encontrada, o vacío si no existe.
+     */
+    public Optional<PeliculaModel> findById(int id);
+
+    /**
+     * Obtiene varias películas por su ID en una sola consulta.
+     *
+     * @param ids Los IDs de las películas.
+     * @return Las películas encontradas indexadas por ID; los IDs inexistentes no aparecen.
+     */
+    public Map<Integer, PeliculaModel> findByIds(Collection<Integer> ids);
+
+    /**
+     * Obtiene una página de películas ordenadas por ID usando paginación por llave (keyset):
+     * solo se leen las filas cuyo ID es mayor que el último ID entregado al cliente.
+     *
+     * @param afterId El último ID recibido en la página anterior (0 para la primera página).
+     * @param limit Número máximo de películas a devolver.
+     * @return Lista de hasta {@code limit} películas con ID mayor que {@code afterId}.
+     */
+    public List<PeliculaModel> findPage(long afterId, int limit);
+
+    /**
+     * Busca películas aplicando en la base de datos los filtros, el orden y el límite indicados.
+     *
+     * @param criteria Filtros de la búsqueda, previamente validados.
+     * @return Lista de hasta {@code criteria.limit} películas que cumplen los filtros.
+     */
+    public List<PeliculaModel> search(PeliculaSearchCriteria criteria);
+
+    /**
+     * Recorre todas las películas ordenadas por ID entregándolas una a una a medida que el
+     * ResultSet las produce, sin acumular la tabla completa en memoria.
+     *
+     * @param consumer Función que recibe cada película leída.
+     */
+    public void streamAll(Consumer<PeliculaModel> consumer);
+
+    /**
+     * Guarda una nueva película en la base de datos y asigna al modelo el ID generado.
      *
      * @param peliculaModel El objeto PeliculaModel que contiene los datos de la película a guardar.
      * @return Un valor entero (1 si la operación fue exitosa, 0 si hubo un error).
      */
     public int save(PeliculaModel peliculaModel);
 
+    /**
+     * Guarda varias películas en lotes. Los errores se propagan para que el lote
+     * pueda revertirse dentro de una transacción.
+     *
+     * @param peliculas Lista de películas a guardar.
+     * @return Filas afectadas por cada película, en el mismo orden de la lista.
+     */
+    public int[] saveAll(List<PeliculaModel> peliculas);
+
     /**
      * Actualiza los datos de una película existente en la base de datos.
      *
@@ -34,6 +91,25 @@ public interface IPeliculaRepository {
      */
     public int update(PeliculaModel peliculaModel);
 
+    /**
+     * Actualiza solo los campos indicados de una película; las demás columnas no se escriben.
+     *
+     * @param id El ID de la película.
+     * @param cambios Los nuevos valores; solo se leen los campos indicados en {@code fields}.
+     * @param fields Nombres de los campos a actualizar, de {@code PeliculaValidator.PATCH_FIELDS}.
+     * @return 1 si la operación fue exitosa, 0 si la película no fue encontrada.
+     */
+    public int patch(int id, PeliculaModel cambios, Set<String> fields);
+
+    /**
+     * Actualiza varias películas en lotes. Los errores se propagan para que el lote
+     * pueda revertirse dentro de una transacción.
+     *
+     * @param peliculas Lista de películas con los nuevos datos.
+     * @return Filas afectadas por cada película (0 si no existe), en el mismo orden de la lista.
+     */
+    public int[] updateAll(List<PeliculaModel> peliculas);
+
     /**
      * Elimina una película de la base de datos utilizando su ID.
      *
@@ -50,4 +126,26 @@ public interface IPeliculaRepository {
      * @return 1 si la operación fue exitosa, 0 si no se encuentra la película o hay error.
      */
     public int updateEstadoAlquiler(int id, String estadoAlquiler);
+
+    /**
+     * Actualiza solo los campos indicados de varias películas en lotes. Los errores se propagan
+     * para que el lote pueda revertirse dentro de una transacción.
+     *
+     * @param peliculas Películas con ID y los nuevos valores; solo se leen los campos indicados.
+     * @param fields Nombres de los campos a actualizar, de {@code PeliculaValidator.PATCH_FIELDS}.
+     * @return Filas afectadas por cada película (0 si no existe), en el mismo orden de la lista.
+     */
+    public int[] patchAll(List<PeliculaModel> peliculas, Set<String> fields);
+
+    /**
+     * Cambia el estado del alquiler solo si el estado actual es el esperado (compare-and-set).
+     * La condición se evalúa en la propia sentencia UPDATE, por lo que dos solicitudes
+     * concurrentes nunca pueden aplicar la misma transición.
+     *
+     * @param id El ID de la película.
+     * @param expected Estado de alquiler que debe tener la película.
+     * @param estadoAlquiler El nuevo estado del alquiler.
+     * @return 1 si la transición se aplicó, 0 si la película no existe o no estaba en el estado esperado.
+     */
+    public int compareAndSetEstadoAlquiler(int id, String expected, String estadoAlquiler);
 }
@@ -0,0 +1,54 @@
+package com.crud.peliculas.pelicula.repository;
+
+import com.crud.peliculas.pelicula.model.RentalStat;
+import com.crud.peliculas.pelicula.model.TopPelicula;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Interfaz para el historial de alquileres y sus agregados por hora y por día.
+ * Los métodos son implementados por la clase RentalLedgerRepository.
+ */
+public interface IRentalLedgerRepository {
+
+    /**
+     * Registra un cambio del estado de alquiler y actualiza los agregados de su hora y su día.
+     *
+     * @param peliculaId El ID de la película.
+     * @param estadoAlquiler Estado al que pasó la película ("Alquilada" o "Disponible").
+     * @param fecha Instante del cambio.
+     */
+    public void record(int peliculaId, String estadoAlquiler, LocalDateTime fecha);
+
+    /**
+     * Obtiene los alquileres y devoluciones por hora en un rango, de todas las películas o de una.
+     *
+     * @param peliculaId El ID de la película, o null para sumar todas.
+     * @param from Inicio del rango (inclusive).
+     * @param to Fin del rango (exclusivo).
+     * @return Períodos con actividad, en orden cronológico.
+     */
+    public List<RentalStat> hourly(Integer peliculaId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Obtiene los alquileres y devoluciones por día en un rango, de todas las películas o de una.
+     *
+     * @param peliculaId El ID de la película, o null para sumar todas.
+     * @param from Primer día del rango (inclusive).
+     * @param to Día siguiente al último del rango (exclusivo).
+     * @return Días con actividad, en orden cronológico.
+     */
+    public List<RentalStat> daily(Integer peliculaId, LocalDate from, LocalDate to);
+
+    /**
+     * Obtiene las películas más alquiladas en un rango de días.
+     *
+     * @param from Primer día del rango (inclusive).
+     * @param to Día siguiente al último del rango (exclusivo).
+     * @param limit Número máximo de películas.
+     * @return Películas de mayor a menor número de alquileres.
+     */
+    public List<TopPelicula> top(LocalDate from, LocalDate to, int limit);
+}
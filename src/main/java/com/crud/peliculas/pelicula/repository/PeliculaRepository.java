@@ -1,25 +1,84 @@
 package com.crud.peliculas.pelicula.repository;
 
 import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.metrics.PeliculaMetrics;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import com.crud.peliculas.pelicula.validation.PeliculaValidator;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.Optional;
+import java.util.Set;
 import java.time.LocalDateTime;
 
 /**
  * Repositorio que implementa las operaciones CRUD para la entidad PeliculaModel.
  * Utiliza JdbcTemplate para interactuar con la base de datos.
+ * Con {@code pelicula.sharding.enabled=true} lo reemplaza {@link ShardedPeliculaRepository},
+ * que crea una instancia de esta clase por shard.
  */
 @Repository
+@Profile("!reactive")
+@ConditionalOnProperty(name = "pelicula.sharding.enabled", havingValue = "false", matchIfMissing = true)
 public class PeliculaRepository implements IPeliculaRepository {
 
     @Autowired
     private JdbcTemplate jdbcTemplate; // Inyección de dependencia para interactuar con la base de datos
 
+    @Autowired
+    private PeliculaMetrics peliculaMetrics; // Errores y filas devueltas, publicados en /actuator/prometheus
+
+    // Sentencias de inserción y actualización con los nombres de columna de scriptDB
+    private static final String INSERT_SQL = "INSERT INTO peliculas (Nombre, Cubierta, Descripcion, Puntaje, Estado, " +
+            "Estado_alquiler, Fecha_creacion, Fecha_modificacion) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE peliculas SET " +
+            "Nombre = ?, " +
+            "Cubierta = ?, " +
+            "Descripcion = ?, " +
+            "Puntaje = ?, " +
+            "Estado = ?, " +
+            "Estado_alquiler = ?, " +
+            "Fecha_modificacion = ? " +
+            "WHERE Id = ?";
+
+    // Columnas de PeliculaValidator.PATCH_FIELDS, en el mismo orden
+    private static final String[] PATCH_COLUMNS = {"Nombre", "Cubierta", "Descripcion", "Puntaje", "Estado", "Estado_alquiler"};
+
+    // Sentencias de patch por combinación de campos (bit i = PATCH_COLUMNS[i]), construidas una sola vez
+    private static final String[] PATCH_SQL = patchStatements();
+
+    // Número de sentencias enviadas por cada lote JDBC en saveAll y updateAll
+    @Value("${pelicula.batch.size:1000}")
+    private int batchSize;
+
+    // Número de filas que el driver trae por viaje al recorrer la tabla en modo streaming
+    @Value("${pelicula.stream.fetch-size:500}")
+    private int streamFetchSize;
+
+    // Las instancias de ShardedPeliculaRepository propagan los errores de las consultas del catálogo:
+    // un shard que devolviera una lista vacía dejaría un catálogo parcial que se cachearía como completo
+    boolean propagateReadErrors;
+
     /**
      * Obtiene todos los registros de películas de la base de datos.
      *
@@ -29,15 +88,139 @@ public class PeliculaRepository implements IPeliculaRepository {
     public List<PeliculaModel> findAll() {
         try {
             String sql = "SELECT * FROM peliculas"; // Consulta SQL para obtener todos los registros
-            return jdbcTemplate.query(sql, BeanPropertyRowMapper.newInstance(PeliculaModel.class)); // Mapeo automático
+            List<PeliculaModel> result = jdbcTemplate.query(sql, PeliculaRowMapper.newInstance()); // Mapeo por posición de columna
+            peliculaMetrics.rows("findAll", result.size());
+            return result;
+        } catch (Exception e) {
+            return readFailed("findAll", e, List.of()); // Devuelve una lista vacía en caso de error
+        }
+    }
+
+    /**
+     * Obtiene una película por su ID.
+     *
+     * @param id El ID de la película.
+     * @return La película encontrada, o vacío si no existe o hay error.
+     */
+    @Override
+    public Optional<PeliculaModel> findById(int id) {
+        try {
+            String sql = "SELECT * FROM peliculas WHERE Id = ?";
+            return jdbcTemplate.query(sql, PeliculaRowMapper.newInstance(), id).stream().findFirst();
         } catch (Exception e) {
-            e.printStackTrace(); // Imprime el error en consola
-            return List.of(); // Devuelve una lista vacía en caso de error
+            peliculaMetrics.error("findById", e); // Registra el error en el log y en las métricas
+            return Optional.empty(); // Devuelve vacío en caso de error
         }
     }
 
     /**
-     * Inserta una nueva película en la base de datos.
+     * Obtiene varias películas por ID en una sola consulta.
+     *
+     * @param ids Los IDs de las películas.
+     * @return Las películas encontradas indexadas por ID; las inexistentes no aparecen.
+     */
+    @Override
+    public Map<Integer, PeliculaModel> findByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            String sql = "SELECT * FROM peliculas WHERE Id IN (" + placeholders + ")";
+            Map<Integer, PeliculaModel> result = new HashMap<>();
+            for (PeliculaModel pelicula : jdbcTemplate.query(sql, PeliculaRowMapper.newInstance(), ids.toArray())) {
+                result.put(pelicula.getId().intValue(), pelicula);
+            }
+            peliculaMetrics.rows("findByIds", result.size());
+            return result;
+        } catch (Exception e) {
+            return readFailed("findByIds", e, Map.of()); // Devuelve un mapa vacío en caso de error
+        }
+    }
+
+    /**
+     * Obtiene una página de películas con ID mayor que {@code afterId}, ordenadas por ID.
+     * La condición sobre la llave primaria permite que la base de datos salte directamente
+     * a la posición indicada en lugar de recorrer las filas anteriores como haría un OFFSET.
+     *
+     * @param afterId El último ID de la página anterior (0 para la primera página).
+     * @param limit Número máximo de filas a devolver.
+     * @return Lista de objetos PeliculaModel.
+     */
+    @Override
+    public List<PeliculaModel> findPage(long afterId, int limit) {
+        try {
+            String sql = "SELECT * FROM peliculas WHERE Id > ? ORDER BY Id " +
+                    "OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+            List<PeliculaModel> result = jdbcTemplate.query(sql, PeliculaRowMapper.newInstance(), afterId, limit);
+            peliculaMetrics.rows("findPage", result.size());
+            return result;
+        } catch (Exception e) {
+            return readFailed("findPage", e, List.of()); // Devuelve una lista vacía en caso de error
+        }
+    }
+
+    /**
+     * Busca películas con la consulta parametrizada de {@link PeliculaSearchQuery}.
+     * Los filtros de igualdad sobre Estado y Estado_alquiler y el rango de Puntaje se resuelven
+     * con el índice IX_Peliculas_Estado_EstadoAlquiler_Puntaje (ver migraciones/V2__indices_busqueda.sql).
+     *
+     * @param criteria Filtros de la búsqueda, previamente validados.
+     * @return Lista de objetos PeliculaModel.
+     */
+    @Override
+    public List<PeliculaModel> search(PeliculaSearchCriteria criteria) {
+        try {
+            PeliculaSearchQuery query = PeliculaSearchQuery.of(criteria, position -> "?");
+            List<PeliculaModel> result = jdbcTemplate.query(query.sql(), PeliculaRowMapper.newInstance(), query.params().toArray());
+            peliculaMetrics.rows("search", result.size());
+            return result;
+        } catch (Exception e) {
+            return readFailed("search", e, List.of()); // Devuelve una lista vacía en caso de error
+        }
+    }
+
+    /**
+     * Registra el error de una consulta del catálogo y devuelve el resultado vacío o, en un shard,
+     * propaga la excepción para que ShardedPeliculaRepository la registre con el shard identificado.
+     */
+    private <T> T readFailed(String operation, Exception e, T empty) {
+        if (propagateReadErrors) {
+            throw e instanceof RuntimeException runtimeException ? runtimeException : new RuntimeException(e);
+        }
+        peliculaMetrics.error(operation, e); // Registra el error en el log y en las métricas
+        return empty;
+    }
+
+    /**
+     * Recorre todas las películas ordenadas por ID con un cursor de solo avance.
+     * Cada fila se mapea y se entrega al consumidor en cuanto el driver la produce, y el
+     * tamaño de fetch acotado limita las filas que el driver mantiene en memoria.
+     * Los errores se propagan al llamador, ya que una respuesta parcial no puede repararse.
+     *
+     * @param consumer Función que recibe cada película leída.
+     */
+    @Override
+    public void streamAll(Consumer<PeliculaModel> consumer) {
+        String sql = "SELECT * FROM peliculas ORDER BY Id";
+        PeliculaRowMapper rowMapper = PeliculaRowMapper.newInstance();
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            return ps;
+        }, new RowCallbackHandler() {
+            private int rowNum = 0;
+
+            @Override
+            public void processRow(ResultSet rs) throws SQLException {
+                consumer.accept(rowMapper.mapRow(rs, rowNum++));
+            }
+        });
+    }
+
+    /**
+     * Inserta una nueva película en la base de datos y asigna al modelo el ID generado.
      *
      * @param peliculaModel El objeto PeliculaModel que contiene los datos de la película a guardar.
      * @return 1 si la operación fue exitosa, 0 en caso de error.
@@ -45,26 +228,44 @@ public class PeliculaRepository implements IPeliculaRepository {
     @Override
     public int save(PeliculaModel peliculaModel) {
         try {
-            String sql = "INSERT INTO peliculas (nombre, cubierta, descripcion, puntaje, estado, estado_alquiler, fechaCreacion, fechaModificacion) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+            Object[] values = insertValues(peliculaModel, LocalDateTime.now());
+            KeyHolder keyHolder = new GeneratedKeyHolder();
 
             // Ejecuta la inserción utilizando los valores del objeto PeliculaModel
-            return jdbcTemplate.update(sql, new Object[]{
-                    peliculaModel.getNombre(),
-                    peliculaModel.getCubierta(),
-                    peliculaModel.getDescripcion(),
-                    peliculaModel.getPuntaje(),
-                    peliculaModel.getEstado(),
-                    peliculaModel.getEstadoAlquiler(),
-                    peliculaModel.getFechaCreacion(),
-                    peliculaModel.getFechaModificacion()
-            });
+            int result = jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"Id"});
+                setValues(ps, values);
+                return ps;
+            }, keyHolder);
+
+            // Asigna el ID generado por la columna IDENTITY
+            Number id = keyHolder.getKey();
+            if (id != null) {
+                peliculaModel.setId(id.longValue());
+            }
+            return result;
         } catch (Exception e) {
-            e.printStackTrace(); // Imprime el error en consola
+            peliculaMetrics.error("save", e); // Registra el error en el log y en las métricas
             return 0; // Retorna 0 en caso de fallo
         }
     }
 
+    /**
+     * Inserta varias películas usando lotes JDBC de {@code batchSize} sentencias.
+     * A diferencia de las operaciones individuales, los errores se propagan para que la
+     * transacción del llamador pueda revertir el lote completo.
+     *
+     * @param peliculas Las películas a guardar.
+     * @return Filas afectadas por cada película, en el mismo orden de la lista.
+     */
+    @Override
+    public int[] saveAll(List<PeliculaModel> peliculas) {
+        LocalDateTime fechaActual = LocalDateTime.now();
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, peliculas, batchSize,
+                (ps, pelicula) -> setValues(ps, insertValues(pelicula, fechaActual)));
+        return flatten(counts, peliculas.size());
+    }
+
     /**
      * Actualiza una película existente en la base de datos.
      *
@@ -74,36 +275,68 @@ public class PeliculaRepository implements IPeliculaRepository {
     @Override
     public int update(PeliculaModel peliculaModel) {
         try {
-            String sql = "UPDATE peliculas SET " +
-                    "nombre = ?, " +
-                    "cubierta = ?, " +
-                    "descripcion = ?, " +
-                    "puntaje = ?, " +
-                    "estado = ?, " +
-                    "estado_Alquiler = ?, " +
-                    "fechaModificacion = ? " +
-                    "WHERE id = ?";
-
-            // Obtener la fecha y hora actuales del sistema
-            LocalDateTime fechaActual = LocalDateTime.now();
-
-            // Ejecuta la actualización con los nuevos valores
-            return jdbcTemplate.update(sql, new Object[]{
-                    peliculaModel.getNombre(),
-                    peliculaModel.getCubierta(),
-                    peliculaModel.getDescripcion(),
-                    peliculaModel.getPuntaje(),
-                    peliculaModel.getEstado(),
-                    peliculaModel.getEstadoAlquiler(),
-                    fechaActual, // Establecer la fecha actual del sistema
-                    peliculaModel.getId() // El ID del registro a actualizar
-            });
+            // Ejecuta la actualización con los nuevos valores y la fecha actual del sistema
+            return jdbcTemplate.update(UPDATE_SQL, updateValues(peliculaModel, LocalDateTime.now()));
         } catch (Exception e) {
-            e.printStackTrace(); // Imprime el error en consola
+            peliculaMetrics.error("update", e); // Registra el error en el log y en las métricas
             return 0; // Retorna 0 en caso de fallo
         }
     }
 
+    /**
+     * Actualiza solo las columnas de los campos indicados y la fecha de modificación.
+     * El texto de la sentencia sale de PATCH_SQL, de modo que cada combinación de campos es siempre
+     * la misma sentencia parametrizada y el plan de ejecución se reutiliza entre solicitudes.
+     *
+     * @param id El ID de la película.
+     * @param cambios Los nuevos valores de los campos indicados.
+     * @param fields Nombres de los campos a actualizar.
+     * @return 1 si la operación fue exitosa, 0 si no se encuentra la película o hay error.
+     */
+    @Override
+    public int patch(int id, PeliculaModel cambios, Set<String> fields) {
+        try {
+            int mask = patchMask(fields);
+            return jdbcTemplate.update(PATCH_SQL[mask], patchValues(mask, cambios, LocalDateTime.now(), id));
+        } catch (Exception e) {
+            peliculaMetrics.error("patch", e); // Registra el error en el log y en las métricas
+            return 0; // Retorna 0 en caso de fallo
+        }
+    }
+
+    /**
+     * Actualiza solo las columnas de los campos indicados en varias películas, con la sentencia de
+     * PATCH_SQL de esa combinación y lotes JDBC de {@code batchSize} sentencias.
+     * Los errores se propagan para que la transacción del llamador pueda revertir el lote completo.
+     *
+     * @param peliculas Películas con ID y los nuevos valores de los campos indicados.
+     * @param fields Nombres de los campos a actualizar.
+     * @return Filas afectadas por cada película (0 si no existe), en el mismo orden de la lista.
+     */
+    @Override
+    public int[] patchAll(List<PeliculaModel> peliculas, Set<String> fields) {
+        int mask = patchMask(fields);
+        LocalDateTime fechaActual = LocalDateTime.now();
+        int[][] counts = jdbcTemplate.batchUpdate(PATCH_SQL[mask], peliculas, batchSize,
+                (ps, pelicula) -> setValues(ps, patchValues(mask, pelicula, fechaActual, pelicula.getId())));
+        return flatten(counts, peliculas.size());
+    }
+
+    /**
+     * Actualiza varias películas usando lotes JDBC de {@code batchSize} sentencias.
+     * Los errores se propagan para que la transacción del llamador pueda revertir el lote completo.
+     *
+     * @param peliculas Las películas a actualizar.
+     * @return Filas afectadas por cada película (0 si no existe), en el mismo orden de la lista.
+     */
+    @Override
+    public int[] updateAll(List<PeliculaModel> peliculas) {
+        LocalDateTime fechaActual = LocalDateTime.now();
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, peliculas, batchSize,
+                (ps, pelicula) -> setValues(ps, updateValues(pelicula, fechaActual)));
+        return flatten(counts, peliculas.size());
+    }
+
     /**
      * Elimina una película de la base de datos según su ID.
      *
@@ -116,7 +349,7 @@ public class PeliculaRepository implements IPeliculaRepository {
             String sql = "DELETE FROM peliculas WHERE id = ?";
             return jdbcTemplate.update(sql, id); // Ejecuta la eliminación
         } catch (Exception e) {
-            e.printStackTrace(); // Imprime el error en consola
+            peliculaMetrics.error("deleteById", e); // Registra el error en el log y en las métricas
             return 0; // Retorna 0 en caso de fallo
         }
     }
@@ -133,9 +366,142 @@ public class PeliculaRepository implements IPeliculaRepository {
             String sql = "UPDATE peliculas SET Estado_alquiler = ? WHERE id = ?";
             return jdbcTemplate.update(sql, estadoAlquiler, id);
         } catch (Exception e) {
-            e.printStackTrace(); // Imprime el error en consola
+            peliculaMetrics.error("updateEstadoAlquiler", e); // Registra el error en el log y en las métricas
             return 0; // Retorna 0 en caso de fallo
         }
     }
 
+    /**
+     * Cambia el estado del alquiler solo si la fila tiene el estado esperado.
+     * El motor evalúa la condición y escribe de forma atómica sobre la fila, sin bloqueos
+     * explícitos ni lecturas previas, y funciona igual con varias instancias de la aplicación.
+     * Los errores se propagan: un 0 se interpreta como conflicto o película inexistente, así que
+     * un fallo de la base de datos no puede devolverse como 0.
+     *
+     * @param id El ID de la película.
+     * @param expected Estado de alquiler que debe tener la película.
+     * @param estadoAlquiler El nuevo estado del alquiler.
+     * @return 1 si la transición se aplicó, 0 si no se encuentra la película o no estaba en el estado esperado.
+     */
+    @Override
+    public int compareAndSetEstadoAlquiler(int id, String expected, String estadoAlquiler) {
+        String sql = "UPDATE peliculas SET Estado_alquiler = ?, Fecha_modificacion = ? " +
+                "WHERE Id = ? AND Estado_alquiler = ?";
+        return jdbcTemplate.update(sql, estadoAlquiler, LocalDateTime.now(), id, expected);
+    }
+
+    /**
+     * Parámetros de INSERT_SQL. Las fechas no informadas toman la fecha actual, igual que el
+     * DEFAULT GETDATE() de la tabla.
+     */
+    private static Object[] insertValues(PeliculaModel pelicula, LocalDateTime fechaActual) {
+        return new Object[]{
+                pelicula.getNombre(),
+                pelicula.getCubierta(),
+                pelicula.getDescripcion(),
+                pelicula.getPuntaje(),
+                pelicula.getEstado(),
+                pelicula.getEstadoAlquiler(),
+                pelicula.getFechaCreacion() != null ? pelicula.getFechaCreacion() : fechaActual,
+                pelicula.getFechaModificacion() != null ? pelicula.getFechaModificacion() : fechaActual
+        };
+    }
+
+    /**
+     * Parámetros de UPDATE_SQL; la fecha de modificación siempre es la fecha actual.
+     */
+    private static Object[] updateValues(PeliculaModel pelicula, LocalDateTime fechaActual) {
+        return new Object[]{
+                pelicula.getNombre(),
+                pelicula.getCubierta(),
+                pelicula.getDescripcion(),
+                pelicula.getPuntaje(),
+                pelicula.getEstado(),
+                pelicula.getEstadoAlquiler(),
+                fechaActual,
+                pelicula.getId()
+        };
+    }
+
+    /**
+     * Combinación de PATCH_COLUMNS (bit i = PATCH_COLUMNS[i]) de los campos indicados.
+     */
+    private static int patchMask(Set<String> fields) {
+        int mask = 0;
+        for (String field : fields) {
+            int position = PeliculaValidator.PATCH_FIELDS.indexOf(field);
+            if (position < 0) {
+                throw new IllegalArgumentException("Campo no modificable: " + field);
+            }
+            mask |= 1 << position;
+        }
+        if (mask == 0) {
+            throw new IllegalArgumentException("No se indicó ningún campo para actualizar");
+        }
+        return mask;
+    }
+
+    /**
+     * Parámetros de PATCH_SQL[mask]: los valores de las columnas de la combinación, la fecha de
+     * modificación y el ID.
+     */
+    private static Object[] patchValues(int mask, PeliculaModel cambios, LocalDateTime fechaActual, Object id) {
+        Object[] all = {
+                cambios.getNombre(),
+                cambios.getCubierta(),
+                cambios.getDescripcion(),
+                cambios.getPuntaje(),
+                cambios.getEstado(),
+                cambios.getEstadoAlquiler()
+        };
+        Object[] values = new Object[Integer.bitCount(mask) + 2];
+        int index = 0;
+        for (int i = 0; i < all.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                values[index++] = all[i];
+            }
+        }
+        values[index++] = fechaActual;
+        values[index] = id;
+        return values;
+    }
+
+    /**
+     * Construye las 63 sentencias UPDATE posibles: una por cada combinación no vacía de PATCH_COLUMNS.
+     */
+    private static String[] patchStatements() {
+        String[] statements = new String[1 << PATCH_COLUMNS.length];
+        for (int mask = 1; mask < statements.length; mask++) {
+            StringBuilder sql = new StringBuilder("UPDATE peliculas SET ");
+            for (int i = 0; i < PATCH_COLUMNS.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    sql.append(PATCH_COLUMNS[i]).append(" = ?, ");
+                }
+            }
+            statements[mask] = sql.append("Fecha_modificacion = ? WHERE Id = ?").toString();
+        }
+        return statements;
+    }
+
+    private static void setValues(PreparedStatement ps, Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            StatementCreatorUtils.setParameterValue(ps, i + 1, SqlTypeValue.TYPE_UNKNOWN, values[i]);
+        }
+    }
+
+    /**
+     * Une los conteos por bloque de batchUpdate en un único arreglo por elemento.
+     * Los drivers que no informan el conteo (SUCCESS_NO_INFO) se consideran como 1 fila afectada.
+     */
+    private static int[] flatten(int[][] counts, int size) {
+        int[] result = new int[size];
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                result[index++] = count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return result;
+    }
+
 }
@@ -0,0 +1,116 @@
+package com.crud.peliculas.pelicula.repository;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * RowMapper escrito a mano para la tabla Peliculas definida en scriptDB.
+ * Las posiciones de las columnas se resuelven una sola vez por ResultSet a partir de sus
+ * metadatos y cada fila se lee por índice, sin reflexión ni conversiones genéricas.
+ * Las columnas que no aparezcan en la consulta quedan en null en el modelo.
+ *
+ * Las instancias guardan las posiciones del ResultSet en curso, por lo que no deben
+ * compartirse entre consultas concurrentes: se crea una por consulta con {@link #newInstance()}.
+ */
+public class PeliculaRowMapper implements RowMapper<PeliculaModel> {
+
+    // ResultSet para el que se resolvieron las posiciones de las columnas
+    private ResultSet resolvedFor;
+
+    // Posición (base 1) de cada columna en el ResultSet; 0 si la consulta no la incluye
+    private int id;
+    private int nombre;
+    private int descripcion;
+    private int cubierta;
+    private int puntaje;
+    private int estado;
+    private int estadoAlquiler;
+    private int fechaCreacion;
+    private int fechaModificacion;
+
+    /**
+     * Crea un mapper nuevo para una consulta.
+     *
+     * @return Instancia de PeliculaRowMapper sin posiciones resueltas.
+     */
+    public static PeliculaRowMapper newInstance() {
+        return new PeliculaRowMapper();
+    }
+
+    @Override
+    public PeliculaModel mapRow(ResultSet rs, int rowNum) throws SQLException {
+        if (rs != resolvedFor) {
+            resolveColumns(rs);
+        }
+
+        PeliculaModel pelicula = new PeliculaModel();
+        if (id > 0) {
+            long value = rs.getLong(id);
+            pelicula.setId(rs.wasNull() ? null : value);
+        }
+        if (nombre > 0) {
+            pelicula.setNombre(rs.getString(nombre));
+        }
+        if (descripcion > 0) {
+            pelicula.setDescripcion(rs.getString(descripcion));
+        }
+        if (cubierta > 0) {
+            pelicula.setCubierta(rs.getString(cubierta));
+        }
+        if (puntaje > 0) {
+            BigDecimal value = rs.getBigDecimal(puntaje);
+            pelicula.setPuntaje(value == null ? null : value.intValue());
+        }
+        if (estado > 0) {
+            pelicula.setEstado(rs.getString(estado));
+        }
+        if (estadoAlquiler > 0) {
+            pelicula.setEstadoAlquiler(rs.getString(estadoAlquiler));
+        }
+        if (fechaCreacion > 0) {
+            pelicula.setFechaCreacion(toLocalDate(rs.getTimestamp(fechaCreacion)));
+        }
+        if (fechaModificacion > 0) {
+            pelicula.setFechaModificacion(toLocalDate(rs.getTimestamp(fechaModificacion)));
+        }
+        return pelicula;
+    }
+
+    /**
+     * Recorre los metadatos del ResultSet una vez y guarda la posición de cada columna conocida.
+     */
+    private void resolveColumns(ResultSet rs) throws SQLException {
+        id = nombre = descripcion = cubierta = puntaje = 0;
+        estado = estadoAlquiler = fechaCreacion = fechaModificacion = 0;
+
+        ResultSetMetaData metaData = rs.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            switch (metaData.getColumnLabel(i).toLowerCase()) {
+                case "id" -> id = i;
+                case "nombre" -> nombre = i;
+                case "descripcion" -> descripcion = i;
+                case "cubierta" -> cubierta = i;
+                case "puntaje" -> puntaje = i;
+                case "estado" -> estado = i;
+                case "estado_alquiler" -> estadoAlquiler = i;
+                case "fecha_creacion" -> fechaCreacion = i;
+                case "fecha_modificacion" -> fechaModificacion = i;
+                default -> {
+                    // Columna no mapeada en PeliculaModel
+                }
+            }
+        }
+        resolvedFor = rs;
+    }
+
+    private static LocalDate toLocalDate(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().toLocalDate();
+    }
+}
@@ -0,0 +1,124 @@
+package com.crud.peliculas.pelicula.repository;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Consulta parametrizada de búsqueda de películas, compartida por los repositorios JDBC y R2DBC.
+ * Cada repositorio indica cómo se escribe el marcador de cada parámetro ("?" en JDBC,
+ * ":p0", ":p1"... en R2DBC). Los nombres de columna del ORDER BY provienen de una lista fija,
+ * nunca del texto recibido.
+ */
+final class PeliculaSearchQuery {
+
+    // Columnas permitidas en el ORDER BY de la búsqueda, por nombre de campo del modelo
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "Id",
+            "nombre", "Nombre",
+            "puntaje", "Puntaje",
+            "fechaCreacion", "Fecha_creacion",
+            "fechaModificacion", "Fecha_modificacion");
+
+    private final String sql;
+
+    private final List<Object> params;
+
+    private PeliculaSearchQuery(String sql, List<Object> params) {
+        this.sql = sql;
+        this.params = params;
+    }
+
+    /**
+     * Construye la consulta a partir de los filtros informados.
+     *
+     * @param criteria Filtros de la búsqueda, previamente validados.
+     * @param marker Marcador del parámetro en la posición indicada (base 0).
+     * @return La consulta con sus parámetros en orden.
+     */
+    static PeliculaSearchQuery of(PeliculaSearchCriteria criteria, IntFunction<String> marker) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM peliculas WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+
+        if (criteria.getEstado() != null) {
+            sql.append(" AND Estado = ").append(marker.apply(params.size()));
+            params.add(criteria.getEstado());
+        }
+        if (criteria.getEstadoAlquiler() != null) {
+            sql.append(" AND Estado_alquiler = ").append(marker.apply(params.size()));
+            params.add(criteria.getEstadoAlquiler());
+        }
+        if (criteria.getPuntajeMin() != null) {
+            sql.append(" AND Puntaje >= ").append(marker.apply(params.size()));
+            params.add(criteria.getPuntajeMin());
+        }
+        if (criteria.getPuntajeMax() != null) {
+            sql.append(" AND Puntaje <= ").append(marker.apply(params.size()));
+            params.add(criteria.getPuntajeMax());
+        }
+        if (criteria.getNombre() != null && !criteria.getNombre().isBlank()) {
+            sql.append(" AND Nombre LIKE ").append(marker.apply(params.size())).append(" ESCAPE '\\'");
+            params.add("%" + escapeLike(criteria.getNombre().trim()) + "%");
+        }
+
+        // El ID desempata el orden para que el resultado sea estable
+        String direction = "desc".equalsIgnoreCase(criteria.getDirection()) ? "DESC" : "ASC";
+        String column = SORT_COLUMNS.getOrDefault(criteria.getSort(), "Id");
+        sql.append(" ORDER BY ").append(column).append(' ').append(direction);
+        if (!"Id".equals(column)) {
+            sql.append(", Id ").append(direction);
+        }
+        sql.append(" OFFSET 0 ROWS FETCH NEXT ").append(marker.apply(params.size())).append(" ROWS ONLY");
+        params.add(criteria.getLimit());
+
+        return new PeliculaSearchQuery(sql.toString(), params);
+    }
+
+    /**
+     * Orden equivalente al ORDER BY de la consulta, para combinar en memoria resultados ya
+     * ordenados (por ejemplo, de varios shards). Como en SQL Server, los NULL van primero en
+     * orden ascendente y los nombres se comparan sin distinguir mayúsculas.
+     *
+     * @param criteria Filtros de la búsqueda, previamente validados.
+     * @return Comparador de películas en el orden de la búsqueda.
+     */
+    static Comparator<PeliculaModel> comparator(PeliculaSearchCriteria criteria) {
+        Comparator<PeliculaModel> order = switch (SORT_COLUMNS.getOrDefault(criteria.getSort(), "Id")) {
+            case "Nombre" -> nullsFirst(PeliculaModel::getNombre, String.CASE_INSENSITIVE_ORDER);
+            case "Puntaje" -> nullsFirst(PeliculaModel::getPuntaje, Comparator.naturalOrder());
+            case "Fecha_creacion" -> nullsFirst(PeliculaModel::getFechaCreacion, Comparator.naturalOrder());
+            case "Fecha_modificacion" -> nullsFirst(PeliculaModel::getFechaModificacion, Comparator.naturalOrder());
+            default -> Comparator.comparing(PeliculaModel::getId);
+        };
+        order = order.thenComparing(PeliculaModel::getId);
+        return "desc".equalsIgnoreCase(criteria.getDirection()) ? order.reversed() : order;
+    }
+
+    private static <T> Comparator<PeliculaModel> nullsFirst(Function<PeliculaModel, T> key, Comparator<T> comparator) {
+        return Comparator.comparing(key, Comparator.nullsFirst(comparator));
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    List<Object> params() {
+        return params;
+    }
+
+    /**
+     * Escapa los comodines de LIKE para que el texto buscado se compare de forma literal.
+     */
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_")
+                .replace("[", "\\[");
+    }
+}
@@ -0,0 +1,267 @@
+package com.crud.peliculas.pelicula.repository;
+
+import com.crud.peliculas.pelicula.metrics.PeliculaMetrics;
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio reactivo que implementa las operaciones de IPeliculaReactiveRepository con R2DBC.
+ * Las sentencias son las mismas de PeliculaRepository, con parámetros con nombre que
+ * DatabaseClient traduce al marcador de cada driver. Solo se registra con el perfil "reactive".
+ */
+@Repository
+@Profile("reactive")
+public class R2dbcPeliculaRepository implements IPeliculaReactiveRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient; // Cliente R2DBC creado en ReactiveConfig
+
+    @Autowired
+    private PeliculaMetrics peliculaMetrics; // Registro de errores en el log y en las métricas
+
+    private static final String INSERT_SQL = "INSERT INTO peliculas (Nombre, Cubierta, Descripcion, Puntaje, Estado, " +
+            "Estado_alquiler, Fecha_creacion, Fecha_modificacion) VALUES (:nombre, :cubierta, :descripcion, :puntaje, " +
+            ":estado, :estadoAlquiler, :fechaCreacion, :fechaModificacion)";
+
+    private static final String UPDATE_SQL = "UPDATE peliculas SET " +
+            "Nombre = :nombre, " +
+            "Cubierta = :cubierta, " +
+            "Descripcion = :descripcion, " +
+            "Puntaje = :puntaje, " +
+            "Estado = :estado, " +
+            "Estado_alquiler = :estadoAlquiler, " +
+            "Fecha_modificacion = :fechaModificacion " +
+            "WHERE Id = :id";
+
+    /**
+     * Obtiene todas las películas; las filas se emiten a medida que el driver las recibe.
+     *
+     * @return Flux con las películas; vacío en caso de error.
+     */
+    @Override
+    public Flux<PeliculaModel> findAll() {
+        return databaseClient.sql("SELECT * FROM peliculas ORDER BY Id")
+                .map(R2dbcPeliculaRepository::mapRow)
+                .all()
+                .doOnError(e -> peliculaMetrics.error("findAll", e)) // Registra el error en el log y en las métricas
+                .onErrorResume(e -> Flux.empty()); // Termina sin más filas en caso de error
+    }
+
+    /**
+     * Obtiene una película por su ID.
+     *
+     * @param id El ID de la película.
+     * @return Mono con la película, o vacío si no existe o hay error.
+     */
+    @Override
+    public Mono<PeliculaModel> findById(int id) {
+        return databaseClient.sql("SELECT * FROM peliculas WHERE Id = :id")
+                .bind("id", id)
+                .map(R2dbcPeliculaRepository::mapRow)
+                .one()
+                .doOnError(e -> peliculaMetrics.error("findById", e))
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    /**
+     * Obtiene una página de películas ordenadas por ID a partir de un cursor.
+     *
+     * @param afterId El último ID recibido en la página anterior (0 para la primera página).
+     * @param limit Número máximo de películas a devolver.
+     * @return Flux con las películas de la página.
+     */
+    @Override
+    public Flux<PeliculaModel> findPage(long afterId, int limit) {
+        return databaseClient.sql("SELECT * FROM peliculas WHERE Id > :afterId ORDER BY Id " +
+                        "OFFSET 0 ROWS FETCH NEXT :limit ROWS ONLY")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(R2dbcPeliculaRepository::mapRow)
+                .all()
+                .doOnError(e -> peliculaMetrics.error("findPage", e))
+                .onErrorResume(e -> Flux.empty());
+    }
+
+    /**
+     * Busca películas con la misma consulta parametrizada que PeliculaRepository.
+     *
+     * @param criteria Filtros, orden y límite de la búsqueda, previamente validados.
+     * @return Flux con las películas que cumplen los filtros.
+     */
+    @Override
+    public Flux<PeliculaModel> search(PeliculaSearchCriteria criteria) {
+        PeliculaSearchQuery query = PeliculaSearchQuery.of(criteria, position -> ":p" + position);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(query.sql());
+        List<Object> params = query.params();
+        for (int i = 0; i < params.size(); i++) {
+            spec = spec.bind("p" + i, params.get(i));
+        }
+        return spec.map(R2dbcPeliculaRepository::mapRow)
+                .all()
+                .doOnError(e -> peliculaMetrics.error("search", e))
+                .onErrorResume(e -> Flux.empty());
+    }
+
+    /**
+     * Guarda una nueva película y le asigna el ID generado por la columna IDENTITY.
+     *
+     * @param peliculaModel El modelo de la película a guardar.
+     * @return Mono con 1 si se guardó, 0 en caso de fallo.
+     */
+    @Override
+    public Mono<Integer> save(PeliculaModel peliculaModel) {
+        LocalDateTime fechaActual = LocalDateTime.now();
+        DatabaseClient.GenericExecuteSpec spec = bindValues(databaseClient.sql(INSERT_SQL), peliculaModel)
+                .bind("fechaCreacion", toDateTime(peliculaModel.getFechaCreacion(), fechaActual))
+                .bind("fechaModificacion", toDateTime(peliculaModel.getFechaModificacion(), fechaActual));
+
+        return spec.filter(statement -> statement.returnGeneratedValues("Id"))
+                .map(row -> row.get("Id", Integer.class))
+                .one()
+                .map(id -> {
+                    peliculaModel.setId(id.longValue());
+                    return 1;
+                })
+                .defaultIfEmpty(0)
+                .doOnError(e -> peliculaMetrics.error("save", e))
+                .onErrorReturn(0); // Retorna 0 en caso de fallo
+    }
+
+    /**
+     * Actualiza los datos de una película existente.
+     *
+     * @param peliculaModel El modelo de la película con los datos actualizados.
+     * @return Mono con el número de filas afectadas; 0 si no existe o hay error.
+     */
+    @Override
+    public Mono<Integer> update(PeliculaModel peliculaModel) {
+        if (peliculaModel.getId() == null) {
+            return Mono.just(0);
+        }
+        return bindValues(databaseClient.sql(UPDATE_SQL), peliculaModel)
+                .bind("fechaModificacion", LocalDateTime.now())
+                .bind("id", peliculaModel.getId())
+                .fetch()
+                .rowsUpdated()
+                .map(Long::intValue)
+                .doOnError(e -> peliculaMetrics.error("update", e))
+                .onErrorReturn(0);
+    }
+
+    /**
+     * Elimina una película por su ID.
+     *
+     * @param id El ID de la película a eliminar.
+     * @return Mono con el número de filas afectadas; 0 si no existe o hay error.
+     */
+    @Override
+    public Mono<Integer> deleteById(int id) {
+        return databaseClient.sql("DELETE FROM peliculas WHERE Id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .map(Long::intValue)
+                .doOnError(e -> peliculaMetrics.error("deleteById", e))
+                .onErrorReturn(0);
+    }
+
+    /**
+     * Actualiza el estado del alquiler de una película.
+     *
+     * @param id El ID de la película.
+     * @param estadoAlquiler El nuevo estado del alquiler.
+     * @return Mono con el número de filas afectadas; 0 si no existe o hay error.
+     */
+    @Override
+    public Mono<Integer> updateEstadoAlquiler(int id, String estadoAlquiler) {
+        return databaseClient.sql("UPDATE peliculas SET Estado_alquiler = :estadoAlquiler WHERE Id = :id")
+                .bind("estadoAlquiler", estadoAlquiler)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .map(Long::intValue)
+                .doOnError(e -> peliculaMetrics.error("updateEstadoAlquiler", e))
+                .onErrorReturn(0);
+    }
+
+    /**
+     * Cambia el estado del alquiler solo si el estado actual es el esperado.
+     *
+     * @param id El ID de la película.
+     * @param expected Estado que debe tener la película para aplicar el cambio.
+     * @param estadoAlquiler El nuevo estado del alquiler.
+     * @return Mono con 1 si se aplicó el cambio, 0 si el estado no coincidía, no existe o hay error.
+     */
+    @Override
+    public Mono<Integer> compareAndSetEstadoAlquiler(int id, String expected, String estadoAlquiler) {
+        return databaseClient.sql("UPDATE peliculas SET Estado_alquiler = :estadoAlquiler, " +
+                        "Fecha_modificacion = :fechaModificacion WHERE Id = :id AND Estado_alquiler = :expected")
+                .bind("estadoAlquiler", estadoAlquiler)
+                .bind("fechaModificacion", LocalDateTime.now())
+                .bind("id", id)
+                .bind("expected", expected)
+                .fetch()
+                .rowsUpdated()
+                .map(Long::intValue)
+                .doOnError(e -> peliculaMetrics.error("compareAndSetEstadoAlquiler", e))
+                .onErrorReturn(0);
+    }
+
+    /**
+     * Asigna los parámetros comunes a la inserción y la actualización.
+     * R2DBC exige indicar el tipo de los valores nulos, por eso se usa bindNull.
+     */
+    private static DatabaseClient.GenericExecuteSpec bindValues(DatabaseClient.GenericExecuteSpec spec, PeliculaModel pelicula) {
+        spec = bind(spec, "nombre", pelicula.getNombre(), String.class);
+        spec = bind(spec, "cubierta", pelicula.getCubierta(), String.class);
+        spec = bind(spec, "descripcion", pelicula.getDescripcion(), String.class);
+        spec = bind(spec, "puntaje", pelicula.getPuntaje(), Integer.class);
+        spec = bind(spec, "estado", pelicula.getEstado(), String.class);
+        return bind(spec, "estadoAlquiler", pelicula.getEstadoAlquiler(), String.class);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                          Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    private static LocalDateTime toDateTime(LocalDate fecha, LocalDateTime fechaActual) {
+        return fecha != null ? fecha.atStartOfDay() : fechaActual;
+    }
+
+    /**
+     * Convierte una fila en PeliculaModel con las mismas reglas que PeliculaRowMapper.
+     */
+    static PeliculaModel mapRow(Readable row) {
+        PeliculaModel pelicula = new PeliculaModel();
+        // La columna Id es INT: se lee como Integer, el tipo que decodifican todos los drivers
+        Integer id = row.get("Id", Integer.class);
+        pelicula.setId(id == null ? null : id.longValue());
+        pelicula.setNombre(row.get("Nombre", String.class));
+        pelicula.setDescripcion(row.get("Descripcion", String.class));
+        pelicula.setCubierta(row.get("Cubierta", String.class));
+        BigDecimal puntaje = row.get("Puntaje", BigDecimal.class);
+        pelicula.setPuntaje(puntaje == null ? null : puntaje.intValue());
+        pelicula.setEstado(row.get("Estado", String.class));
+        pelicula.setEstadoAlquiler(row.get("Estado_alquiler", String.class));
+        pelicula.setFechaCreacion(toLocalDate(row.get("Fecha_creacion", LocalDateTime.class)));
+        pelicula.setFechaModificacion(toLocalDate(row.get("Fecha_modificacion", LocalDateTime.class)));
+        return pelicula;
+    }
+
+    private static LocalDate toLocalDate(LocalDateTime fecha) {
+        return fecha == null ? null : fecha.toLocalDate();
+    }
+}
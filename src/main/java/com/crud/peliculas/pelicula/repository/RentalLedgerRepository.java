@@ -0,0 +1,119 @@
+package com.crud.peliculas.pelicula.repository;
+
+import com.crud.peliculas.pelicula.model.RentalStat;
+import com.crud.peliculas.pelicula.model.TopPelicula;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio del historial de alquileres (migraciones/V3__historial_alquileres.sql).
+ *
+ * Cada cambio se inserta en Alquileres_eventos, que solo crece, y suma uno a la fila de su película
+ * en Alquileres_por_hora y Alquileres_por_dia. Las estadísticas leen solo los agregados: su costo
+ * depende del rango consultado y del número de películas con actividad, no del tamaño del historial.
+ *
+ * A diferencia de PeliculaRepository, los errores se propagan para que la transacción del llamador
+ * revierta también el cambio de estado: el historial y los agregados no quedan desalineados.
+ */
+@Repository
+@Profile("!reactive")
+public class RentalLedgerRepository implements IRentalLedgerRepository {
+
+    private static final String ESTADO_ALQUILADA = "Alquilada";
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO Alquileres_eventos (Pelicula_id, Tipo, Fecha) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate; // Inyección de dependencia para interactuar con la base de datos
+
+    @Override
+    public void record(int peliculaId, String estadoAlquiler, LocalDateTime fecha) {
+        int alquileres = ESTADO_ALQUILADA.equals(estadoAlquiler) ? 1 : 0;
+        int devoluciones = 1 - alquileres;
+
+        jdbcTemplate.update(INSERT_EVENT_SQL, peliculaId, estadoAlquiler, Timestamp.valueOf(fecha));
+        increment("Alquileres_por_hora", "Hora", Timestamp.valueOf(fecha.truncatedTo(ChronoUnit.HOURS)),
+                peliculaId, alquileres, devoluciones);
+        increment("Alquileres_por_dia", "Dia", Date.valueOf(fecha.toLocalDate()),
+                peliculaId, alquileres, devoluciones);
+    }
+
+    /**
+     * Suma a la fila del período y la película, creándola si es el primer evento del período.
+     * Si otra transacción crea la fila a la vez, la inserción falla por llave duplicada y se
+     * vuelve a intentar la actualización, que entonces encuentra la fila.
+     */
+    private void increment(String table, String periodColumn, Object period, int peliculaId,
+                           int alquileres, int devoluciones) {
+        String update = "UPDATE " + table + " SET Alquileres = Alquileres + ?, Devoluciones = Devoluciones + ? " +
+                "WHERE " + periodColumn + " = ? AND Pelicula_id = ?";
+        if (jdbcTemplate.update(update, alquileres, devoluciones, period, peliculaId) == 1) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO " + table + " (" + periodColumn + ", Pelicula_id, Alquileres, Devoluciones) " +
+                    "VALUES (?, ?, ?, ?)", period, peliculaId, alquileres, devoluciones);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(update, alquileres, devoluciones, period, peliculaId);
+        }
+    }
+
+    @Override
+    public List<RentalStat> hourly(Integer peliculaId, LocalDateTime from, LocalDateTime to) {
+        return series("Alquileres_por_hora", "Hora", peliculaId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    @Override
+    public List<RentalStat> daily(Integer peliculaId, LocalDate from, LocalDate to) {
+        return series("Alquileres_por_dia", "Dia", peliculaId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Lee un rango de un agregado. Sin película, el rango se recorre por la llave primaria
+     * (período, película); con película, por el índice (película, período).
+     */
+    private List<RentalStat> series(String table, String periodColumn, Integer peliculaId, Object from, Object to) {
+        List<Object> params = new ArrayList<>(List.of(from, to));
+        StringBuilder sql = new StringBuilder("SELECT ").append(periodColumn)
+                .append(" AS Periodo, SUM(Alquileres) AS Alquileres, SUM(Devoluciones) AS Devoluciones FROM ")
+                .append(table).append(" WHERE ").append(periodColumn).append(" >= ? AND ")
+                .append(periodColumn).append(" < ?");
+        if (peliculaId != null) {
+            sql.append(" AND Pelicula_id = ?");
+            params.add(peliculaId);
+        }
+        sql.append(" GROUP BY ").append(periodColumn).append(" ORDER BY ").append(periodColumn);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new RentalStat(
+                rs.getTimestamp("Periodo").toLocalDateTime(),
+                rs.getLong("Alquileres"),
+                rs.getLong("Devoluciones")), params.toArray());
+    }
+
+    @Override
+    public List<TopPelicula> top(LocalDate from, LocalDate to, int limit) {
+        String sql = "SELECT r.Pelicula_id, p.Nombre, SUM(r.Alquileres) AS Alquileres " +
+                "FROM Alquileres_por_dia r LEFT JOIN Peliculas p ON p.Id = r.Pelicula_id " +
+                "WHERE r.Dia >= ? AND r.Dia < ? " +
+                "GROUP BY r.Pelicula_id, p.Nombre " +
+                "HAVING SUM(r.Alquileres) > 0 " +
+                "ORDER BY SUM(r.Alquileres) DESC, r.Pelicula_id " +
+                "OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new TopPelicula(
+                rs.getLong("Pelicula_id"),
+                rs.getString("Nombre"),
+                rs.getLong("Alquileres")), Date.valueOf(from), Date.valueOf(to), limit);
+    }
+}
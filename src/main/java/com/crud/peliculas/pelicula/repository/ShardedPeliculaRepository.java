@@ -0,0 +1,406 @@
+package com.crud.peliculas.pelicula.repository;
+
+import com.crud.peliculas.pelicula.metrics.PeliculaMetrics;
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Repositorio que reparte el catálogo entre N bases de datos (shards), activo con
+ * {@code pelicula.sharding.enabled=true}. Cada shard se configura en
+ * {@code pelicula.sharding.shards[i].url/username/password} y tiene su propio pool Hikari
+ * ({@code pelicula.sharding.hikari.*}) y su propio {@link PeliculaRepository}.
+ *
+ * Partición por ID: la película con ID {@code id} vive en el shard {@code (id - 1) % N}. Para
+ * que los IDs sean únicos entre shards sin un generador central, la columna Id del shard
+ * {@code k} se crea con {@code IDENTITY(k + 1, N)} (ver scriptDB-shard): cada shard solo genera
+ * IDs de su residuo. Las películas nuevas se reparten en turno rotativo.
+ *
+ * Las consultas del catálogo (lista, páginas, búsquedas) se envían a todos los shards en
+ * paralelo y se combinan por ID o por el orden de la búsqueda. Si un shard lanza una excepción
+ * o no responde en {@code pelicula.sharding.timeout}, la operación falla con el shard
+ * identificado: las instancias de PeliculaRepository de los shards propagan los errores de
+ * las consultas del catálogo en lugar de devolver un resultado vacío, para que nunca se combine,
+ * cachee ni sirva un catálogo parcial.
+ *
+ * Las escrituras por lotes se ejecutan en una transacción por shard: un lote que abarca varios
+ * shards no es atómico entre ellos. Las escrituras de una fila se confirman en el pool del shard,
+ * fuera de la transacción de la base principal que abre {@code @Transactional}:
+ * <ul>
+ *   <li>una transición del estado de alquiler se revierte en el shard si la transacción principal,
+ *       que registra el historial, no se confirma;</li>
+ *   <li>la cola write-behind no se puede activar junto con los shards, porque su vaciado depende de
+ *       confirmar el lote y sus efectos en una sola transacción.</li>
+ * </ul>
+ */
+@Repository("peliculaRepository")
+@Profile("!reactive")
+@ConditionalOnProperty(name = "pelicula.sharding.enabled", havingValue = "true")
+public class ShardedPeliculaRepository implements IPeliculaRepository {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(ShardedPeliculaRepository.class);
+
+    @Autowired
+    private ConfigurableEnvironment environment;
+
+    @Autowired
+    private PeliculaMetrics peliculaMetrics;
+
+    // Tiempo máximo de espera de cada shard en las consultas en paralelo
+    @Value("${pelicula.sharding.timeout:5s}")
+    private Duration timeout;
+
+    private final List<Shard> shards = new ArrayList<>();
+
+    // Shard de la siguiente película nueva, en turno rotativo
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ExecutorService executor;
+
+    /**
+     * Base de datos de un shard con su repositorio JDBC y su administrador de transacciones.
+     */
+    private record Shard(int index, HikariDataSource dataSource, IPeliculaRepository repository,
+                         TransactionTemplate transaction, AnnotationConfigApplicationContext context) {
+    }
+
+    /**
+     * Crea el pool y el repositorio de cada shard configurado.
+     */
+    @PostConstruct
+    void init() {
+        if (environment.getProperty("pelicula.write-behind.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("pelicula.write-behind.enabled no es compatible con pelicula.sharding.enabled: " +
+                    "las escrituras de la cola no se confirman en una sola transacción entre shards");
+        }
+        Binder binder = Binder.get(environment);
+        List<DataSourceProperties> configured = binder.bind("pelicula.sharding.shards", Bindable.listOf(DataSourceProperties.class))
+                .orElseThrow(() -> new IllegalStateException("pelicula.sharding.shards no tiene ningún shard configurado"));
+
+        for (int i = 0; i < configured.size(); i++) {
+            HikariDataSource dataSource = configured.get(i).initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            binder.bind("pelicula.sharding.hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("shard-" + i);
+
+            // Mismo PeliculaRepository que sin shards, con su propio JdbcTemplate y la configuración de la aplicación
+            AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+            context.setEnvironment(environment);
+            context.registerBean(JdbcTemplate.class, () -> new JdbcTemplate(dataSource));
+            // Las métricas se comparten con la aplicación: se registra la instancia ya inyectada
+            context.getBeanFactory().registerSingleton("peliculaMetrics", peliculaMetrics);
+            context.registerBeanDefinition("peliculaRepository", new RootBeanDefinition(PeliculaRepository.class));
+            context.refresh();
+            PeliculaRepository repository = context.getBean(PeliculaRepository.class);
+            repository.propagateReadErrors = true;
+
+            shards.add(new Shard(i, dataSource, repository,
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)), context));
+        }
+
+        executor = Executors.newFixedThreadPool(shards.size() * 4, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "pelicula-shard-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        logger.info("Catálogo repartido en {} shards", shards.size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        for (Shard shard : shards) {
+            shard.context().close();
+            shard.dataSource().close();
+        }
+    }
+
+    /**
+     * Devuelve las películas de todos los shards, ordenadas por ID.
+     */
+    @Override
+    public List<PeliculaModel> findAll() {
+        List<PeliculaModel> result = new ArrayList<>();
+        onAllShards("findAll", IPeliculaRepository::findAll).forEach(result::addAll);
+        result.sort(Comparator.comparing(PeliculaModel::getId));
+        return result;
+    }
+
+    @Override
+    public Optional<PeliculaModel> findById(int id) {
+        return shardOf(id).repository().findById(id);
+    }
+
+    /**
+     * Consulta cada shard solo por sus IDs, en paralelo.
+     */
+    @Override
+    public Map<Integer, PeliculaModel> findByIds(Collection<Integer> ids) {
+        Map<Shard, List<Integer>> byShard = new HashMap<>();
+        for (Integer id : ids) {
+            byShard.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        Map<Integer, PeliculaModel> result = new HashMap<>();
+        onShards("findByIds", byShard.keySet(), shard -> shard.repository().findByIds(byShard.get(shard)))
+                .forEach(result::putAll);
+        return result;
+    }
+
+    /**
+     * Cada shard devuelve su página después de {@code afterId}; la página global son los
+     * {@code limit} menores IDs de todas ellas.
+     */
+    @Override
+    public List<PeliculaModel> findPage(long afterId, int limit) {
+        List<PeliculaModel> result = new ArrayList<>();
+        onAllShards("findPage", repository -> repository.findPage(afterId, limit)).forEach(result::addAll);
+        result.sort(Comparator.comparing(PeliculaModel::getId));
+        return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Cada shard aplica los filtros, el orden y el límite; el resultado global son los primeros
+     * {@code limit} en el mismo orden.
+     */
+    @Override
+    public List<PeliculaModel> search(PeliculaSearchCriteria criteria) {
+        List<PeliculaModel> result = new ArrayList<>();
+        onAllShards("search", repository -> repository.search(criteria)).forEach(result::addAll);
+        result.sort(PeliculaSearchQuery.comparator(criteria));
+        int limit = criteria.getLimit();
+        return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Recorre los shards uno tras otro, cada uno ordenado por ID, para no retener más de un
+     * shard a la vez.
+     */
+    @Override
+    public void streamAll(Consumer<PeliculaModel> consumer) {
+        for (Shard shard : shards) {
+            shard.repository().streamAll(consumer);
+        }
+    }
+
+    /**
+     * Guarda la película en el siguiente shard del turno. El ID generado identifica el shard.
+     */
+    @Override
+    public int save(PeliculaModel peliculaModel) {
+        Shard shard = shards.get(Math.floorMod(next.getAndIncrement(), shards.size()));
+        int result = shard.repository().save(peliculaModel);
+        if (result == 1 && peliculaModel.getId() != null && shardOf(peliculaModel.getId()) != shard) {
+            // La columna IDENTITY del shard no tiene la semilla y el incremento esperados
+            throw new IllegalStateException("El shard " + shard.index() + " generó el ID " + peliculaModel.getId() +
+                    ", que corresponde a otro shard: su columna Id debe ser IDENTITY(" + (shard.index() + 1) + ", " + shards.size() + ")");
+        }
+        return result;
+    }
+
+    /**
+     * Reparte las películas en turno rotativo y guarda cada parte en su shard, en paralelo.
+     */
+    @Override
+    public int[] saveAll(List<PeliculaModel> peliculas) {
+        int start = next.getAndAdd(peliculas.size());
+        Map<Shard, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < peliculas.size(); i++) {
+            positions.computeIfAbsent(shards.get(Math.floorMod(start + i, shards.size())), shard -> new ArrayList<>()).add(i);
+        }
+        return writeAll("saveAll", peliculas.size(), positions,
+                (shard, indexes) -> shard.repository().saveAll(indexes.stream().map(peliculas::get).toList()));
+    }
+
+    @Override
+    public int update(PeliculaModel peliculaModel) {
+        return shardOf(peliculaModel.getId()).repository().update(peliculaModel);
+    }
+
+    @Override
+    public int[] updateAll(List<PeliculaModel> peliculas) {
+        Map<Shard, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < peliculas.size(); i++) {
+            positions.computeIfAbsent(shardOf(peliculas.get(i).getId()), shard -> new ArrayList<>()).add(i);
+        }
+        return writeAll("updateAll", peliculas.size(), positions,
+                (shard, indexes) -> shard.repository().updateAll(indexes.stream().map(peliculas::get).toList()));
+    }
+
+    @Override
+    public int deleteById(int id) {
+        return shardOf(id).repository().deleteById(id);
+    }
+
+    @Override
+    public int patch(int id, PeliculaModel cambios, Set<String> fields) {
+        return shardOf(id).repository().patch(id, cambios, fields);
+    }
+
+    @Override
+    public int updateEstadoAlquiler(int id, String estadoAlquiler) {
+        return shardOf(id).repository().updateEstadoAlquiler(id, estadoAlquiler);
+    }
+
+    @Override
+    public int[] patchAll(List<PeliculaModel> peliculas, Set<String> fields) {
+        Map<Shard, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < peliculas.size(); i++) {
+            positions.computeIfAbsent(shardOf(peliculas.get(i).getId()), shard -> new ArrayList<>()).add(i);
+        }
+        return writeAll("patchAll", peliculas.size(), positions,
+                (shard, indexes) -> shard.repository().patchAll(indexes.stream().map(peliculas::get).toList(), fields));
+    }
+
+    /**
+     * Aplica la transición en el shard de la película. El shard la confirma de inmediato; si hay una
+     * transacción en curso en la base principal (la del historial) y no se confirma, la transición
+     * se revierte con otro compare-and-set para que el estado y el historial no diverjan.
+     */
+    @Override
+    public int compareAndSetEstadoAlquiler(int id, String expected, String estadoAlquiler) {
+        Shard shard = shardOf(id);
+        int result = shard.repository().compareAndSetEstadoAlquiler(id, expected, estadoAlquiler);
+        if (result == 1 && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        revert(shard, id, estadoAlquiler, expected);
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Deshace una transición confirmada en el shard cuya transacción principal no se confirmó.
+     */
+    private void revert(Shard shard, int id, String estadoAlquiler, String expected) {
+        try {
+            if (shard.repository().compareAndSetEstadoAlquiler(id, estadoAlquiler, expected) != 1) {
+                logger.warn("No se pudo revertir la transición de la película con ID {} en el shard {}: su estado cambió",
+                        id, shard.index());
+            }
+        } catch (Exception e) {
+            peliculaMetrics.error("compareAndSetEstadoAlquiler", e); // Registra el error en el log y en las métricas
+        }
+    }
+
+    /**
+     * @return Número de shards configurados.
+     */
+    public int shardCount() {
+        return shards.size();
+    }
+
+    private Shard shardOf(Number id) {
+        if (id == null) {
+            throw new IllegalArgumentException("La película no tiene ID: no se puede determinar su shard");
+        }
+        return shards.get((int) Math.floorMod(id.longValue() - 1, (long) shards.size()));
+    }
+
+    /**
+     * Ejecuta un lote en cada shard, dentro de una transacción por shard, y devuelve las filas
+     * afectadas en el orden original de la lista.
+     */
+    private int[] writeAll(String operation, int size, Map<Shard, List<Integer>> positions,
+                           BiFunction<Shard, List<Integer>, int[]> write) {
+        List<Shard> involved = List.copyOf(positions.keySet());
+        List<int[]> counts = onShards(operation, involved,
+                shard -> shard.transaction().execute(status -> write.apply(shard, positions.get(shard))));
+        int[] result = new int[size];
+        for (int i = 0; i < involved.size(); i++) {
+            List<Integer> indexes = positions.get(involved.get(i));
+            for (int j = 0; j < indexes.size(); j++) {
+                result[indexes.get(j)] = counts.get(i)[j];
+            }
+        }
+        return result;
+    }
+
+    private <T> List<T> onAllShards(String operation, Function<IPeliculaRepository, T> query) {
+        return onShards(operation, shards, shard -> query.apply(shard.repository()));
+    }
+
+    /**
+     * Ejecuta la operación en los shards indicados en paralelo y espera todos los resultados, en
+     * el mismo orden. Si alguno falla o supera el tiempo de espera, la operación falla.
+     */
+    private <T> List<T> onShards(String operation, Collection<Shard> targets, Function<Shard, T> task) {
+        List<Shard> ordered = List.copyOf(targets);
+        List<CompletableFuture<T>> futures = new ArrayList<>(ordered.size());
+        for (Shard shard : ordered) {
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(shard), executor));
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<T> results = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            try {
+                results.add(futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw shardFailure(operation, ordered.get(i), e);
+            } catch (ExecutionException e) {
+                throw shardFailure(operation, ordered.get(i), e.getCause());
+            } catch (TimeoutException e) {
+                futures.get(i).cancel(true);
+                throw shardFailure(operation, ordered.get(i), e);
+            }
+        }
+        return results;
+    }
+
+    private RuntimeException shardFailure(String operation, Shard shard, Throwable cause) {
+        peliculaMetrics.error(operation, cause); // Registra el error en el log y en las métricas
+        return new RuntimeException("Error en el shard " + shard.index() + " durante " + operation, cause);
+    }
+}
@@ -0,0 +1,266 @@
+package com.crud.peliculas.pelicula.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria con ranking BM25.
+ * Cada término guarda sus documentos en arreglos primitivos ordenados por ID, de modo que una
+ * consulta recorre las listas de sus términos en paralelo (document-at-a-time) y conserva solo
+ * los {@code limit} mejores resultados, sin mapas intermedios por documento.
+ *
+ * Es seguro para uso concurrente: las búsquedas comparten un bloqueo de lectura y las
+ * modificaciones toman el de escritura.
+ */
+public class InvertedIndex {
+
+    // Parámetros estándar de BM25
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Lista de documentos por término
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    // Términos de cada documento indexado, necesarios para quitarlo de sus listas
+    private final Map<Integer, String[]> documents = new HashMap<>();
+
+    // Suma de las longitudes (ponderadas) de todos los documentos, para la longitud media
+    private double totalLength;
+
+    // Mayor ID indexado
+    private int maxId;
+
+    /**
+     * Resultado de una búsqueda: ID del documento y su puntuación.
+     */
+    public record Hit(int id, float score) {
+    }
+
+    /**
+     * Indexa un documento, reemplazando su versión anterior si ya existía.
+     *
+     * @param id ID del documento.
+     * @param termFrequencies Frecuencia (ponderada) de cada término del documento.
+     */
+    public void put(int id, Map<String, Float> termFrequencies) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (termFrequencies.isEmpty()) {
+                return;
+            }
+
+            float length = 0;
+            for (float frequency : termFrequencies.values()) {
+                length += frequency;
+            }
+
+            String[] terms = new String[termFrequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : termFrequencies.entrySet()) {
+                Postings list = postings.computeIfAbsent(entry.getKey(), term -> new Postings());
+                list.put(id, entry.getValue(), length);
+                // Se reutiliza la instancia de la clave del diccionario para no duplicar cadenas
+                terms[i++] = entry.getKey();
+            }
+            documents.put(id, terms);
+            totalLength += length;
+            maxId = Math.max(maxId, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un documento del índice.
+     *
+     * @param id ID del documento.
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los documentos que contienen alguno de los términos, ordenados por puntuación BM25.
+     *
+     * @param terms Términos de la consulta, ya normalizados.
+     * @param limit Número máximo de resultados.
+     * @return Los mejores resultados, de mayor a menor puntuación.
+     */
+    public List<Hit> search(List<String> terms, int limit) {
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty() || limit < 1) {
+                return List.of();
+            }
+
+            List<Postings> lists = new ArrayList<>();
+            for (String term : new LinkedHashSet<>(terms)) {
+                Postings list = postings.get(term);
+                if (list != null && list.size > 0) {
+                    lists.add(list);
+                }
+            }
+            if (lists.isEmpty()) {
+                return List.of();
+            }
+
+            int n = lists.size();
+            int documentCount = documents.size();
+            float averageLength = (float) (totalLength / documentCount);
+            float[] idf = new float[n];
+            int[] cursor = new int[n];
+            for (int i = 0; i < n; i++) {
+                int df = lists.get(i).size;
+                idf[i] = (float) Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+            }
+
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, (a, b) -> Float.compare(a.score(), b.score()));
+            while (true) {
+                // Siguiente documento: el menor ID entre los cursores de todas las listas
+                int current = Integer.MAX_VALUE;
+                for (int i = 0; i < n; i++) {
+                    Postings list = lists.get(i);
+                    if (cursor[i] < list.size && list.ids[cursor[i]] < current) {
+                        current = list.ids[cursor[i]];
+                    }
+                }
+                if (current == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                float score = 0;
+                for (int i = 0; i < n; i++) {
+                    Postings list = lists.get(i);
+                    int position = cursor[i];
+                    if (position < list.size && list.ids[position] == current) {
+                        float tf = list.frequencies[position];
+                        float norm = K1 * (1 - B + B * list.lengths[position] / averageLength);
+                        score += idf[i] * tf * (K1 + 1) / (tf + norm);
+                        cursor[i]++;
+                    }
+                }
+
+                if (best.size() < limit) {
+                    best.add(new Hit(current, score));
+                } else if (score > best.peek().score()) {
+                    best.poll();
+                    best.add(new Hit(current, score));
+                }
+            }
+
+            Hit[] result = best.toArray(new Hit[0]);
+            Arrays.sort(result, (a, b) -> Float.compare(b.score(), a.score()));
+            return List.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Número de documentos indexados.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Mayor ID indexado, o 0 si el índice está vacío.
+     */
+    public int maxId() {
+        lock.readLock().lock();
+        try {
+            return maxId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(int id) {
+        String[] terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        // La longitud del documento es la misma en todas sus listas: se descuenta una sola vez
+        float length = -1;
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            length = list.remove(id);
+            if (list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        if (length >= 0) {
+            totalLength -= length;
+        }
+    }
+
+    /**
+     * Lista de documentos de un término, ordenada por ID, en arreglos paralelos.
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[2];
+        private float[] frequencies = new float[2];
+        private float[] lengths = new float[2];
+        private int size;
+
+        void put(int id, float frequency, float length) {
+            int position;
+            if (size == 0 || ids[size - 1] < id) {
+                // Caso habitual: los IDs nuevos son mayores que los existentes
+                position = size;
+            } else {
+                position = -(Arrays.binarySearch(ids, 0, size, id) + 1);
+            }
+            if (size == ids.length) {
+                int capacity = size + (size >> 1) + 1;
+                ids = Arrays.copyOf(ids, capacity);
+                frequencies = Arrays.copyOf(frequencies, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+            System.arraycopy(lengths, position, lengths, position + 1, size - position);
+            ids[position] = id;
+            frequencies[position] = frequency;
+            lengths[position] = length;
+            size++;
+        }
+
+        /**
+         * @return La longitud guardada del documento, o -1 si no estaba en la lista.
+         */
+        float remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return -1;
+            }
+            float length = lengths[position];
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+            System.arraycopy(lengths, position + 1, lengths, position, size - position - 1);
+            size--;
+            return length;
+        }
+    }
+}
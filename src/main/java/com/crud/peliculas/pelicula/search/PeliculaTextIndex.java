@@ -0,0 +1,248 @@
+package com.crud.peliculas.pelicula.search;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.repository.IPeliculaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de texto completo sobre el nombre y la descripción de las películas.
+ * Se construye al iniciar la aplicación recorriendo el repositorio y se mantiene al día con
+ * las operaciones de escritura de PeliculaService. El nombre pesa más que la descripción
+ * en el ranking.
+ *
+ * El texto se normaliza a minúsculas sin tildes y se descartan las palabras vacías más
+ * frecuentes del español, de modo que "Acción" y "accion" coinciden.
+ */
+@Component
+@Profile("!reactive")
+public class PeliculaTextIndex implements ApplicationRunner {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(PeliculaTextIndex.class);
+
+    // Peso de cada aparición de un término en el nombre y en la descripción
+    private static final float NOMBRE_WEIGHT = 3f;
+    private static final float DESCRIPCION_WEIGHT = 1f;
+
+    // Filas leídas por página al incorporar películas nuevas
+    private static final int CATCH_UP_PAGE = 1000;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Palabras demasiado frecuentes para aportar al ranking
+    private static final Set<String> STOPWORDS = Set.of(
+            "el", "la", "los", "las", "un", "una", "unos", "unas", "de", "del", "al", "y", "o", "e",
+            "en", "a", "que", "por", "para", "con", "sin", "se", "su", "sus", "lo", "es", "como", "mas");
+
+    @Autowired
+    private IPeliculaRepository iPeliculaRepository;
+
+    // Permite desactivar la construcción del índice al iniciar
+    @Value("${pelicula.text-index.enabled:true}")
+    private boolean enabled;
+
+    private volatile InvertedIndex index = new InvertedIndex();
+
+    // Las escrituras toman el bloqueo de lectura; el reemplazo del índice tras reconstruirlo toma el de escritura
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    // IDs modificados mientras se reconstruye el índice, que se vuelven a leer al terminar
+    private Set<Integer> touchedDuringRebuild;
+
+    /**
+     * Construye el índice al iniciar, antes de que la aplicación empiece a recibir tráfico.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reconstruye el índice completo desde la base de datos sin bloquear las búsquedas, que
+     * siguen usando el índice anterior hasta el reemplazo. Las películas modificadas durante la
+     * reconstrucción se vuelven a leer después para no perder esas escrituras.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        InvertedIndex fresh = new InvertedIndex();
+        Set<Integer> touched = ConcurrentHashMap.newKeySet();
+
+        swapLock.writeLock().lock();
+        try {
+            touchedDuringRebuild = touched;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        try {
+            iPeliculaRepository.streamAll(pelicula -> fresh.put(pelicula.getId().intValue(), analyze(pelicula)));
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                index = fresh;
+                touchedDuringRebuild = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+
+        Map<Integer, PeliculaModel> current = iPeliculaRepository.findByIds(touched);
+        for (Integer id : touched) {
+            PeliculaModel pelicula = current.get(id);
+            if (pelicula != null) {
+                fresh.put(id, analyze(pelicula));
+            } else {
+                fresh.remove(id);
+            }
+        }
+        logger.info("Índice de texto construido con {} películas en {} ms",
+                fresh.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexa o reindexa una película cuando la transacción en curso (si la hay) se confirma.
+     *
+     * @param pelicula La película con sus datos actuales; debe tener ID.
+     */
+    public void index(PeliculaModel pelicula) {
+        if (pelicula.getId() == null) {
+            return;
+        }
+        int id = pelicula.getId().intValue();
+        Map<String, Float> terms = analyze(pelicula);
+        afterCommit(() -> write(id, target -> target.put(id, terms)));
+    }
+
+    /**
+     * Quita una película del índice cuando la transacción en curso (si la hay) se confirma.
+     *
+     * @param id El ID de la película.
+     */
+    public void remove(int id) {
+        afterCommit(() -> write(id, target -> target.remove(id)));
+    }
+
+    /**
+     * Incorpora las películas con ID mayor que el último indexado. Se usa después de las
+     * inserciones por lotes, cuyos IDs generados no se conocen: como la columna IDENTITY es
+     * creciente, las filas nuevas se leen por página a partir del último ID indexado.
+     */
+    public void catchUp() {
+        afterCommit(this::catchUpNow);
+    }
+
+    /**
+     * Busca películas por los términos de la consulta.
+     *
+     * @param query Texto de la consulta.
+     * @param limit Número máximo de resultados.
+     * @return Los IDs encontrados con su puntuación, de mayor a menor.
+     */
+    public List<InvertedIndex.Hit> search(String query, int limit) {
+        return index.search(tokenize(query), limit);
+    }
+
+    /**
+     * @return Número de películas indexadas.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    private synchronized void catchUpNow() {
+        List<PeliculaModel> page;
+        do {
+            page = iPeliculaRepository.findPage(index.maxId(), CATCH_UP_PAGE);
+            for (PeliculaModel pelicula : page) {
+                int id = pelicula.getId().intValue();
+                Map<String, Float> terms = analyze(pelicula);
+                write(id, target -> target.put(id, terms));
+            }
+        } while (page.size() == CATCH_UP_PAGE);
+    }
+
+    private void write(int id, Consumer<InvertedIndex> change) {
+        swapLock.readLock().lock();
+        try {
+            change.accept(index);
+            Set<Integer> touched = touchedDuringRebuild;
+            if (touched != null) {
+                touched.add(id);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ejecuta la acción al confirmarse la transacción activa, o de inmediato si no hay ninguna,
+     * para que el índice nunca contenga escrituras que luego se revierten.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Calcula la frecuencia ponderada de cada término del nombre y la descripción.
+     */
+    static Map<String, Float> analyze(PeliculaModel pelicula) {
+        Map<String, Float> terms = new HashMap<>();
+        for (String term : tokenize(pelicula.getNombre())) {
+            terms.merge(term, NOMBRE_WEIGHT, Float::sum);
+        }
+        for (String term : tokenize(pelicula.getDescripcion())) {
+            terms.merge(term, DESCRIPCION_WEIGHT, Float::sum);
+        }
+        return terms;
+    }
+
+    /**
+     * Divide un texto en términos en minúsculas, sin tildes ni palabras vacías.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String term : SEPARATORS.split(normalized.toLowerCase())) {
+            if (term.length() > 1 && !STOPWORDS.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,97 @@
+package com.crud.peliculas.pelicula.service;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Versión del catálogo de películas, incrementada por PeliculaService en cada escritura.
+ * Los controladores la usan como ETag fuerte: mientras no cambie, el cliente ya tiene la
+ * representación vigente y se le responde 304 sin consultar la base de datos.
+ *
+ * El ETag incluye el instante de arranque, para que una versión de un proceso anterior nunca
+ * coincida con la del actual. Solo refleja las escrituras hechas a través de esta instancia.
+ *
+ * Junto con la versión se guarda el instante de la última escritura (inicialmente el arranque),
+ * que acota el Last-Modified: Fecha_modificacion solo tiene precisión de día y no cambia al
+ * eliminar una película.
+ */
+@Component
+@Profile("!reactive")
+public class CatalogVersion {
+
+    // Instante de arranque del proceso, en milisegundos
+    private final long epoch = System.currentTimeMillis();
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(snapshot(0, Instant.ofEpochMilli(epoch)));
+
+    /**
+     * Versión del catálogo en un instante dado.
+     *
+     * @param version Número de escrituras desde el arranque.
+     * @param lastModified Instante de la última escritura, o del arranque si no hubo ninguna.
+     * @param etag ETag fuerte (entre comillas) de la versión.
+     */
+    public record Snapshot(long version, Instant lastModified, String etag) {
+
+        /**
+         * Last-Modified de una respuesta: la Fecha_modificacion más reciente de las películas
+         * incluidas, acotada por la última escritura del catálogo.
+         *
+         * @param peliculas Películas de la respuesta.
+         * @return Instante de la última modificación.
+         */
+        public Instant lastModified(Collection<PeliculaModel> peliculas) {
+            Instant result = lastModified;
+            for (PeliculaModel pelicula : peliculas) {
+                if (pelicula.getFechaModificacion() != null) {
+                    Instant fecha = pelicula.getFechaModificacion().atStartOfDay(ZoneId.systemDefault()).toInstant();
+                    if (fecha.isAfter(result)) {
+                        result = fecha;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @return Versión actual del catálogo.
+     */
+    public Snapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Marca el catálogo como modificado. Dentro de una transacción la versión se incrementa ahora
+     * y de nuevo al terminar: una lectura concurrente que obtenga datos anteriores al commit con
+     * la versión nueva queda invalidada por el segundo incremento.
+     */
+    public void increment() {
+        next();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    next();
+                }
+            });
+        }
+    }
+
+    private void next() {
+        Instant now = Instant.now();
+        current.updateAndGet(snapshot -> snapshot(snapshot.version() + 1, now));
+    }
+
+    private Snapshot snapshot(long version, Instant lastModified) {
+        return new Snapshot(version, lastModified, "\"" + Long.toString(epoch, 36) + "-" + version + "\"");
+    }
+}
@@ -0,0 +1,202 @@
+package com.crud.peliculas.pelicula.service;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Calentamiento de la aplicación al iniciar, antes de que reciba tráfico.
+ * Spring Boot marca la aplicación como lista (readiness ACCEPTING_TRAFFIC, /actuator/health/readiness)
+ * solo después de ejecutar los ApplicationRunner, de modo que lo que se hace aquí no lo paga la
+ * primera solicitud de un cliente:
+ * <ul>
+ *   <li>abre las conexiones del pool JDBC, que Hikari crea de forma perezosa;</li>
+ *   <li>carga la caché del catálogo y el JSON y gzip de /list para la versión vigente;</li>
+ *   <li>hace solicitudes reales a la propia aplicación (/list, /list?limit, /{id}, /search) para
+ *       inicializar el DispatcherServlet, los convertidores de mensajes, las clases del driver y
+ *       dar al JIT las primeras ejecuciones de esas rutas.</li>
+ * </ul>
+ * Un fallo en el calentamiento se registra como advertencia y no impide el arranque.
+ */
+@Component
+@Profile("!reactive")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class CatalogWarmup implements ApplicationRunner {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(CatalogWarmup.class);
+
+    // Ruta base de PeliculaController
+    private static final String BASE_PATH = "/api/v1/pelicula";
+
+    @Autowired
+    private IPeliculaService iPeliculaService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Permite desactivar el calentamiento
+    @Value("${pelicula.warmup.enabled:true}")
+    private boolean enabled;
+
+    // Conexiones que se abren a la vez; no debe superar el tamaño máximo del pool
+    @Value("${pelicula.warmup.connections:${spring.datasource.hikari.minimum-idle:10}}")
+    private int connections;
+
+    // Rondas de solicitudes HTTP contra la propia aplicación
+    @Value("${pelicula.warmup.requests:20}")
+    private int requests;
+
+    // Tiempo máximo de cada solicitud HTTP del calentamiento
+    @Value("${pelicula.warmup.request-timeout:10s}")
+    private Duration requestTimeout;
+
+    // Termina la aplicación al acabar el calentamiento (ejecución de entrenamiento del archivo CDS)
+    @Value("${pelicula.warmup.exit:false}")
+    private boolean exit;
+
+    @Value("${server.address:localhost}")
+    private String serverAddress;
+
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        primePool();
+        Integer sampleId = primeCatalog();
+        primeRequests(sampleId);
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        meterRegistry.timer("pelicula.warmup").record(elapsed);
+        logger.info("Calentamiento terminado en {} ms", elapsed.toMillis());
+
+        if (exit) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    /**
+     * Abre a la vez el número configurado de conexiones y las devuelve al pool. isValid obliga a
+     * conectar también cuando el DataSource es un proxy perezoso (réplica de lectura configurada).
+     */
+    void primePool() {
+        List<Connection> opened = new ArrayList<>();
+        try {
+            for (int i = 0; i < connections; i++) {
+                Connection connection = dataSource.getConnection();
+                opened.add(connection);
+                connection.isValid(1);
+            }
+        } catch (Exception e) {
+            logger.warn("No se pudo abrir el pool de conexiones al iniciar: {}", e.getMessage());
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    logger.warn("Error al devolver una conexión del calentamiento: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Carga la caché del catálogo y su versión serializada, y ejecuta una vez cada lectura.
+     *
+     * @return ID de una película existente para las solicitudes por ID, o null si el catálogo está vacío.
+     */
+    Integer primeCatalog() {
+        try {
+            iPeliculaService.findAllRendered();
+            iPeliculaService.search(new PeliculaSearchCriteria());
+            List<PeliculaModel> page = iPeliculaService.findPage(0, 1);
+            if (page.isEmpty()) {
+                return null;
+            }
+            int id = page.get(0).getId().intValue();
+            iPeliculaService.findById(id);
+            return id;
+        } catch (Exception e) {
+            logger.warn("No se pudo cargar el catálogo al iniciar: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Hace solicitudes HTTP a la propia aplicación. Solo se ejecuta con un servidor web real
+     * (no en las pruebas con MockMvc).
+     */
+    void primeRequests(Integer sampleId) {
+        if (!(applicationContext instanceof WebServerApplicationContext webContext)
+                || webContext.getWebServer() == null || webContext.getWebServer().getPort() <= 0) {
+            return;
+        }
+        String base = "http://" + serverAddress + ":" + webContext.getWebServer().getPort() + contextPath + BASE_PATH;
+        List<HttpRequest> rounds = new ArrayList<>();
+        rounds.add(request(base + "/list", "gzip"));
+        rounds.add(request(base + "/list", "identity"));
+        rounds.add(request(base + "/list?limit=50", "identity"));
+        rounds.add(request(base + "/search?limit=50", "identity"));
+        if (sampleId != null) {
+            rounds.add(request(base + "/" + sampleId, "identity"));
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(requestTimeout).build();
+        try {
+            for (int i = 0; i < requests; i++) {
+                for (HttpRequest request : rounds) {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("No se pudieron completar las solicitudes de calentamiento: {}", e.getMessage());
+        }
+    }
+
+    private HttpRequest request(String uri, String encoding) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", encoding)
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+    }
+}
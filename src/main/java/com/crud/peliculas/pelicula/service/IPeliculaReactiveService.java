@@ -0,0 +1,87 @@
+package com.crud.peliculas.pelicula.service;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import com.crud.peliculas.pelicula.model.RentalResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Interfaz del servicio reactivo de películas, equivalente a IPeliculaService para la pila WebFlux.
+ * Los métodos son implementados por la clase PeliculaReactiveService.
+ */
+public interface IPeliculaReactiveService {
+
+    /**
+     * Obtiene todas las películas, emitidas a medida que se leen de la base de datos.
+     *
+     * @return Flux de películas ordenadas por ID.
+     */
+    public Flux<PeliculaModel> findAll();
+
+    /**
+     * Obtiene una página de películas ordenadas por ID a partir de un cursor.
+     *
+     * @param afterId El último ID recibido en la página anterior (0 para la primera página).
+     * @param limit Número máximo de películas a devolver.
+     * @return Flux con hasta {@code limit} películas con ID mayor que {@code afterId}.
+     */
+    public Flux<PeliculaModel> findPage(long afterId, int limit);
+
+    /**
+     * Busca películas aplicando los filtros en la base de datos.
+     *
+     * @param criteria Filtros, orden y límite de la búsqueda.
+     * @return Flux con las películas que cumplen los filtros.
+     */
+    public Flux<PeliculaModel> search(PeliculaSearchCriteria criteria);
+
+    /**
+     * Guarda una nueva película.
+     *
+     * @param peliculaModel El modelo de la película a guardar.
+     * @return Mono con el número de filas afectadas.
+     */
+    public Mono<Integer> save(PeliculaModel peliculaModel);
+
+    /**
+     * Actualiza una película existente.
+     *
+     * @param peliculaModel El modelo de la película con los datos actualizados.
+     * @return Mono con el número de filas afectadas.
+     */
+    public Mono<Integer> update(PeliculaModel peliculaModel);
+
+    /**
+     * Elimina una película por su ID.
+     *
+     * @param id El ID de la película a eliminar.
+     * @return Mono con el número de filas afectadas.
+     */
+    public Mono<Integer> deleteById(int id);
+
+    /**
+     * Actualiza el estado del alquiler de una película.
+     *
+     * @param id El ID de la película.
+     * @param estadoAlquiler El nuevo estado del alquiler.
+     * @return Mono con el número de filas afectadas.
+     */
+    public Mono<Integer> updateEstadoAlquiler(int id, String estadoAlquiler);
+
+    /**
+     * Alquila una película disponible.
+     *
+     * @param id El ID de la película.
+     * @return Mono con OK, CONFLICT si ya estaba alquilada o NOT_FOUND si no existe.
+     */
+    public Mono<RentalResult> checkout(int id);
+
+    /**
+     * Devuelve una película alquilada.
+     *
+     * @param id El ID de la película.
+     * @return Mono con OK, CONFLICT si ya estaba disponible o NOT_FOUND si no existe.
+     */
+    public Mono<RentalResult> returnPelicula(int id);
+}
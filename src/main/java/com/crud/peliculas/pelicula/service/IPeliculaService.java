@@ -1,8 +1,13 @@
 package com.crud.peliculas.pelicula.service;
 
 import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import com.crud.peliculas.pelicula.model.RentalResult;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Interfaz que define los métodos del servicio para gestionar las operaciones CRUD sobre las películas.
@@ -17,6 +22,62 @@ public interface IPeliculaService {
      */
     public List<PeliculaModel> findAll();
 
+    /**
+     * Obtiene el catálogo completo ya serializado a JSON, sin comprimir y con gzip,
+     * para la versión actual del catálogo.
+     *
+     * @return Catálogo serializado de la versión vigente.
+     */
+    public RenderedCatalog findAllRendered();
+
+    /**
+     * Obtiene una página de películas ordenadas por ID a partir de un cursor.
+     *
+     * @param afterId El último ID recibido en la página anterior (0 para la primera página).
+     * @param limit Número máximo de películas a devolver.
+     * @return Lista de hasta {@code limit} películas con ID mayor que {@code afterId}.
+     */
+    public List<PeliculaModel> findPage(long afterId, int limit);
+
+    /**
+     * Obtiene una película por su ID.
+     *
+     * @param id El ID de la película.
+     * @return La película, o vacío si no existe.
+     */
+    public Optional<PeliculaModel> findById(int id);
+
+    /**
+     * Obtiene la versión actual del catálogo, que cambia con cada escritura.
+     *
+     * @return Versión del catálogo, instante de su última escritura y ETag.
+     */
+    public CatalogVersion.Snapshot catalogVersion();
+
+    /**
+     * Busca películas por estado, estado de alquiler, rango de puntaje y texto del nombre.
+     *
+     * @param criteria Filtros, orden y límite de la búsqueda, previamente validados.
+     * @return Lista de películas que cumplen los filtros.
+     */
+    public List<PeliculaModel> search(PeliculaSearchCriteria criteria);
+
+    /**
+     * Busca películas por palabras del nombre o la descripción, ordenadas por relevancia.
+     *
+     * @param query Texto de la consulta.
+     * @param limit Número máximo de resultados.
+     * @return Lista de películas de mayor a menor relevancia.
+     */
+    public List<PeliculaModel> searchText(String query, int limit);
+
+    /**
+     * Recorre todas las películas entregándolas una a una sin cargarlas todas en memoria.
+     *
+     * @param consumer Función que recibe cada película leída.
+     */
+    public void streamAll(Consumer<PeliculaModel> consumer);
+
     /**
      * Guarda una nueva película en la base de datos.
      *
@@ -25,6 +86,15 @@ public interface IPeliculaService {
      */
     public int save(PeliculaModel pelicula);
 
+    /**
+     * Guarda varias películas en una sola transacción usando lotes JDBC.
+     * Si alguna inserción falla, no se guarda ninguna.
+     *
+     * @param peliculas Lista de películas a guardar.
+     * @return Filas afectadas por cada película, en el mismo orden de la lista.
+     */
+    public int[] saveAll(List<PeliculaModel> peliculas);
+
     /**
      * Actualiza los datos de una película existente en la base de datos.
      *
@@ -33,6 +103,25 @@ public interface IPeliculaService {
      */
     public int update(PeliculaModel pelicula);
 
+    /**
+     * Actualiza solo los campos indicados de una película existente.
+     *
+     * @param id El ID de la película.
+     * @param cambios Los nuevos valores de los campos indicados.
+     * @param fields Nombres de los campos a actualizar, previamente validados.
+     * @return Número de filas afectadas por la operación (1 si se actualizó correctamente, 0 si no se encontró la película).
+     */
+    public int patch(int id, PeliculaModel cambios, Set<String> fields);
+
+    /**
+     * Actualiza varias películas en una sola transacción usando lotes JDBC.
+     * Si alguna actualización falla, no se aplica ninguna.
+     *
+     * @param peliculas Lista de películas con los datos actualizados.
+     * @return Filas afectadas por cada película (0 si no existe), en el mismo orden de la lista.
+     */
+    public int[] updateAll(List<PeliculaModel> peliculas);
+
     /**
      * Elimina una película de la base de datos utilizando su ID.
      *
@@ -49,4 +138,21 @@ public interface IPeliculaService {
      * @return 1 si la operación fue exitosa, 0 si no se encuentra la película o hay error.
      */
     public int updateEstadoAlquiler(int id, String estadoAlquiler);
+
+    /**
+     * Alquila una película si está disponible. Si varias solicitudes intentan alquilar la misma
+     * película a la vez, solo una obtiene OK y el resto CONFLICT.
+     *
+     * @param id El ID de la película.
+     * @return OK si se alquiló, CONFLICT si ya estaba alquilada, NOT_FOUND si no existe.
+     */
+    public RentalResult checkout(int id);
+
+    /**
+     * Devuelve una película alquilada, dejándola disponible.
+     *
+     * @param id El ID de la película.
+     * @return OK si se devolvió, CONFLICT si ya estaba disponible, NOT_FOUND si no existe.
+     */
+    public RentalResult returnPelicula(int id);
 }
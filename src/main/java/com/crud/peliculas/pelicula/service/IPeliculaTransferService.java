@@ -0,0 +1,32 @@
+package com.crud.peliculas.pelicula.service;
+
+import com.crud.peliculas.pelicula.model.ImportResult;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Interfaz que define la exportación e importación masiva del catálogo de películas.
+ * Ambas operaciones trabajan en streaming, por lo que la memoria usada no depende del tamaño del catálogo.
+ * Los métodos son implementados por la clase PeliculaTransferService.
+ */
+public interface IPeliculaTransferService {
+
+    /**
+     * Escribe todas las películas en el formato indicado a medida que se leen de la base de datos.
+     *
+     * @param outputStream Flujo de salida donde se escribe el catálogo.
+     * @param format Formato de salida (NDJSON o CSV).
+     */
+    public void exportAll(OutputStream outputStream, TransferFormat format);
+
+    /**
+     * Lee películas del flujo de entrada de forma incremental, valida cada fila contra las
+     * restricciones del esquema y guarda las válidas en lotes.
+     *
+     * @param inputStream Flujo de entrada con las películas.
+     * @param format Formato de entrada (NDJSON o CSV).
+     * @return Resumen de filas leídas, importadas y rechazadas.
+     */
+    public ImportResult importAll(InputStream inputStream, TransferFormat format);
+}
@@ -0,0 +1,35 @@
+package com.crud.peliculas.pelicula.service;
+
+import com.crud.peliculas.pelicula.model.RentalStat;
+import com.crud.peliculas.pelicula.model.TopPelicula;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Interfaz que define las estadísticas de alquileres calculadas sobre los agregados del historial.
+ * Los métodos son implementados por la clase RentalStatsService.
+ */
+public interface IRentalStatsService {
+
+    /**
+     * Obtiene los alquileres y devoluciones por período en un rango de días.
+     *
+     * @param peliculaId El ID de la película, o null para todas.
+     * @param granularity Tamaño del período: "hour" o "day".
+     * @param from Primer día del rango (inclusive).
+     * @param to Último día del rango (inclusive).
+     * @return Períodos con actividad, en orden cronológico.
+     */
+    public List<RentalStat> rentals(Integer peliculaId, String granularity, LocalDate from, LocalDate to);
+
+    /**
+     * Obtiene las películas más alquiladas en un rango de días.
+     *
+     * @param from Primer día del rango (inclusive).
+     * @param to Último día del rango (inclusive).
+     * @param limit Número máximo de películas.
+     * @return Películas de mayor a menor número de alquileres.
+     */
+    public List<TopPelicula> top(LocalDate from, LocalDate to, int limit);
+}
@@ -0,0 +1,339 @@
+package com.crud.peliculas.pelicula.service;
+
+import com.crud.peliculas.pelicula.model.PeliculaEvent;
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publica los cambios del catálogo a los suscriptores de GET /events (Server-Sent Events).
+ *
+ * Cada evento se numera, se guarda en un buffer circular de tamaño fijo y se serializa una
+ * sola vez; luego se envía el mismo texto a cada suscriptor. Un cliente que se reconecta con
+ * Last-Event-ID recibe los eventos posteriores que sigan en el buffer, o un evento "reset" si
+ * ya se descartaron y debe recargar el catálogo.
+ *
+ * La numeración, la repetición de eventos al suscribirse y los heartbeats se ejecutan en un único
+ * hilo, que solo deja cada evento en la cola acotada de cada suscriptor ({@code subscriber-queue}).
+ * Los envíos se hacen desde un pool aparte ({@code senders}), de modo que un cliente lento no
+ * retrasa a los demás. Cada suscriptor recibe los eventos en orden y sin huecos: si su cola se
+ * llena, la conexión se cierra ({@code pelicula.events.dropped}) y el cliente se reconecta con
+ * Last-Event-ID.
+ */
+@Component
+@Profile("!reactive")
+public class PeliculaEventPublisher {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(PeliculaEventPublisher.class);
+
+    // Marca de heartbeat en la cola de un suscriptor
+    private static final Entry HEARTBEAT = new Entry(0, null, null);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Número de eventos recientes que se conservan para las reconexiones con Last-Event-ID
+    @Value("${pelicula.events.buffer-size:1000}")
+    private int bufferSize;
+
+    // Eventos pendientes de envío por suscriptor; al superarlos, el suscriptor se desconecta
+    @Value("${pelicula.events.subscriber-queue:256}")
+    private int subscriberQueue;
+
+    // Hilos que escriben los eventos en las conexiones
+    @Value("${pelicula.events.senders:4}")
+    private int senderThreads;
+
+    // Intervalo de los comentarios de heartbeat que mantienen abiertas las conexiones en proxies
+    @Value("${pelicula.events.heartbeat:15s}")
+    private Duration heartbeat;
+
+    // Duración máxima de una conexión; al cerrarse, el cliente se reconecta con Last-Event-ID
+    @Value("${pelicula.events.timeout:30m}")
+    private Duration timeout;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pelicula-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ExecutorService senders;
+
+    private Counter dropped;
+
+    // Buffer circular: el evento con secuencia s está en la posición s % buffer.length.
+    // Solo el hilo dispatcher lo lee y lo modifica.
+    private Entry[] buffer;
+    private long lastSequence;
+
+    /**
+     * Evento ya serializado, listo para enviarse a cada suscriptor.
+     */
+    private record Entry(long sequence, String type, String data) {
+    }
+
+    /**
+     * Conexión de un suscriptor con los eventos pendientes de envío. Solo el dispatcher agrega a la
+     * cola, y como mucho un hilo del pool la vacía a la vez.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(subscriberQueue);
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Encola un evento y programa su envío.
+         *
+         * @return false si la cola está llena.
+         */
+        private boolean offer(Entry entry) {
+            if (closed || !queue.offer(entry)) {
+                return false;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+            return true;
+        }
+
+        private void drain() {
+            do {
+                Entry entry;
+                while (!closed && (entry = queue.poll()) != null) {
+                    if (!send(this, entry)) {
+                        return;
+                    }
+                }
+                draining.set(false);
+                // Un evento encolado después del último poll programa otro vaciado o lo hace este hilo
+            } while (!closed && !queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void close(Throwable error) {
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        buffer = new Entry[bufferSize];
+        AtomicInteger count = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "pelicula-events-sender-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleAtFixedRate(this::sendHeartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        Gauge.builder("pelicula.events.subscribers", subscribers, List::size)
+                .description("Suscriptores conectados a /events")
+                .register(meterRegistry);
+        dropped = Counter.builder("pelicula.events.dropped")
+                .description("Suscriptores de /events desconectados por no recibir los eventos a tiempo")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.close(null));
+    }
+
+    /**
+     * Publica un cambio al confirmarse la transacción activa, o de inmediato si no hay ninguna,
+     * para que los suscriptores nunca reciban cambios que luego se revierten.
+     *
+     * @param type Tipo de cambio.
+     * @param id ID de la película afectada (null para "reset").
+     * @param changes Campos modificados con su nuevo valor.
+     */
+    public void publish(String type, Long id, Map<String, Object> changes) {
+        Runnable action = () -> dispatcher.execute(() -> dispatch(new PeliculaEvent(type, id, changes)));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Publica la escritura de una película con todos sus campos, con los mismos nombres que en el
+     * JSON de la API y sin el ID, que ya viaja en el evento. El modelo no guarda la versión
+     * anterior, así que un evento "updated" lleva todos los campos enviados en la actualización.
+     *
+     * @param type Tipo de cambio (created o updated).
+     * @param pelicula La película escrita; debe tener ID.
+     */
+    public void publish(String type, PeliculaModel pelicula) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> changes = objectMapper.convertValue(pelicula, LinkedHashMap.class);
+        changes.remove("id");
+        publish(type, pelicula.getId(), changes);
+    }
+
+    /**
+     * Publica una actualización parcial con solo los campos modificados.
+     *
+     * @param type Tipo de cambio (updated).
+     * @param id ID de la película afectada.
+     * @param cambios Los nuevos valores de los campos modificados.
+     * @param fields Nombres de los campos modificados, como en el JSON de la API.
+     */
+    public void publish(String type, long id, PeliculaModel cambios, Collection<String> fields) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> changes = objectMapper.convertValue(cambios, LinkedHashMap.class);
+        changes.keySet().retainAll(fields);
+        publish(type, id, changes);
+    }
+
+    /**
+     * Registra un suscriptor nuevo.
+     *
+     * @param lastEventId Último evento recibido por el cliente, o null si es una conexión nueva.
+     * @return Conexión SSE del suscriptor.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        return subscribe(new SseEmitter(timeout.toMillis()), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        dispatcher.execute(() -> {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        });
+        return emitter;
+    }
+
+    /**
+     * Encola para el suscriptor los eventos posteriores a {@code lastEventId}, o un "reset" si
+     * alguno ya no está en el buffer o no caben en su cola.
+     */
+    private void replay(Subscriber subscriber, long lastEventId) {
+        long oldest = Math.max(1, lastSequence - buffer.length + 1);
+        if (lastEventId + 1 < oldest || lastEventId > lastSequence || lastSequence - lastEventId > subscriberQueue) {
+            // Eventos perdidos o de otro proceso: el cliente debe recargar el catálogo
+            subscriber.offer(serialize(new PeliculaEvent(PeliculaEvent.RESET, null, Map.of()), lastSequence));
+            return;
+        }
+        for (long sequence = lastEventId + 1; sequence <= lastSequence; sequence++) {
+            subscriber.offer(buffer[(int) (sequence % buffer.length)]);
+        }
+    }
+
+    private void dispatch(PeliculaEvent event) {
+        Entry entry = serialize(event, ++lastSequence);
+        buffer[(int) (entry.sequence() % buffer.length)] = entry;
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(entry)) {
+                // El cliente no recibe los eventos al ritmo en que se publican: se reconectará con Last-Event-ID
+                logger.debug("Suscriptor de eventos desconectado por no vaciar su cola");
+                dropped.increment();
+                subscriber.close(null);
+            }
+        }
+    }
+
+    private Entry serialize(PeliculaEvent event, long sequence) {
+        event.setSequence(sequence);
+        try {
+            return new Entry(sequence, event.getType(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento " + event, e);
+        }
+    }
+
+    /**
+     * Escribe un evento o un heartbeat en la conexión del suscriptor.
+     *
+     * @return false si el envío falló y el suscriptor se descartó.
+     */
+    private boolean send(Subscriber subscriber, Entry entry) {
+        try {
+            if (entry == HEARTBEAT) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(Long.toString(entry.sequence()))
+                        .name(entry.type())
+                        .data(entry.data()));
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // El cliente se desconectó: se descarta la suscripción
+            logger.debug("Suscriptor de eventos desconectado: {}", e.getMessage());
+            subscriber.close(e);
+            return false;
+        }
+    }
+
+    private void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            // Con la cola llena no hace falta: hay eventos pendientes de envío
+            subscriber.offer(HEARTBEAT);
+        }
+    }
+}
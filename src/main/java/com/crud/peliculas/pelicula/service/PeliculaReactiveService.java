@@ -0,0 +1,119 @@
+package com.crud.peliculas.pelicula.service;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import com.crud.peliculas.pelicula.model.RentalResult;
+import com.crud.peliculas.pelicula.repository.IPeliculaReactiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Servicio reactivo de películas (perfil "reactive").
+ * Aplica las mismas reglas que PeliculaService sobre IPeliculaReactiveRepository: los errores se
+ * registran y se propagan como RuntimeException en la señal de error del flujo.
+ */
+@Service
+@Profile("reactive")
+public class PeliculaReactiveService implements IPeliculaReactiveService {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(PeliculaReactiveService.class);
+
+    // Valores de la columna Estado_alquiler
+    private static final String ESTADO_DISPONIBLE = "Disponible";
+    private static final String ESTADO_ALQUILADA = "Alquilada";
+
+    @Autowired
+    private IPeliculaReactiveRepository iPeliculaReactiveRepository;
+
+    @Override
+    public Flux<PeliculaModel> findAll() {
+        return iPeliculaReactiveRepository.findAll()
+                .onErrorMap(e -> failure("Error al obtener la lista de películas", e));
+    }
+
+    @Override
+    public Flux<PeliculaModel> findPage(long afterId, int limit) {
+        return iPeliculaReactiveRepository.findPage(afterId, limit)
+                .onErrorMap(e -> failure("Error al obtener la página de películas", e));
+    }
+
+    @Override
+    public Flux<PeliculaModel> search(PeliculaSearchCriteria criteria) {
+        return iPeliculaReactiveRepository.search(criteria)
+                .onErrorMap(e -> failure("Error al buscar películas", e));
+    }
+
+    @Override
+    public Mono<Integer> save(PeliculaModel peliculaModel) {
+        return iPeliculaReactiveRepository.save(peliculaModel)
+                .onErrorMap(e -> failure("Error al guardar la película", e));
+    }
+
+    @Override
+    public Mono<Integer> update(PeliculaModel peliculaModel) {
+        return iPeliculaReactiveRepository.update(peliculaModel)
+                .onErrorMap(e -> failure("Error al actualizar la película", e));
+    }
+
+    @Override
+    public Mono<Integer> deleteById(int id) {
+        return iPeliculaReactiveRepository.deleteById(id)
+                .onErrorMap(e -> failure("Error al eliminar la película", e));
+    }
+
+    @Override
+    public Mono<Integer> updateEstadoAlquiler(int id, String estadoAlquiler) {
+        return iPeliculaReactiveRepository.updateEstadoAlquiler(id, estadoAlquiler)
+                .doOnNext(result -> {
+                    if (result == 1) {
+                        logger.info("Estado del alquiler actualizado para la película con ID: {}", id);
+                    } else {
+                        logger.warn("No se encontró la película con ID: {}", id);
+                    }
+                })
+                .onErrorMap(e -> failure("Error al actualizar el estado del alquiler", e));
+    }
+
+    @Override
+    public Mono<RentalResult> checkout(int id) {
+        return transition(id, ESTADO_DISPONIBLE, ESTADO_ALQUILADA);
+    }
+
+    @Override
+    public Mono<RentalResult> returnPelicula(int id) {
+        return transition(id, ESTADO_ALQUILADA, ESTADO_DISPONIBLE);
+    }
+
+    /**
+     * Aplica una transición del estado de alquiler con compare-and-set en SQL. Solo cuando la
+     * transición no se aplica se consulta la película, para distinguir un conflicto de una
+     * película inexistente.
+     */
+    private Mono<RentalResult> transition(int id, String expected, String estadoAlquiler) {
+        return iPeliculaReactiveRepository.compareAndSetEstadoAlquiler(id, expected, estadoAlquiler)
+                .flatMap(result -> {
+                    if (result == 1) {
+                        logger.info("Película con ID {} pasó de {} a {}", id, expected, estadoAlquiler);
+                        return Mono.just(RentalResult.OK);
+                    }
+                    return iPeliculaReactiveRepository.findById(id)
+                            .map(pelicula -> RentalResult.CONFLICT)
+                            .defaultIfEmpty(RentalResult.NOT_FOUND);
+                })
+                .onErrorMap(e -> failure("Error al cambiar el estado del alquiler", e));
+    }
+
+    /**
+     * Registra el error y lo envuelve en la excepción que recibe el controlador.
+     */
+    private static RuntimeException failure(String message, Throwable e) {
+        logger.error("{}: {}", message, e.getMessage());
+        return new RuntimeException(message, e);
+    }
+}
@@ -1,25 +1,105 @@
 package com.crud.peliculas.pelicula.service;
 
+import com.crud.peliculas.pelicula.config.RecentWriters;
+import com.crud.peliculas.pelicula.model.PeliculaEvent;
 import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import com.crud.peliculas.pelicula.model.RentalResult;
 import com.crud.peliculas.pelicula.repository.IPeliculaRepository;
+import com.crud.peliculas.pelicula.repository.IRentalLedgerRepository;
+import com.crud.peliculas.pelicula.search.InvertedIndex;
+import com.crud.peliculas.pelicula.search.PeliculaTextIndex;
+import com.crud.peliculas.pelicula.validation.PeliculaValidator;
+import com.crud.peliculas.pelicula.writebehind.PendingWrite;
+import com.crud.peliculas.pelicula.writebehind.WriteBehindQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+// Cada método publica el timer pelicula.service, etiquetado por método y excepción, con histograma de percentiles
 @Service
+@Profile("!reactive")
+@Timed(value = "pelicula.service", histogram = true)
 public class PeliculaService implements IPeliculaService {
 
     // Logger para registrar eventos y errores
     private static final Logger logger = LoggerFactory.getLogger(PeliculaService.class);
 
+    // Valores de la columna Estado_alquiler
+    private static final String ESTADO_DISPONIBLE = "Disponible";
+    private static final String ESTADO_ALQUILADA = "Alquilada";
+
     @Autowired
     private IPeliculaRepository iPeliculaRepository;
 
+    // Índice de texto completo, actualizado en cada escritura
+    @Autowired
+    private PeliculaTextIndex peliculaTextIndex;
+
+    // Versión del catálogo para los ETag de /list y /{id}, incrementada en cada escritura
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    // Cambios del catálogo para los suscriptores de /events, publicados tras el commit
+    @Autowired
+    private PeliculaEventPublisher peliculaEventPublisher;
+
+    // Cola write-behind opcional para update y updateEstadoAlquiler (pelicula.write-behind.enabled)
+    @Autowired
+    private WriteBehindQueue writeBehindQueue;
+
+    // Historial de alquileres y sus agregados, escritos en la misma transacción que cada cambio de estado
+    @Autowired
+    private IRentalLedgerRepository iRentalLedgerRepository;
+
+    // Escrituras recientes: se registran al aceptar cada escritura, antes de enviarla a la base de
+    // datos, para que las lecturas del cliente no vayan a una réplica que aún no la tiene
+    @Autowired
+    private RecentWriters recentWriters;
+
+    // Agrupa las lecturas idénticas simultáneas en una sola consulta
+    @Autowired
+    private SingleFlight singleFlight;
+
+    // Gestor de transacciones para la transacción de solo lectura de las lecturas agrupadas
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Serializador JSON configurado por Spring Boot, el mismo que usan las respuestas de los controladores
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Catálogo serializado de la última versión solicitada; se reconstruye cuando la versión cambia
+    private final AtomicReference<RenderedCatalog> renderedCatalog = new AtomicReference<>();
+
     /**
      * Obtiene una lista de todas las películas almacenadas en la base de datos.
+     * Las solicitudes simultáneas comparten una sola consulta (ver {@link #coalescedFromPrimary}).
+     * Se lee del primario, como findPage y findById: las respuestas llevan el ETag de la versión
+     * del catálogo, y una réplica atrasada asociaría datos anteriores a la versión vigente.
      *
      * @return Lista de objetos PeliculaModel con los datos de las películas.
      */
@@ -27,7 +107,7 @@ public class PeliculaService implements IPeliculaService {
     public List<PeliculaModel> findAll() {
         try {
             // Llama al repositorio para obtener las películas
-            return iPeliculaRepository.findAll();
+            return coalescedFromPrimary("findAll", "", iPeliculaRepository::findAll);
         } catch (Exception e) {
             // Registra el error en caso de que falle la operación
             logger.error("Error al obtener la lista de películas: {}", e.getMessage());
@@ -35,6 +115,160 @@ public class PeliculaService implements IPeliculaService {
         }
     }
 
+    /**
+     * Obtiene el catálogo completo serializado. Se serializa y comprime una sola vez por versión
+     * del catálogo: la primera solicitud después de una escritura lo reconstruye y las demás
+     * reutilizan los mismos bytes. Las solicitudes concurrentes esperan a una única reconstrucción.
+     * Se lee del primario y no de la réplica: el resultado queda asociado al ETag de la versión
+     * hasta la siguiente escritura, y una réplica atrasada lo fijaría con datos anteriores.
+     *
+     * @return Catálogo serializado de la versión vigente.
+     */
+    @Override
+    public RenderedCatalog findAllRendered() {
+        RenderedCatalog rendered = renderedCatalog.get();
+        if (rendered != null && rendered.etag().equals(catalogVersion.current().etag())) {
+            return rendered;
+        }
+        synchronized (renderedCatalog) {
+            // La versión se lee antes que los datos: si cambia durante la lectura, la siguiente solicitud reconstruye
+            CatalogVersion.Snapshot version = catalogVersion.current();
+            rendered = renderedCatalog.get();
+            if (rendered != null && rendered.etag().equals(version.etag())) {
+                return rendered;
+            }
+            try {
+                // Ya se ejecuta una sola reconstrucción a la vez; se consulta directamente el primario
+                List<PeliculaModel> peliculas = iPeliculaRepository.findAll();
+                byte[] json = objectMapper.writeValueAsBytes(peliculas);
+                rendered = new RenderedCatalog(version.etag(), version.lastModified(peliculas), json, gzip(json));
+                renderedCatalog.set(rendered);
+                return rendered;
+            } catch (IOException e) {
+                // Registra el error en caso de que falle la serialización
+                logger.error("Error al serializar la lista de películas: {}", e.getMessage());
+                throw new RuntimeException("Error al serializar la lista de películas", e);
+            }
+        }
+    }
+
+    /**
+     * Obtiene una página de películas ordenadas por ID a partir de un cursor. Se lee del primario
+     * (ver {@link #findAll}).
+     *
+     * @param afterId El último ID recibido en la página anterior (0 para la primera página).
+     * @param limit Número máximo de películas a devolver.
+     * @return Lista de objetos PeliculaModel de la página solicitada.
+     */
+    @Override
+    public List<PeliculaModel> findPage(long afterId, int limit) {
+        try {
+            // Llama al repositorio para obtener solo la página solicitada
+            return coalescedFromPrimary("findPage", afterId + ":" + limit, () -> iPeliculaRepository.findPage(afterId, limit));
+        } catch (Exception e) {
+            // Registra el error en caso de que falle la operación
+            logger.error("Error al obtener la página de películas después del ID {}: {}", afterId, e.getMessage());
+            throw new RuntimeException("Error al obtener la página de películas", e);
+        }
+    }
+
+    /**
+     * Obtiene una película por su ID. Se lee del primario (ver {@link #findAll}).
+     *
+     * @param id El ID de la película.
+     * @return La película, o vacío si no existe.
+     */
+    @Override
+    public Optional<PeliculaModel> findById(int id) {
+        try {
+            // Llama al repositorio para obtener la película
+            return coalescedFromPrimary("findById", id, () -> iPeliculaRepository.findById(id));
+        } catch (Exception e) {
+            // Registra el error en caso de que falle la operación
+            logger.error("Error al obtener la película con ID {}: {}", id, e.getMessage());
+            throw new RuntimeException("Error al obtener la película", e);
+        }
+    }
+
+    /**
+     * Obtiene la versión actual del catálogo, sin consultar la base de datos.
+     *
+     * @return Versión del catálogo e instante de su última escritura.
+     */
+    @Override
+    public CatalogVersion.Snapshot catalogVersion() {
+        return catalogVersion.current();
+    }
+
+    /**
+     * Busca películas aplicando los filtros en la base de datos.
+     *
+     * @param criteria Filtros, orden y límite de la búsqueda.
+     * @return Lista de objetos PeliculaModel que cumplen los filtros.
+     */
+    @Override
+    public List<PeliculaModel> search(PeliculaSearchCriteria criteria) {
+        try {
+            // Llama al repositorio para ejecutar la búsqueda; la clave es la representación de los filtros
+            return coalesced("search", criteria.toString(), () -> iPeliculaRepository.search(criteria));
+        } catch (Exception e) {
+            // Registra el error en caso de que falle la operación
+            logger.error("Error al buscar películas con {}: {}", criteria, e.getMessage());
+            throw new RuntimeException("Error al buscar películas", e);
+        }
+    }
+
+    /**
+     * Busca películas por palabras del nombre o la descripción usando el índice de texto en memoria.
+     * Solo las películas encontradas se leen del repositorio, en una única consulta por los IDs
+     * que no estén en caché.
+     *
+     * @param query Texto de la consulta.
+     * @param limit Número máximo de resultados.
+     * @return Lista de películas ordenadas de mayor a menor relevancia.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PeliculaModel> searchText(String query, int limit) {
+        try {
+            List<InvertedIndex.Hit> hits = peliculaTextIndex.search(query, limit);
+            List<Integer> ids = hits.stream().map(InvertedIndex.Hit::id).toList();
+            Map<Integer, PeliculaModel> peliculas = iPeliculaRepository.findByIds(ids);
+
+            // Conserva el orden del ranking; las películas ya eliminadas se omiten
+            List<PeliculaModel> result = new ArrayList<>(ids.size());
+            for (Integer id : ids) {
+                PeliculaModel pelicula = peliculas.get(id);
+                if (pelicula != null) {
+                    result.add(pelicula);
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            // Registra el error en caso de que falle la operación
+            logger.error("Error al buscar películas por texto '{}': {}", query, e.getMessage());
+            throw new RuntimeException("Error al buscar películas por texto", e);
+        }
+    }
+
+    /**
+     * Recorre todas las películas entregándolas una a una al consumidor.
+     *
+     * @param consumer Función que recibe cada película leída.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<PeliculaModel> consumer) {
+        try {
+            // Llama al repositorio para recorrer la tabla con un cursor
+            iPeliculaRepository.streamAll(consumer);
+        } catch (Exception e) {
+            // Registra el error en caso de que falle la operación
+            logger.error("Error al recorrer la lista de películas: {}", e.getMessage());
+            throw new RuntimeException("Error al recorrer la lista de películas", e);
+        }
+    }
+
     /**
      * Guarda una nueva película en la base de datos.
      *
@@ -44,8 +278,16 @@ public class PeliculaService implements IPeliculaService {
     @Override
     public int save(PeliculaModel peliculaModel) {
         try {
+            recentWriters.record();
             // Llama al repositorio para guardar la nueva película
-            return iPeliculaRepository.save(peliculaModel);
+            int result = iPeliculaRepository.save(peliculaModel);
+            if (result == 1) {
+                catalogVersion.increment();
+                // El repositorio asigna el ID generado, necesario para indexar la película
+                peliculaTextIndex.index(peliculaModel);
+                peliculaEventPublisher.publish(PeliculaEvent.CREATED, peliculaModel);
+            }
+            return result;
         } catch (Exception e) {
             // Registra el error si la operación falla
             logger.error("Error al guardar la película: {}", e.getMessage());
@@ -53,17 +295,67 @@ public class PeliculaService implements IPeliculaService {
         }
     }
 
+    /**
+     * Guarda varias películas en una sola transacción; el repositorio las envía en lotes JDBC.
+     *
+     * @param peliculas Lista de películas a guardar.
+     * @return Filas afectadas por cada película, en el mismo orden de la lista.
+     */
+    @Override
+    @Transactional
+    public int[] saveAll(List<PeliculaModel> peliculas) {
+        try {
+            recentWriters.record();
+            // Llama al repositorio para guardar todas las películas en lotes
+            int[] result = iPeliculaRepository.saveAll(peliculas);
+            catalogVersion.increment();
+
+            // Los IDs generados no se conocen: el índice incorpora las filas nuevas tras el commit
+            peliculaTextIndex.catchUp();
+            // Tampoco se pueden anunciar por ID: los suscriptores recargan el catálogo
+            peliculaEventPublisher.publish(PeliculaEvent.RESET, null, Map.of());
+            return result;
+        } catch (Exception e) {
+            // Registra el error si la operación falla; la transacción se revierte
+            logger.error("Error al guardar el lote de {} películas: {}", peliculas.size(), e.getMessage());
+            throw new RuntimeException("Error al guardar el lote de películas", e);
+        }
+    }
+
     /**
      * Actualiza los detalles de una película existente en la base de datos.
+     * Con la cola write-behind activa, retorna 1 en cuanto la escritura queda en el journal y la
+     * cola no escribe el estado del alquiler, que solo cambia con updateEstadoAlquiler, checkout y
+     * returnPelicula.
      *
      * @param peliculaModel El modelo de la película con los datos actualizados.
      * @return Número de filas afectadas (1 si la operación fue exitosa, 0 si no se encontró la película).
+     * @throws IllegalArgumentException Si la película no cumple las restricciones de la tabla.
      */
     @Override
     public int update(PeliculaModel peliculaModel) {
+        // Se valida antes de encolar: una fila inválida se rechaza aquí y no al vaciar la cola,
+        // cuando el cliente ya recibió la confirmación
+        String error = PeliculaValidator.validate(peliculaModel);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
         try {
+            recentWriters.record();
+            if (writeBehindQueue.isEnabled() && peliculaModel.getId() != null) {
+                // Se confirma al quedar en el journal; la cola la escribe en la base de datos en el siguiente vaciado
+                writeBehindQueue.enqueue(PendingWrite.update(peliculaModel));
+                return 1;
+            }
+
             // Llama al repositorio para actualizar la película
-            return iPeliculaRepository.update(peliculaModel);
+            int result = iPeliculaRepository.update(peliculaModel);
+            if (result == 1) {
+                catalogVersion.increment();
+                peliculaTextIndex.index(peliculaModel);
+                peliculaEventPublisher.publish(PeliculaEvent.UPDATED, peliculaModel);
+            }
+            return result;
         } catch (Exception e) {
             // Registra el error si la operación falla
             logger.error("Error al actualizar la película: {}", e.getMessage());
@@ -71,6 +363,65 @@ public class PeliculaService implements IPeliculaService {
         }
     }
 
+    /**
+     * Actualiza solo los campos indicados de una película. La sentencia escribe únicamente esas
+     * columnas, así que una corrección del puntaje no reescribe la descripción completa.
+     * Como checkout y returnPelicula, se escribe directamente aunque la cola write-behind esté activa.
+     *
+     * @param id El ID de la película.
+     * @param cambios Los nuevos valores de los campos indicados.
+     * @param fields Nombres de los campos a actualizar, previamente validados.
+     * @return Número de filas afectadas (1 si la operación fue exitosa, 0 si no se encontró la película).
+     */
+    @Override
+    public int patch(int id, PeliculaModel cambios, Set<String> fields) {
+        try {
+            recentWriters.record();
+            int result = iPeliculaRepository.patch(id, cambios, fields);
+            if (result == 1) {
+                catalogVersion.increment();
+                if (fields.contains("nombre") || fields.contains("descripcion")) {
+                    // El índice de texto necesita el nombre y la descripción completos: se relee la fila
+                    iPeliculaRepository.findById(id).ifPresent(peliculaTextIndex::index);
+                }
+                peliculaEventPublisher.publish(PeliculaEvent.UPDATED, id, cambios, fields);
+            }
+            return result;
+        } catch (Exception e) {
+            // Registra el error si la operación falla
+            logger.error("Error al actualizar los campos {} de la película con ID {}: {}", fields, id, e.getMessage());
+            throw new RuntimeException("Error al actualizar la película", e);
+        }
+    }
+
+    /**
+     * Actualiza varias películas en una sola transacción; el repositorio las envía en lotes JDBC.
+     *
+     * @param peliculas Lista de películas con los datos actualizados.
+     * @return Filas afectadas por cada película (0 si no existe), en el mismo orden de la lista.
+     */
+    @Override
+    @Transactional
+    public int[] updateAll(List<PeliculaModel> peliculas) {
+        try {
+            recentWriters.record();
+            // Llama al repositorio para actualizar todas las películas en lotes
+            int[] result = iPeliculaRepository.updateAll(peliculas);
+            catalogVersion.increment();
+            for (int i = 0; i < result.length; i++) {
+                if (result[i] == 1) {
+                    peliculaTextIndex.index(peliculas.get(i));
+                    peliculaEventPublisher.publish(PeliculaEvent.UPDATED, peliculas.get(i));
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            // Registra el error si la operación falla; la transacción se revierte
+            logger.error("Error al actualizar el lote de {} películas: {}", peliculas.size(), e.getMessage());
+            throw new RuntimeException("Error al actualizar el lote de películas", e);
+        }
+    }
+
     /**
      * Elimina una película de la base de datos según su ID.
      *
@@ -80,8 +431,15 @@ public class PeliculaService implements IPeliculaService {
     @Override
     public int deleteById(int id) {
         try {
+            recentWriters.record();
             // Llama al repositorio para eliminar la película por ID
-            return iPeliculaRepository.deleteById(id);
+            int result = iPeliculaRepository.deleteById(id);
+            if (result == 1) {
+                catalogVersion.increment();
+                peliculaTextIndex.remove(id);
+                peliculaEventPublisher.publish(PeliculaEvent.DELETED, (long) id, Map.of());
+            }
+            return result;
         } catch (Exception e) {
             // Registra el error si la operación falla
             logger.error("Error al eliminar la película con ID {}: {}", id, e.getMessage());
@@ -90,18 +448,37 @@ public class PeliculaService implements IPeliculaService {
     }
     /**
      * Actualiza el estado del alquiler de una película.
+     * No pasa por la cola write-behind: el cambio se escribe con compare-and-set y queda en el historial.
      *
      * @param id El ID de la película.
      * @param estadoAlquiler El nuevo estado del alquiler ("Alquilado", "Disponible").
      * @return 1 si la operación fue exitosa, 0 si no se encuentra la película o hay error.
+     * @throws IllegalArgumentException Si el estado no es uno de los permitidos.
      */
     @Override
+    @Transactional
     public int updateEstadoAlquiler(int id, String estadoAlquiler) {
+        String error = PeliculaValidator.validateEstadoAlquiler(estadoAlquiler);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
         try {
-            // Llama al repositorio para actualizar el estado del alquiler
-            int result = iPeliculaRepository.updateEstadoAlquiler(id, estadoAlquiler);
+            recentWriters.record();
+
+            // Se intenta primero la transición desde el otro estado: si se aplica, el estado cambió y
+            // se registra en el historial; si no, se escribe igual que antes (mismo estado o inexistente)
+            String previous = ESTADO_ALQUILADA.equals(estadoAlquiler) ? ESTADO_DISPONIBLE : ESTADO_ALQUILADA;
+            int result;
+            if (iPeliculaRepository.compareAndSetEstadoAlquiler(id, previous, estadoAlquiler) == 1) {
+                iRentalLedgerRepository.record(id, estadoAlquiler, LocalDateTime.now());
+                result = 1;
+            } else {
+                result = iPeliculaRepository.updateEstadoAlquiler(id, estadoAlquiler);
+            }
 
             if (result == 1) {
+                catalogVersion.increment();
+                peliculaEventPublisher.publish(PeliculaEvent.RENTAL, (long) id, Map.of("estadoAlquiler", estadoAlquiler));
                 logger.info("Estado del alquiler actualizado para la película con ID: {}", id);
             } else {
                 logger.warn("No se encontró la película con ID: {}", id);
@@ -114,4 +491,121 @@ public class PeliculaService implements IPeliculaService {
             throw new RuntimeException("Error al actualizar el estado del alquiler", e);
         }
     }
+
+    /**
+     * Alquila una película con una transición condicional de "Disponible" a "Alquilada".
+     *
+     * @param id El ID de la película.
+     * @return OK si se alquiló, CONFLICT si ya estaba alquilada, NOT_FOUND si no existe.
+     */
+    @Override
+    @Transactional
+    public RentalResult checkout(int id) {
+        return transition(id, ESTADO_DISPONIBLE, ESTADO_ALQUILADA);
+    }
+
+    /**
+     * Devuelve una película con una transición condicional de "Alquilada" a "Disponible".
+     *
+     * @param id El ID de la película.
+     * @return OK si se devolvió, CONFLICT si ya estaba disponible, NOT_FOUND si no existe.
+     */
+    @Override
+    @Transactional
+    public RentalResult returnPelicula(int id) {
+        return transition(id, ESTADO_ALQUILADA, ESTADO_DISPONIBLE);
+    }
+
+    /**
+     * Aplica una transición del estado de alquiler con compare-and-set en SQL y la registra en el
+     * historial en la misma transacción. Solo cuando la transición no se aplica se consulta la
+     * película, para distinguir un conflicto de una película inexistente.
+     */
+    private RentalResult transition(int id, String expected, String estadoAlquiler) {
+        try {
+            recentWriters.record();
+            if (iPeliculaRepository.compareAndSetEstadoAlquiler(id, expected, estadoAlquiler) == 1) {
+                iRentalLedgerRepository.record(id, estadoAlquiler, LocalDateTime.now());
+                catalogVersion.increment();
+                peliculaEventPublisher.publish(PeliculaEvent.RENTAL, (long) id, Map.of("estadoAlquiler", estadoAlquiler));
+                logger.info("Película con ID {} pasó de {} a {}", id, expected, estadoAlquiler);
+                return RentalResult.OK;
+            }
+            if (iPeliculaRepository.findById(id).isEmpty()) {
+                logger.warn("No se encontró la película con ID: {}", id);
+                return RentalResult.NOT_FOUND;
+            }
+            return RentalResult.CONFLICT;
+        } catch (Exception e) {
+            // Registra el error si la operación falla
+            logger.error("Error al cambiar el estado del alquiler de la película con ID {}: {}", id, e.getMessage());
+            throw new RuntimeException("Error al cambiar el estado del alquiler", e);
+        }
+    }
+
+    /**
+     * Comprime con gzip al nivel máximo: el costo se paga una vez por versión del catálogo.
+     */
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream out = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Ejecuta una lectura agrupando las solicitudes idénticas simultáneas en una sola consulta
+     * ({@link SingleFlight}). Solo la consulta que se ejecuta abre la transacción de solo lectura
+     * (réplica, si está configurada): las solicitudes agrupadas esperan sin ocupar una conexión.
+     * La versión del catálogo forma parte de la clave, de modo que una lectura que empieza después
+     * de una escritura no recibe el resultado de una consulta anterior a ella. Dentro de una
+     * transacción se consulta directamente, para ver sus propios cambios.
+     *
+     * La consulta se enruta con la identidad de quien la ejecuta: un cliente que escribió hace poco
+     * ({@link RecentWriters}) lee del primario y no se agrupa, porque recibiría el resultado de otro
+     * cliente leído de la réplica, sin su propia escritura.
+     *
+     * @param operation Nombre de la operación.
+     * @param argument Argumentos que identifican la consulta.
+     * @param query Consulta al repositorio.
+     * @return Resultado de la consulta.
+     */
+    private <T> T coalesced(String operation, Object argument, Supplier<T> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        if (recentWriters.isCurrentClientSticky()) {
+            return readOnly(query);
+        }
+        return singleFlight.execute(operation, List.of(catalogVersion.current().version(), argument), () -> readOnly(query));
+    }
+
+    /**
+     * Ejecuta una lectura del primario agrupando las solicitudes idénticas simultáneas, como
+     * {@link #coalesced}, para las lecturas cuya respuesta lleva el ETag de la versión del catálogo.
+     * Todos los clientes leen del primario, así que también se agrupan los que escribieron hace poco.
+     *
+     * @param operation Nombre de la operación.
+     * @param argument Argumentos que identifican la consulta.
+     * @param query Consulta al repositorio.
+     * @return Resultado de la consulta.
+     */
+    private <T> T coalescedFromPrimary(String operation, Object argument, Supplier<T> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        // Sin transacción de solo lectura, ReplicaRoutingDataSource usa el primario
+        return singleFlight.execute(operation, List.of(catalogVersion.current().version(), argument), query);
+    }
+
+    private <T> T readOnly(Supplier<T> query) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> query.get());
+    }
 }
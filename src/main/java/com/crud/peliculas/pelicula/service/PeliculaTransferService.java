@@ -0,0 +1,191 @@
+package com.crud.peliculas.pelicula.service;
+
+import com.crud.peliculas.pelicula.model.ImportResult;
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.validation.PeliculaValidator;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Profile("!reactive")
+public class PeliculaTransferService implements IPeliculaTransferService {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(PeliculaTransferService.class);
+
+    // Columnas del formato CSV, en el orden de la tabla Peliculas
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("nombre")
+            .addColumn("descripcion")
+            .addColumn("cubierta")
+            .addColumn("puntaje")
+            .addColumn("estado")
+            .addColumn("estadoAlquiler")
+            .addColumn("fechaCreacion")
+            .addColumn("fechaModificacion")
+            .build()
+            .withHeader();
+
+    // Mapper CSV; las fechas se escriben en formato ISO como en las respuestas JSON
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .build();
+
+    @Autowired
+    private IPeliculaService iPeliculaService;
+
+    // Serializador JSON configurado por Spring Boot
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Número de filas válidas que se acumulan antes de guardarlas en un lote
+    @Value("${pelicula.import.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Escribe el catálogo fila por fila desde el cursor de la base de datos.
+     *
+     * @param outputStream Flujo de salida donde se escribe el catálogo.
+     * @param format Formato de salida (NDJSON o CSV).
+     */
+    @Override
+    public void exportAll(OutputStream outputStream, TransferFormat format) {
+        try (SequenceWriter sequenceWriter = writer(format).writeValues(outputStream)) {
+            iPeliculaService.streamAll(pelicula -> {
+                try {
+                    sequenceWriter.write(pelicula);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            // Registra el error si la operación falla
+            logger.error("Error al exportar el catálogo de películas: {}", e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Importa el catálogo leyendo una fila a la vez. Las filas válidas se guardan en lotes de
+     * {@code chunkSize}, cada uno en su propia transacción, y la lectura del siguiente lote no
+     * empieza hasta que el anterior se ha guardado: si la base de datos es más lenta que el
+     * cliente, la conexión deja de leerse y TCP frena al emisor.
+     * Una fila con tipos inválidos se rechaza y la lectura continúa; un error de sintaxis
+     * detiene la importación, conservando los lotes ya guardados.
+     *
+     * @param inputStream Flujo de entrada con las películas.
+     * @param format Formato de entrada (NDJSON o CSV).
+     * @return Resumen de filas leídas, importadas y rechazadas.
+     */
+    @Override
+    public ImportResult importAll(InputStream inputStream, TransferFormat format) {
+        ImportResult result = new ImportResult();
+        List<PeliculaModel> chunk = new ArrayList<>(chunkSize);
+
+        try (MappingIterator<PeliculaModel> iterator = reader(format).readValues(inputStream)) {
+            while (iterator.hasNextValue()) {
+                long row = result.getRead() + 1;
+                PeliculaModel pelicula;
+                try {
+                    pelicula = iterator.nextValue();
+                } catch (DatabindException e) {
+                    // La fila tiene valores con tipos inválidos: se rechaza y se sigue con la siguiente
+                    result.setRead(row);
+                    reject(result, row, e.getOriginalMessage());
+                    continue;
+                }
+                result.setRead(row);
+
+                String error = PeliculaValidator.validate(pelicula);
+                if (error != null) {
+                    reject(result, row, error);
+                    continue;
+                }
+
+                // El ID y las fechas los asigna la base de datos
+                pelicula.setId(null);
+                chunk.add(pelicula);
+                if (chunk.size() == chunkSize && !flush(chunk, result)) {
+                    return result;
+                }
+            }
+            result.setCompleted(flush(chunk, result));
+        } catch (IOException e) {
+            // Error de sintaxis o de lectura: se guardan las filas válidas pendientes y se detiene
+            logger.warn("Importación detenida en la fila {}: {}", result.getRead() + 1, e.getMessage());
+            result.addError("Fila " + (result.getRead() + 1) + ": " + e.getMessage());
+            flush(chunk, result);
+        }
+        return result;
+    }
+
+    /**
+     * Guarda el lote acumulado y lo vacía.
+     *
+     * @return true si el lote se guardó; false si falló y la importación debe detenerse.
+     */
+    private boolean flush(List<PeliculaModel> chunk, ImportResult result) {
+        if (chunk.isEmpty()) {
+            return true;
+        }
+        try {
+            int[] rows = iPeliculaService.saveAll(chunk);
+            for (int count : rows) {
+                result.setImported(result.getImported() + count);
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error("Error al guardar un lote de {} películas importadas: {}", chunk.size(), e.getMessage());
+            result.addError("Error al guardar un lote de " + chunk.size() + " películas: " + e.getMessage());
+            return false;
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    private static void reject(ImportResult result, long row, String error) {
+        result.setRejected(result.getRejected() + 1);
+        result.addError("Fila " + row + ": " + error);
+    }
+
+    private ObjectWriter writer(TransferFormat format) {
+        return switch (format) {
+            case NDJSON -> objectMapper.writerFor(PeliculaModel.class).withRootValueSeparator("\n");
+            case CSV -> CSV_MAPPER.writerFor(PeliculaModel.class).with(CSV_SCHEMA);
+        };
+    }
+
+    private ObjectReader reader(TransferFormat format) {
+        return switch (format) {
+            case NDJSON -> objectMapper.readerFor(PeliculaModel.class);
+            case CSV -> CSV_MAPPER.readerFor(PeliculaModel.class).with(CsvSchema.emptySchema().withHeader());
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.crud.peliculas.pelicula.service;
+
+import java.time.Instant;
+
+/**
+ * Catálogo completo ya serializado a JSON para una versión del catálogo, sin comprimir y
+ * comprimido con gzip. Se construye una vez por versión y se escribe tal cual en cada
+ * respuesta de /list, sin volver a ejecutar Jackson ni el compresor.
+ *
+ * @param etag ETag de la versión del catálogo que representa.
+ * @param lastModified Last-Modified de la respuesta.
+ * @param json Arreglo JSON de películas, sin comprimir.
+ * @param gzip El mismo arreglo JSON comprimido con gzip.
+ */
+public record RenderedCatalog(String etag, Instant lastModified, byte[] json, byte[] gzip) {
+}
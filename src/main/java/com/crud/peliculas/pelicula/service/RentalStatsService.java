@@ -0,0 +1,62 @@
+package com.crud.peliculas.pelicula.service;
+
+import com.crud.peliculas.pelicula.model.RentalStat;
+import com.crud.peliculas.pelicula.model.TopPelicula;
+import com.crud.peliculas.pelicula.repository.IRentalLedgerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Servicio de estadísticas de alquileres. Lee los agregados por hora y por día que
+ * RentalLedgerRepository mantiene con cada cambio, nunca el historial completo; como las demás
+ * lecturas, se envía a la réplica si está configurada.
+ */
+@Service
+@Profile("!reactive")
+public class RentalStatsService implements IRentalStatsService {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(RentalStatsService.class);
+
+    // Granularidades admitidas en /stats/rentals
+    public static final String HOUR = "hour";
+    public static final String DAY = "day";
+
+    @Autowired
+    private IRentalLedgerRepository iRentalLedgerRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RentalStat> rentals(Integer peliculaId, String granularity, LocalDate from, LocalDate to) {
+        try {
+            // El rango de la consulta termina al inicio del día siguiente al último
+            if (HOUR.equals(granularity)) {
+                return iRentalLedgerRepository.hourly(peliculaId, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+            }
+            return iRentalLedgerRepository.daily(peliculaId, from, to.plusDays(1));
+        } catch (Exception e) {
+            // Registra el error en caso de que falle la operación
+            logger.error("Error al obtener las estadísticas de alquileres entre {} y {}: {}", from, to, e.getMessage());
+            throw new RuntimeException("Error al obtener las estadísticas de alquileres", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TopPelicula> top(LocalDate from, LocalDate to, int limit) {
+        try {
+            return iRentalLedgerRepository.top(from, to.plusDays(1), limit);
+        } catch (Exception e) {
+            // Registra el error en caso de que falle la operación
+            logger.error("Error al obtener las películas más alquiladas entre {} y {}: {}", from, to, e.getMessage());
+            throw new RuntimeException("Error al obtener las películas más alquiladas", e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.crud.peliculas.pelicula.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa lecturas idénticas simultáneas (single-flight): la primera solicitud de una clave ejecuta
+ * la consulta en su propio hilo y las que llegan mientras está en curso esperan y reciben el mismo
+ * resultado, o la misma excepción. Al terminar, la clave se libera y la siguiente solicitud vuelve
+ * a consultar; no es una caché.
+ *
+ * Métricas: {@code pelicula.singleflight.executions} (consultas ejecutadas) y
+ * {@code pelicula.singleflight.coalesced} (solicitudes que reutilizaron una consulta en curso),
+ * etiquetadas por operación.
+ */
+@Component
+@Profile("!reactive")
+public class SingleFlight {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Consultas en curso por clave
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    // Contadores por operación: [ejecutadas, agrupadas]
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+    private record Key(String operation, Object argument) {
+    }
+
+    /**
+     * Ejecuta la consulta, o espera la que ya está en curso con la misma operación y argumento.
+     *
+     * @param operation Nombre de la operación, usado también como etiqueta de las métricas.
+     * @param argument Argumentos de la consulta; dos solicitudes se agrupan si son iguales (equals).
+     * @param loader Consulta a ejecutar.
+     * @return Resultado de la consulta, compartido entre las solicitudes agrupadas.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String operation, Object argument, Supplier<V> loader) {
+        Key key = new Key(operation, argument);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        Counter[] operationCounters = counters.computeIfAbsent(operation, this::register);
+
+        if (running != null) {
+            operationCounters[1].increment();
+            return (V) await(running);
+        }
+
+        operationCounters[0].increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrumpido mientras esperaba una consulta en curso", e);
+        } catch (ExecutionException e) {
+            // La excepción de la consulta se propaga tal cual a todas las solicitudes agrupadas
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private Counter[] register(String operation) {
+        return new Counter[]{
+                Counter.builder("pelicula.singleflight.executions")
+                        .description("Consultas ejecutadas por la capa single-flight")
+                        .tag("operation", operation)
+                        .register(meterRegistry),
+                Counter.builder("pelicula.singleflight.coalesced")
+                        .description("Solicitudes que reutilizaron una consulta idéntica en curso")
+                        .tag("operation", operation)
+                        .register(meterRegistry)
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.crud.peliculas.pelicula.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos soportados para exportar e importar el catálogo completo.
+ */
+public enum TransferFormat {
+
+    // Un objeto JSON por línea
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+
+    // Valores separados por comas con encabezado
+    CSV(MediaType.parseMediaType("text/csv"));
+
+    private final MediaType mediaType;
+
+    TransferFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Obtiene el formato a partir de su nombre (sin distinguir mayúsculas).
+     *
+     * @param name Nombre del formato, por ejemplo "ndjson" o "csv".
+     * @return El formato correspondiente.
+     * @throws IllegalArgumentException Si el formato no es soportado.
+     */
+    public static TransferFormat fromName(String name) {
+        for (TransferFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Formato no soportado: " + name);
+    }
+
+    /**
+     * Obtiene el formato que corresponde a un Content-Type.
+     *
+     * @param mediaType Content-Type de la solicitud.
+     * @return El formato correspondiente.
+     * @throws IllegalArgumentException Si el tipo de contenido no es soportado.
+     */
+    public static TransferFormat fromMediaType(MediaType mediaType) {
+        for (TransferFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Tipo de contenido no soportado: " + mediaType);
+    }
+}
@@ -0,0 +1,152 @@
+package com.crud.peliculas.pelicula.validation;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Validaciones de PeliculaModel equivalentes a las restricciones de la tabla Peliculas en scriptDB.
+ * Permite rechazar una fila antes de enviarla a la base de datos, donde haría fallar el lote completo.
+ */
+public final class PeliculaValidator {
+
+    // Valores permitidos por los CHECK de las columnas Estado y Estado_alquiler
+    public static final Set<String> ESTADOS = Set.of("Publicada", "Edicion");
+    public static final Set<String> ESTADOS_ALQUILER = Set.of("Disponible", "Alquilada");
+
+    // Campos que se pueden modificar con PATCH, en el orden de las columnas de la tabla
+    public static final List<String> PATCH_FIELDS = List.of("nombre", "cubierta", "descripcion", "puntaje", "estado", "estadoAlquiler");
+
+    // Campos de columnas NOT NULL: un PATCH no puede enviarlos con null
+    public static final Set<String> NOT_NULL_FIELDS = Set.of("nombre", "estado", "estadoAlquiler");
+
+    // Campos por los que se puede ordenar una búsqueda
+    public static final Set<String> SORT_FIELDS = Set.of("id", "nombre", "puntaje", "fechaCreacion", "fechaModificacion");
+
+    // Número máximo de películas que devuelve una búsqueda
+    public static final int MAX_SEARCH_LIMIT = 1000;
+
+    // Longitud máxima de las columnas VARCHAR(255)
+    private static final int MAX_LENGTH = 255;
+
+    private PeliculaValidator() {
+    }
+
+    /**
+     * Valida una película contra las restricciones del esquema.
+     *
+     * @param pelicula La película a validar.
+     * @return El motivo del rechazo, o null si la película es válida.
+     */
+    public static String validate(PeliculaModel pelicula) {
+        if (pelicula == null) {
+            return "La película está vacía";
+        }
+        return validateFields(pelicula, PATCH_FIELDS);
+    }
+
+    /**
+     * Valida una actualización parcial: solo se revisan los campos enviados por el cliente. Un
+     * campo enviado con null se guarda como NULL, así que se rechaza en las columnas NOT NULL.
+     *
+     * @param cambios Los nuevos valores de los campos enviados.
+     * @param fields Los nombres de los campos enviados, tal como aparecen en el JSON.
+     * @return El motivo del rechazo, o null si la actualización es válida.
+     */
+    public static String validatePatch(PeliculaModel cambios, Set<String> fields) {
+        if (fields.isEmpty()) {
+            return "No se indicó ningún campo para actualizar";
+        }
+        for (String field : fields) {
+            if (!PATCH_FIELDS.contains(field)) {
+                return "El campo " + field + " no se puede modificar; los campos permitidos son " + PATCH_FIELDS;
+            }
+        }
+        for (String field : PATCH_FIELDS) {
+            if (fields.contains(field) && NOT_NULL_FIELDS.contains(field) && isNull(cambios, field)) {
+                return "El campo " + field + " es obligatorio y no puede ser null";
+            }
+        }
+        return validateFields(cambios, fields);
+    }
+
+    private static boolean isNull(PeliculaModel pelicula, String field) {
+        return switch (field) {
+            case "nombre" -> pelicula.getNombre() == null;
+            case "estado" -> pelicula.getEstado() == null;
+            case "estadoAlquiler" -> pelicula.getEstadoAlquiler() == null;
+            default -> false;
+        };
+    }
+
+    /**
+     * Valida un nuevo estado de alquiler.
+     *
+     * @param estadoAlquiler El estado enviado por el cliente.
+     * @return El motivo del rechazo, o null si el estado es válido.
+     */
+    public static String validateEstadoAlquiler(String estadoAlquiler) {
+        if (estadoAlquiler == null || !ESTADOS_ALQUILER.contains(estadoAlquiler)) {
+            return "El estado de alquiler debe ser uno de " + ESTADOS_ALQUILER;
+        }
+        return null;
+    }
+
+    private static String validateFields(PeliculaModel pelicula, Collection<String> fields) {
+        if (fields.contains("nombre")) {
+            if (pelicula.getNombre() == null || pelicula.getNombre().isBlank()) {
+                return "El nombre es obligatorio";
+            }
+            if (pelicula.getNombre().length() > MAX_LENGTH) {
+                return "El nombre supera los " + MAX_LENGTH + " caracteres";
+            }
+        }
+        if (fields.contains("cubierta") && pelicula.getCubierta() != null && pelicula.getCubierta().length() > MAX_LENGTH) {
+            return "La cubierta supera los " + MAX_LENGTH + " caracteres";
+        }
+        if (fields.contains("puntaje") && pelicula.getPuntaje() != null
+                && (pelicula.getPuntaje() < 0 || pelicula.getPuntaje() > 10)) {
+            return "El puntaje debe estar entre 0 y 10";
+        }
+        // Set.of().contains lanza NullPointerException con null: un estado ausente se rechaza antes
+        if (fields.contains("estado") && (pelicula.getEstado() == null || !ESTADOS.contains(pelicula.getEstado()))) {
+            return "El estado es obligatorio y debe ser uno de " + ESTADOS;
+        }
+        if (fields.contains("estadoAlquiler") && validateEstadoAlquiler(pelicula.getEstadoAlquiler()) != null) {
+            return "El estado de alquiler es obligatorio y debe ser uno de " + ESTADOS_ALQUILER;
+        }
+        return null;
+    }
+
+    /**
+     * Valida los parámetros de una búsqueda antes de convertirlos en SQL.
+     *
+     * @param criteria Los filtros de la búsqueda.
+     * @return El motivo del rechazo, o null si los parámetros son válidos.
+     */
+    public static String validate(PeliculaSearchCriteria criteria) {
+        if (criteria.getEstado() != null && !ESTADOS.contains(criteria.getEstado())) {
+            return "El estado debe ser uno de " + ESTADOS;
+        }
+        if (criteria.getEstadoAlquiler() != null && !ESTADOS_ALQUILER.contains(criteria.getEstadoAlquiler())) {
+            return "El estado de alquiler debe ser uno de " + ESTADOS_ALQUILER;
+        }
+        if (criteria.getPuntajeMin() != null && criteria.getPuntajeMax() != null
+                && criteria.getPuntajeMin() > criteria.getPuntajeMax()) {
+            return "El puntaje mínimo no puede ser mayor que el máximo";
+        }
+        if (!SORT_FIELDS.contains(criteria.getSort())) {
+            return "El orden debe ser uno de " + SORT_FIELDS;
+        }
+        if (!"asc".equalsIgnoreCase(criteria.getDirection()) && !"desc".equalsIgnoreCase(criteria.getDirection())) {
+            return "La dirección debe ser asc o desc";
+        }
+        if (criteria.getLimit() == null || criteria.getLimit() < 1 || criteria.getLimit() > MAX_SEARCH_LIMIT) {
+            return "El límite debe estar entre 1 y " + MAX_SEARCH_LIMIT;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.crud.peliculas.pelicula.writebehind;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+
+/**
+ * Escritura pendiente de una película en la cola write-behind, tal como se guarda en el journal.
+ * Una misma película acumula sus escrituras en un único PendingWrite: la actualización más
+ * reciente reemplaza a las anteriores.
+ *
+ * @param id ID de la película.
+ * @param pelicula Actualización de la película; el estado del alquiler no se escribe desde la cola.
+ */
+public record PendingWrite(int id, PeliculaModel pelicula) {
+
+    public static PendingWrite update(PeliculaModel pelicula) {
+        return new PendingWrite(pelicula.getId().intValue(), pelicula);
+    }
+
+    /**
+     * Combina esta escritura con una posterior de la misma película.
+     *
+     * @param later Escritura posterior.
+     * @return Escritura equivalente a aplicar esta y luego {@code later}.
+     */
+    public PendingWrite merge(PendingWrite later) {
+        // La sentencia de la cola escribe todas las columnas que admite
+        return later;
+    }
+}
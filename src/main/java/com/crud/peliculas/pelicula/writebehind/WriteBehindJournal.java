@@ -0,0 +1,212 @@
+package com.crud.peliculas.pelicula.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Journal de solo anexado de la cola write-behind: una escritura pendiente por línea, en JSON,
+ * repartidas en segmentos {@code journal-<n>.log} dentro de un directorio.
+ *
+ * Cada vaciado de la cola sella el segmento actual y abre uno nuevo; los segmentos sellados se
+ * borran cuando sus escrituras ya están en la base de datos. Al iniciar, los segmentos que
+ * quedaron en el directorio se leen en orden para reconstruir la cola.
+ *
+ * {@link #append} no es seguro para uso concurrente: el llamador lo serializa. {@link #sync} sí
+ * lo es y agrupa los fsync: el primer hilo que llega fuerza a disco todo lo escrito hasta ese
+ * momento y los que esperaban encuentran su registro ya sincronizado.
+ */
+public class WriteBehindJournal implements Closeable {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindJournal.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d+)\\.log");
+
+    private final Path directory;
+
+    private final ObjectMapper objectMapper;
+
+    // Segmentos sellados cuyas escrituras todavía no se confirmaron en la base de datos
+    private final List<Path> sealed = new ArrayList<>();
+
+    private final Object syncLock = new Object();
+
+    private Segment current;
+
+    /**
+     * Posición de un registro dentro de un segmento, usada para esperar su sincronización.
+     */
+    public record Position(Segment segment, long offset) {
+    }
+
+    /**
+     * Abre el journal en el directorio indicado, creándolo si no existe.
+     *
+     * @param directory Directorio de los segmentos.
+     * @param objectMapper Serializador de los registros.
+     */
+    public WriteBehindJournal(Path directory, ObjectMapper objectMapper) throws IOException {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Lee los segmentos que quedaron de una ejecución anterior, los marca como sellados y abre
+     * un segmento nuevo. Una última línea incompleta (por una caída durante la escritura) se
+     * descarta: su escritura nunca se confirmó al cliente.
+     *
+     * @return Las escrituras registradas, en el orden en que se anexaron.
+     */
+    public List<PendingWrite> recover() throws IOException {
+        List<PendingWrite> writes = new ArrayList<>();
+        long last = 0;
+        for (Path segment : existingSegments()) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        writes.add(objectMapper.readValue(line, PendingWrite.class));
+                    } catch (IOException e) {
+                        logger.warn("Registro incompleto descartado en {}: {}", segment.getFileName(), e.getMessage());
+                    }
+                }
+            }
+            sealed.add(segment);
+            last = sequenceOf(segment);
+        }
+        current = new Segment(directory.resolve("journal-" + (last + 1) + ".log"));
+        return writes;
+    }
+
+    /**
+     * Anexa una escritura al segmento actual, sin esperar a que llegue al disco.
+     *
+     * @param write Escritura pendiente.
+     * @return Posición del registro, para {@link #sync}.
+     */
+    public Position append(PendingWrite write) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(write) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            current.channel.write(buffer);
+        }
+        current.written += line.length;
+        return new Position(current, current.written);
+    }
+
+    /**
+     * Espera a que el registro esté en el disco.
+     *
+     * @param position Posición devuelta por {@link #append}.
+     */
+    public void sync(Position position) throws IOException {
+        Segment segment = position.segment();
+        synchronized (syncLock) {
+            if (segment.synced >= position.offset() || !segment.channel.isOpen()) {
+                // Ya sincronizado por otro hilo, o sellado (el sellado también sincroniza)
+                return;
+            }
+            long written = segment.written;
+            segment.channel.force(false);
+            segment.synced = written;
+        }
+    }
+
+    /**
+     * Sella el segmento actual y abre uno nuevo. Las escrituras anexadas desde ahora no
+     * pertenecen al vaciado en curso. El llamador lo serializa con {@link #append}.
+     */
+    public void rotate() throws IOException {
+        synchronized (syncLock) {
+            current.close();
+        }
+        sealed.add(current.path);
+        current = new Segment(directory.resolve("journal-" + (sequenceOf(current.path) + 1) + ".log"));
+    }
+
+    /**
+     * Borra los segmentos sellados, cuando sus escrituras ya están en la base de datos.
+     * El llamador lo serializa con {@link #rotate}.
+     */
+    public void deleteSealed() throws IOException {
+        for (Path segment : sealed) {
+            Files.deleteIfExists(segment);
+        }
+        sealed.clear();
+    }
+
+    /**
+     * @return true si hay segmentos sellados sin confirmar.
+     */
+    public boolean hasSealed() {
+        return !sealed.isEmpty();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+
+    private List<Path> existingSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)))
+                    .toList();
+        }
+    }
+
+    private static long sequenceOf(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    /**
+     * Archivo de un segmento con los bytes escritos y los ya sincronizados.
+     */
+    public static final class Segment {
+
+        private final Path path;
+        private final FileChannel channel;
+        private volatile long written;
+        private long synced;
+
+        private Segment(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            this.written = channel.size();
+            this.synced = written;
+        }
+
+        private void close() throws IOException {
+            if (channel.isOpen()) {
+                channel.force(false);
+                synced = written;
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.crud.peliculas.pelicula.writebehind;
+
+import com.crud.peliculas.pelicula.config.RecentWriters;
+import com.crud.peliculas.pelicula.model.PeliculaEvent;
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.repository.IPeliculaRepository;
+import com.crud.peliculas.pelicula.search.PeliculaTextIndex;
+import com.crud.peliculas.pelicula.service.CatalogVersion;
+import com.crud.peliculas.pelicula.service.PeliculaEventPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cola write-behind para las actualizaciones de películas (POST /update).
+ *
+ * Con {@code pelicula.write-behind.enabled=true}, PeliculaService confirma estas escrituras en
+ * cuanto quedan en el journal local (sincronizado a disco) en lugar de ejecutar un UPDATE por
+ * solicitud. Las escrituras se agrupan por película, de modo que diez actualizaciones de la
+ * misma película antes de un vaciado producen un solo UPDATE, y cada {@code flush-interval}
+ * se envían a la base de datos en lotes dentro de una transacción. Si el vaciado falla por un
+ * error transitorio (conexión, bloqueo, timeout), las escrituras vuelven a la cola y se
+ * reintentan; si la aplicación se detiene antes, se recuperan del journal al iniciar. Si falla
+ * por otro motivo, el lote se escribe fila por fila y las filas que vuelven a fallar se
+ * descartan ({@link #deadLetters()}) para no bloquear las escrituras siguientes. PeliculaService
+ * valida cada escritura antes de encolarla, así que un descarte indica un conflicto en la base
+ * de datos y no datos inválidos del cliente.
+ *
+ * La cola no escribe Estado_alquiler ({@link #FIELDS}): los cambios de estado del alquiler van
+ * siempre directamente a la base de datos con compare-and-set y quedan en el historial, y una
+ * actualización encolada antes de un alquiler no debe sobrescribirlo al vaciarse.
+ *
+ * Mientras una escritura está en la cola, las lecturas siguen viendo el valor anterior: el
+ * catálogo, el índice de texto y los eventos de /events se actualizan al vaciarla.
+ *
+ * Métricas: {@code pelicula.writebehind.depth} (películas con escrituras pendientes),
+ * {@code pelicula.writebehind.flush} (duración de cada vaciado) y
+ * {@code pelicula.writebehind.flush.errors} (vaciados con escrituras que se reintentarán) y
+ * {@code pelicula.writebehind.dead.letters} (escrituras descartadas).
+ */
+@Component
+@Profile("!reactive")
+public class WriteBehindQueue {
+
+    // Logger para registrar eventos y errores
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    // Campos que escribe la cola: todos los de PATCH_FIELDS salvo el estado del alquiler
+    static final Set<String> FIELDS = Set.of("nombre", "cubierta", "descripcion", "puntaje", "estado");
+
+    // Escrituras descartadas que se conservan para consulta
+    static final int MAX_DEAD_LETTERS = 1000;
+
+    @Autowired
+    private IPeliculaRepository iPeliculaRepository;
+
+    @Autowired
+    private PeliculaTextIndex peliculaTextIndex;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private PeliculaEventPublisher peliculaEventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RecentWriters recentWriters;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Activa la cola; desactivada, las escrituras van directamente a la base de datos
+    @Value("${pelicula.write-behind.enabled:false}")
+    private boolean enabled;
+
+    // Directorio del journal; debe estar en un disco local y persistente
+    @Value("${pelicula.write-behind.directory:write-behind}")
+    private Path directory;
+
+    // Intervalo entre vaciados
+    @Value("${pelicula.write-behind.flush-interval:200ms}")
+    private Duration flushInterval;
+
+    private WriteBehindJournal journal;
+
+    // Escrituras pendientes agrupadas por ID; protegidas por el monitor de esta instancia junto con el journal
+    private Map<Integer, PendingWrite> pending = new LinkedHashMap<>();
+
+    // Serializa los vaciados: un segmento sellado solo se borra después de escribir su lote
+    private final Object flushLock = new Object();
+
+    private ScheduledExecutorService flusher;
+
+    private Timer flushTimer;
+
+    private Counter flushErrors;
+
+    // Escrituras que fallaron también fila por fila; no se reintentan
+    private final Deque<PendingWrite> deadLetters = new ArrayDeque<>();
+
+    private Counter deadLetterCounter;
+
+    /**
+     * Abre el journal, recupera las escrituras que quedaron sin vaciar y programa los vaciados.
+     */
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new WriteBehindJournal(directory, objectMapper);
+        List<PendingWrite> recovered = journal.recover();
+        for (PendingWrite write : recovered) {
+            pending.merge(write.id(), write, PendingWrite::merge);
+        }
+        if (!recovered.isEmpty()) {
+            logger.info("Recuperadas {} escrituras write-behind del journal ({} películas)", recovered.size(), pending.size());
+        }
+
+        Gauge.builder("pelicula.writebehind.depth", this, WriteBehindQueue::depth)
+                .description("Películas con escrituras pendientes en la cola write-behind")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("pelicula.writebehind.flush")
+                .description("Duración de cada vaciado de la cola write-behind")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        flushErrors = Counter.builder("pelicula.writebehind.flush.errors")
+                .description("Vaciados de la cola write-behind que fallaron y se reintentarán")
+                .register(meterRegistry);
+        deadLetterCounter = Counter.builder("pelicula.writebehind.dead.letters")
+                .description("Escrituras write-behind descartadas porque fallaron también al escribirse solas")
+                .register(meterRegistry);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pelicula-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene los vaciados programados y hace un último vaciado; lo que no se pueda escribir
+     * queda en el journal para el siguiente inicio.
+     */
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        journal.close();
+    }
+
+    /**
+     * @return true si las actualizaciones deben pasar por la cola.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Agrega una escritura a la cola. Retorna cuando la escritura está en el disco.
+     *
+     * @param write Escritura a aplicar.
+     */
+    public void enqueue(PendingWrite write) {
+        try {
+            WriteBehindJournal.Position position;
+            synchronized (this) {
+                position = journal.append(write);
+                pending.merge(write.id(), write, PendingWrite::merge);
+            }
+            // Fuera del monitor: las escrituras concurrentes comparten el mismo fsync
+            journal.sync(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo registrar la escritura en el journal", e);
+        }
+    }
+
+    /**
+     * @return Número de películas con escrituras pendientes.
+     */
+    public synchronized int depth() {
+        return pending.size();
+    }
+
+    /**
+     * Envía las escrituras pendientes a la base de datos en una transacción. Las escrituras que
+     * llegan durante el vaciado van a un segmento nuevo del journal y esperan al siguiente.
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            Map<Integer, PendingWrite> batch;
+            synchronized (this) {
+                if (pending.isEmpty() && !journal.hasSealed()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                journal.rotate();
+            }
+            // Fuera del monitor: las solicitudes siguen encolando mientras se escribe en la base de datos
+            flushBatch(batch);
+        }
+    }
+
+    private void flushBatch(Map<Integer, PendingWrite> batch) throws IOException {
+        long start = System.nanoTime();
+        List<PendingWrite> requeued = new ArrayList<>();
+        try {
+            try {
+                apply(batch.values());
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    // La base de datos no está disponible: todo el lote se reintenta en el siguiente vaciado
+                    requeued.addAll(batch.values());
+                    logger.error("Error al vaciar la cola write-behind ({} películas): {}", batch.size(), e.getMessage());
+                } else {
+                    // Una fila inválida no debe bloquear al resto: se escribe fila por fila para aislarla
+                    logger.warn("El lote write-behind ({} películas) falló, se escribirá fila por fila: {}", batch.size(), e.getMessage());
+                    for (PendingWrite write : batch.values()) {
+                        try {
+                            apply(List.of(write));
+                        } catch (RuntimeException rowError) {
+                            if (isTransient(rowError)) {
+                                requeued.add(write);
+                            } else {
+                                deadLetter(write, rowError);
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        synchronized (this) {
+            if (requeued.isEmpty()) {
+                journal.deleteSealed();
+                return;
+            }
+            // Las escrituras vuelven a la cola por delante de las que llegaron durante el vaciado;
+            // los segmentos sellados se conservan hasta que se escriban
+            for (PendingWrite write : requeued) {
+                pending.merge(write.id(), write, (newer, older) -> older.merge(newer));
+            }
+        }
+        flushErrors.increment();
+    }
+
+    /**
+     * Escribe un grupo de escrituras en una transacción y, al confirmarse, actualiza el catálogo,
+     * el índice de texto y los eventos.
+     */
+    private void apply(Collection<PendingWrite> writes) {
+        List<PeliculaModel> peliculas = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            peliculas.add(write.pelicula());
+        }
+
+        // Sin solicitud en curso solo se abre la ventana global: ninguna lectura llena las cachés
+        // compartidas desde una réplica hasta que el cambio le llegue
+        recentWriters.record();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int[] updated = iPeliculaRepository.patchAll(peliculas, FIELDS);
+            catalogVersion.increment();
+            for (int i = 0; i < updated.length; i++) {
+                PeliculaModel pelicula = peliculas.get(i);
+                if (updated[i] == 1) {
+                    peliculaTextIndex.index(pelicula);
+                    peliculaEventPublisher.publish(PeliculaEvent.UPDATED, pelicula.getId(), pelicula, FIELDS);
+                } else {
+                    logger.warn("Escritura write-behind descartada: no existe la película con ID {}", pelicula.getId());
+                }
+            }
+        });
+    }
+
+    /**
+     * Errores por los que vale la pena reintentar: conexión, bloqueos y timeouts. El resto
+     * (restricciones, datos inválidos) fallaría igual en el siguiente vaciado.
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof TransactionException;
+    }
+
+    private void deadLetter(PendingWrite write, RuntimeException e) {
+        synchronized (deadLetters) {
+            if (deadLetters.size() == MAX_DEAD_LETTERS) {
+                deadLetters.removeFirst();
+            }
+            deadLetters.addLast(write);
+        }
+        deadLetterCounter.increment();
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(write);
+        } catch (IOException serializationError) {
+            json = String.valueOf(write);
+        }
+        logger.error("Escritura write-behind descartada tras fallar fila por fila: {} ({})", json, e.getMessage());
+    }
+
+    /**
+     * @return Las últimas escrituras descartadas por no poder aplicarse (como máximo
+     *         {@value #MAX_DEAD_LETTERS}), de la más antigua a la más reciente.
+     */
+    public List<PendingWrite> deadLetters() {
+        synchronized (deadLetters) {
+            return List.copyOf(deadLetters);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error al vaciar la cola write-behind: {}", e.getMessage());
+        }
+    }
+}
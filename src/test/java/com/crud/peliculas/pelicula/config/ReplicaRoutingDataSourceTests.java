@@ -0,0 +1,127 @@
+package com.crud.peliculas.pelicula.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTests {
+
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    private RecentWriters recentWriters;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recentWriters = new RecentWriters();
+        ReflectionTestUtils.setField(recentWriters, "replicaUrl", "jdbc:h2:mem:replica");
+        ReflectionTestUtils.setField(recentWriters, "stickyWindow", Duration.ofSeconds(30));
+        ReflectionTestUtils.invokeMethod(recentWriters, "init");
+        // Dos bases H2 independientes: cada una dice su nombre para saber cuál respondió
+        primary = new JdbcTemplate(h2("primario"));
+        replica = new JdbcTemplate(h2("replica"));
+        for (JdbcTemplate database : new JdbcTemplate[]{primary, replica}) {
+            database.execute("CREATE TABLE IF NOT EXISTS Origen (Nombre VARCHAR(20))");
+            database.update("DELETE FROM Origen");
+        }
+        primary.update("INSERT INTO Origen VALUES ('primario')");
+        replica.update("INSERT INTO Origen VALUES ('replica')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndWritesToThePrimary() {
+        DataSource routing = routing(replica.getDataSource());
+
+        assertThat(read(routing)).isEqualTo("replica");
+        assertThat(write(routing)).isEqualTo("primario");
+        assertThat(new JdbcTemplate(routing).queryForObject("SELECT Nombre FROM Origen", String.class)).isEqualTo("primario");
+        assertThat(meterRegistry.get("pelicula.datasource.reads").tag("target", "replica").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void clientReadsItsOwnWritesFromThePrimaryDuringTheStickyWindow() {
+        DataSource routing = routing(replica.getDataSource());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(RecentWriters.CLIENT_ID_HEADER, "cliente-1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        // Una lectura fuera de una transacción de solo lectura usa el primario sin volver escritor al cliente
+        assertThat(new JdbcTemplate(routing).queryForObject("SELECT Nombre FROM Origen", String.class)).isEqualTo("primario");
+        assertThat(read(routing)).isEqualTo("replica");
+
+        // PeliculaService registra la escritura al aceptarla
+        recentWriters.record();
+        write(routing);
+        assertThat(read(routing)).isEqualTo("primario");
+
+        // Otro cliente sigue leyendo de la réplica
+        MockHttpServletRequest other = new MockHttpServletRequest();
+        other.addHeader(RecentWriters.CLIENT_ID_HEADER, "cliente-2");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(other));
+        assertThat(read(routing)).isEqualTo("replica");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheReplicaIsDown() {
+        JdbcDataSource unreachable = new JdbcDataSource();
+        unreachable.setURL("jdbc:h2:mem:replica;IFEXISTS=TRUE;ACCESS_MODE_DATA=x");
+        DataSource routing = routing(unreachable);
+
+        assertThat(read(routing)).isEqualTo("primario");
+        assertThat(read(routing)).isEqualTo("primario");
+        // Después del fallo la réplica no se vuelve a intentar durante retry-after
+        assertThat(meterRegistry.get("pelicula.datasource.replica.fallbacks").counter().count()).isEqualTo(1);
+    }
+
+    private DataSource routing(DataSource replicaDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary.getDataSource(), replicaDataSource,
+                recentWriters, Duration.ofMinutes(1), meterRegistry));
+    }
+
+    private static String read(DataSource dataSource) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT Nombre FROM Origen", String.class));
+    }
+
+    private static String write(DataSource dataSource) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        return transaction.execute(status -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.update("UPDATE Origen SET Nombre = Nombre");
+            return jdbcTemplate.queryForObject("SELECT Nombre FROM Origen", String.class);
+        });
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-routing;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
@@ -0,0 +1,657 @@
+package com.crud.peliculas.pelicula.controller;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.search.PeliculaTextIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PeliculaControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PeliculaTextIndex peliculaTextIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM Peliculas");
+        jdbcTemplate.update("DELETE FROM Alquileres_eventos");
+        jdbcTemplate.update("DELETE FROM Alquileres_por_hora");
+        jdbcTemplate.update("DELETE FROM Alquileres_por_dia");
+        for (int i = 1; i <= 5; i++) {
+            jdbcTemplate.update("INSERT INTO Peliculas (Nombre, Descripcion, Puntaje, Estado, Estado_alquiler) VALUES (?, ?, ?, ?, ?)",
+                    "Pelicula " + i, "Descripcion " + i, i, "Publicada", "Disponible");
+        }
+        peliculaTextIndex.rebuild();
+    }
+
+    @Test
+    void listPaginatesByIdCursor() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/pelicula/list").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(header().exists("X-Next-After"))
+                .andReturn();
+
+        String next = first.getResponse().getHeader("X-Next-After");
+
+        mockMvc.perform(get("/api/v1/pelicula/list").param("after", next).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].nombre").value("Pelicula 4"))
+                .andExpect(header().doesNotExist("X-Next-After"));
+    }
+
+    @Test
+    void listRejectsOutOfRangeLimit() throws Exception {
+        mockMvc.perform(get("/api/v1/pelicula/list").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listStreamWritesEveryRow() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/pelicula/list/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(jsonPath("$[4].nombre").value("Pelicula 5"));
+    }
+
+    @Test
+    void saveBatchInsertsEveryFilmAndReportsEachItem() throws Exception {
+        String body = "[" +
+                "{\"nombre\":\"Lote 1\",\"puntaje\":8,\"estado\":\"Publicada\",\"estadoAlquiler\":\"Disponible\"}," +
+                "{\"nombre\":\"Lote 2\",\"puntaje\":6,\"estado\":\"Edicion\",\"estadoAlquiler\":\"Alquilada\"}" +
+                "]";
+
+        mockMvc.perform(post("/api/v1/pelicula/save/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].success").value(true));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Peliculas WHERE Nombre LIKE 'Lote%' AND Fecha_creacion IS NOT NULL",
+                Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    void saveBatchRollsBackWhenAnItemFails() throws Exception {
+        String body = "[" +
+                "{\"nombre\":\"Valida\",\"puntaje\":8,\"estado\":\"Publicada\",\"estadoAlquiler\":\"Disponible\"}," +
+                "{\"nombre\":\"Invalida\",\"puntaje\":8,\"estado\":\"Desconocido\",\"estadoAlquiler\":\"Disponible\"}" +
+                "]";
+
+        mockMvc.perform(post("/api/v1/pelicula/save/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$[0].success").value(false));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Peliculas", Integer.class)).isEqualTo(5);
+    }
+
+    @Test
+    void updateBatchReportsMissingFilms() throws Exception {
+        Long id = jdbcTemplate.queryForObject("SELECT MIN(Id) FROM Peliculas", Long.class);
+        String body = "[" +
+                "{\"id\":" + id + ",\"nombre\":\"Renombrada\",\"puntaje\":9,\"estado\":\"Publicada\",\"estadoAlquiler\":\"Disponible\"}," +
+                "{\"id\":-1,\"nombre\":\"Inexistente\",\"puntaje\":9,\"estado\":\"Publicada\",\"estadoAlquiler\":\"Disponible\"}" +
+                "]";
+
+        mockMvc.perform(post("/api/v1/pelicula/update/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[1].success").value(false));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT Nombre FROM Peliculas WHERE Id = ?", String.class, id))
+                .isEqualTo("Renombrada");
+    }
+
+    @Test
+    void importCsvSavesValidRowsAndRejectsInvalidOnes() throws Exception {
+        String csv = "nombre,descripcion,puntaje,estado,estadoAlquiler\n" +
+                "Importada 1,\"Con, coma\",7,Publicada,Disponible\n" +
+                "Importada 2,,11,Publicada,Disponible\n" +
+                "Importada 3,,abc,Publicada,Disponible\n" +
+                "Importada 4,,5,Edicion,Alquilada\n";
+
+        mockMvc.perform(post("/api/v1/pelicula/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.completed").value(true));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT Descripcion FROM Peliculas WHERE Nombre = 'Importada 1'", String.class))
+                .isEqualTo("Con, coma");
+    }
+
+    @Test
+    void importNdjsonRejectsRowsWithoutEstadoAndKeepsTheRestOfTheChunk() throws Exception {
+        String ndjson = "{\"nombre\":\"Importada 1\",\"puntaje\":7,\"estado\":\"Publicada\",\"estadoAlquiler\":\"Disponible\"}\n" +
+                "{\"nombre\":\"Sin estado\",\"puntaje\":7,\"estadoAlquiler\":\"Disponible\"}\n" +
+                "{\"nombre\":\"Sin estado de alquiler\",\"puntaje\":7,\"estado\":\"Publicada\"}\n" +
+                "{\"nombre\":\"Importada 2\",\"puntaje\":5,\"estado\":\"Edicion\",\"estadoAlquiler\":\"Alquilada\"}\n";
+
+        mockMvc.perform(post("/api/v1/pelicula/import").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0]").value(startsWith("Fila 2: El estado es obligatorio")))
+                .andExpect(jsonPath("$.completed").value(true));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Peliculas WHERE Nombre LIKE 'Importada%'", Integer.class))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void exportNdjsonWritesOneFilmPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/pelicula/export").param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).hasSize(5);
+        assertThat(body.lines().findFirst().orElseThrow()).contains("\"nombre\":\"Pelicula 1\"");
+    }
+
+    @Test
+    void searchFiltersSortsAndLimitsInTheDatabase() throws Exception {
+        jdbcTemplate.update("UPDATE Peliculas SET Estado_alquiler = 'Alquilada' WHERE Nombre IN ('Pelicula 2', 'Pelicula 4')");
+
+        mockMvc.perform(get("/api/v1/pelicula/search")
+                        .param("estadoAlquiler", "Disponible")
+                        .param("puntajeMin", "2")
+                        .param("sort", "puntaje")
+                        .param("direction", "desc")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].nombre").value("Pelicula 5"))
+                .andExpect(jsonPath("$[1].nombre").value("Pelicula 3"));
+
+        mockMvc.perform(get("/api/v1/pelicula/search").param("nombre", "cula 1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        mockMvc.perform(get("/api/v1/pelicula/search").param("nombre", "%"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void searchRejectsUnknownSortField() throws Exception {
+        mockMvc.perform(get("/api/v1/pelicula/search").param("sort", "Descripcion; DROP TABLE Peliculas"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchTextFindsFilmsSavedThroughTheApi() throws Exception {
+        String body = "{\"nombre\":\"El Señor de los Anillos\",\"descripcion\":\"Una aventura épica\"," +
+                "\"puntaje\":9,\"estado\":\"Publicada\",\"estadoAlquiler\":\"Disponible\"}";
+        mockMvc.perform(post("/api/v1/pelicula/save").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/pelicula/search/text").param("q", "senor EPICA"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].nombre").value("El Señor de los Anillos"));
+
+        mockMvc.perform(get("/api/v1/pelicula/search/text").param("q", "descripcion").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void concurrentCheckoutsLetExactlyOneClientWin() throws Exception {
+        Long id = jdbcTemplate.queryForObject("SELECT MIN(Id) FROM Peliculas", Long.class);
+        int clients = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(put("/api/v1/pelicula/checkout/" + id)).andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> status : statuses) {
+                results.add(status.get(30, TimeUnit.SECONDS));
+            }
+            assertThat(results).containsOnly(200, 409);
+            assertThat(results).filteredOn(status -> status == 200).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        mockMvc.perform(put("/api/v1/pelicula/return/" + id)).andExpect(status().isOk());
+        mockMvc.perform(put("/api/v1/pelicula/return/" + id)).andExpect(status().isConflict());
+        mockMvc.perform(put("/api/v1/pelicula/checkout/-1")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rentalStatsAreServedFromRollupsOfEveryStateChange() throws Exception {
+        Long first = jdbcTemplate.queryForObject("SELECT MIN(Id) FROM Peliculas", Long.class);
+        Long second = first + 1;
+
+        mockMvc.perform(put("/api/v1/pelicula/checkout/" + first)).andExpect(status().isOk());
+        mockMvc.perform(put("/api/v1/pelicula/return/" + first)).andExpect(status().isOk());
+        mockMvc.perform(put("/api/v1/pelicula/checkout/" + first)).andExpect(status().isOk());
+        mockMvc.perform(put("/api/v1/pelicula/checkout/" + second)).andExpect(status().isOk());
+        // Un conflicto o un estado que no cambia no generan eventos
+        mockMvc.perform(put("/api/v1/pelicula/checkout/" + second)).andExpect(status().isConflict());
+        mockMvc.perform(put("/api/v1/pelicula/updateEstadoAlquiler/" + second)
+                .contentType(MediaType.TEXT_PLAIN).content("Alquilada")).andExpect(status().isOk());
+        mockMvc.perform(put("/api/v1/pelicula/updateEstadoAlquiler/" + second)
+                .contentType(MediaType.TEXT_PLAIN).content("Disponible")).andExpect(status().isOk());
+        // Un estado desconocido se rechaza sin escribir ni registrar nada
+        mockMvc.perform(put("/api/v1/pelicula/updateEstadoAlquiler/" + second)
+                .contentType(MediaType.TEXT_PLAIN).content("Perdida")).andExpect(status().isBadRequest());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Alquileres_eventos", Integer.class)).isEqualTo(5);
+
+        // Los totales se suman en la prueba por si las operaciones cruzaron el cambio de hora o de día
+        long[] all = totals(mockMvc.perform(get("/api/v1/pelicula/stats/rentals"))
+                .andExpect(status().isOk()).andReturn());
+        assertThat(all).containsExactly(3, 2);
+        long[] hourly = totals(mockMvc.perform(get("/api/v1/pelicula/stats/rentals")
+                        .param("granularity", "hour").param("peliculaId", first.toString()))
+                .andExpect(status().isOk()).andReturn());
+        assertThat(hourly).containsExactly(2, 1);
+
+        mockMvc.perform(get("/api/v1/pelicula/stats/top").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(first))
+                .andExpect(jsonPath("$[0].nombre").value("Pelicula 1"))
+                .andExpect(jsonPath("$[0].alquileres").value(2))
+                .andExpect(jsonPath("$[1].id").value(second));
+
+        mockMvc.perform(get("/api/v1/pelicula/stats/rentals").param("granularity", "week"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/pelicula/stats/rentals").param("granularity", "hour")
+                        .param("from", "2026-01-01").param("to", "2026-03-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/pelicula/stats/top").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static long[] totals(MvcResult result) throws Exception {
+        long alquileres = 0;
+        long devoluciones = 0;
+        for (JsonNode period : new ObjectMapper().readTree(result.getResponse().getContentAsByteArray())) {
+            alquileres += period.get("alquileres").asLong();
+            devoluciones += period.get("devoluciones").asLong();
+        }
+        return new long[]{alquileres, devoluciones};
+    }
+
+    @Test
+    void searchRecordsServiceAndRepositoryMetrics() throws Exception {
+        mockMvc.perform(get("/api/v1/pelicula/search").param("puntajeMin", "3"))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("pelicula.repository").tag("operation", "search").timer().count()).isPositive();
+        assertThat(meterRegistry.get("pelicula.repository.rows").tag("operation", "search").summary().max()).isEqualTo(3);
+        assertThat(meterRegistry.get("pelicula.service").tag("method", "search").timer().count()).isPositive();
+    }
+
+    @Test
+    void listAnswersIfNoneMatchWith304UntilTheCatalogChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/pelicula/list"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("\"");
+
+        long reads = meterRegistry.get("pelicula.service").tag("method", "findAllRendered").timer().count();
+        mockMvc.perform(get("/api/v1/pelicula/list").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+        assertThat(meterRegistry.get("pelicula.service").tag("method", "findAllRendered").timer().count()).isEqualTo(reads);
+
+        // Cada representación tiene su propio ETag: el de otra no sirve para un 304
+        String base = etag.substring(0, etag.length() - 1);
+        String gzipEtag = mockMvc.perform(get("/api/v1/pelicula/list").header("Accept-Encoding", "gzip").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(gzipEtag).isEqualTo(base + "-gzip\"");
+        mockMvc.perform(get("/api/v1/pelicula/list").header("Accept-Encoding", "gzip").header("If-None-Match", gzipEtag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/pelicula/list").header("If-None-Match", gzipEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+        for (String[] format : new String[][]{{"application/cbor", "-cbor"}, {"application/x-jackson-smile", "-smile"}}) {
+            MvcResult binary = mockMvc.perform(get("/api/v1/pelicula/list").accept(format[0]).header("If-None-Match", etag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", format[0]))
+                    .andExpect(header().string("ETag", base + format[1] + "\""))
+                    .andReturn();
+            assertThat(String.join(",", binary.getResponse().getHeaders("Vary"))).contains("Accept").contains("Accept-Encoding");
+            mockMvc.perform(get("/api/v1/pelicula/list").accept(format[0]).header("If-None-Match", base + format[1] + "\""))
+                    .andExpect(status().isNotModified());
+        }
+        mockMvc.perform(get("/api/v1/pelicula/list").accept("*/*"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+
+        mockMvc.perform(post("/api/v1/pelicula/save").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Nueva\",\"puntaje\":5,\"estado\":\"Publicada\",\"estadoAlquiler\":\"Disponible\"}"))
+                .andExpect(status().isOk());
+
+        String changed = mockMvc.perform(get("/api/v1/pelicula/list").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(6)))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void getByIdSupportsConditionalRequests() throws Exception {
+        Long id = jdbcTemplate.queryForObject("SELECT MIN(Id) FROM Peliculas", Long.class);
+
+        String etag = mockMvc.perform(get("/api/v1/pelicula/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre").value("Pelicula 1"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/pelicula/" + id).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/pelicula/999999"))
+                .andExpect(status().isNotFound());
+
+        // Cada formato negociado tiene su propio ETag, también en las páginas de /list
+        String base = etag.substring(0, etag.length() - 1);
+        for (String[] format : new String[][]{{"application/cbor", "-cbor"}, {"application/x-jackson-smile", "-smile"}}) {
+            for (String path : new String[]{"/api/v1/pelicula/" + id, "/api/v1/pelicula/list?limit=2"}) {
+                MvcResult binary = mockMvc.perform(get(path).accept(format[0]).header("If-None-Match", etag))
+                        .andExpect(status().isOk())
+                        .andExpect(header().string("Content-Type", format[0]))
+                        .andExpect(header().string("ETag", base + format[1] + "\""))
+                        .andReturn();
+                assertThat(String.join(",", binary.getResponse().getHeaders("Vary"))).contains("Accept").contains("Accept-Encoding");
+                mockMvc.perform(get(path).accept(format[0]).header("If-None-Match", base + format[1] + "\""))
+                        .andExpect(status().isNotModified());
+            }
+        }
+        mockMvc.perform(get("/api/v1/pelicula/list?limit=2").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void patchWritesOnlyTheSentFields() throws Exception {
+        Long id = jdbcTemplate.queryForObject("SELECT MIN(Id) FROM Peliculas", Long.class);
+        jdbcTemplate.update("UPDATE Peliculas SET Cubierta = 'portada.jpg' WHERE Id = ?", id);
+        // Carga la película en la caché para comprobar que el patch la invalida
+        mockMvc.perform(get("/api/v1/pelicula/" + id)).andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/v1/pelicula/" + id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"puntaje\":9,\"cubierta\":null,\"nombre\":\"Amélie\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/pelicula/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre").value("Amélie"))
+                .andExpect(jsonPath("$.puntaje").value(9))
+                .andExpect(jsonPath("$.cubierta").doesNotExist())
+                .andExpect(jsonPath("$.descripcion").value("Descripcion 1"))
+                .andExpect(jsonPath("$.estadoAlquiler").value("Disponible"));
+        mockMvc.perform(get("/api/v1/pelicula/search/text").param("q", "amelie"))
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        // Campos no modificables, valores fuera de las restricciones y películas inexistentes
+        mockMvc.perform(patch("/api/v1/pelicula/" + id).contentType(MediaType.APPLICATION_JSON).content("{\"id\":7}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/v1/pelicula/" + id).contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/v1/pelicula/" + id).contentType(MediaType.APPLICATION_JSON).content("{\"puntaje\":11}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/v1/pelicula/" + id).contentType(MediaType.APPLICATION_JSON).content("{\"puntaje\":\"alto\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/v1/pelicula/" + id).contentType(MediaType.APPLICATION_JSON).content("{\"nombre\":null}"))
+                .andExpect(status().isBadRequest());
+        // Las columnas NOT NULL no aceptan un null explícito
+        mockMvc.perform(patch("/api/v1/pelicula/" + id).contentType(MediaType.APPLICATION_JSON).content("{\"estado\":null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("estado es obligatorio")));
+        mockMvc.perform(patch("/api/v1/pelicula/" + id).contentType(MediaType.APPLICATION_JSON).content("{\"estadoAlquiler\":null}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("estadoAlquiler es obligatorio")));
+        mockMvc.perform(patch("/api/v1/pelicula/999999").contentType(MediaType.APPLICATION_JSON).content("{\"puntaje\":5}"))
+                .andExpect(status().isNotFound());
+        assertThat(jdbcTemplate.queryForObject("SELECT Puntaje FROM Peliculas WHERE Id = ?", Integer.class, id)).isEqualTo(9);
+    }
+
+    @Test
+    void cubiertaIsFetchedOnceAndServedResizedWithCacheHeaders() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "png", png);
+        AtomicInteger originRequests = new AtomicInteger();
+        HttpServer origin = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        origin.createContext("/poster.png", exchange -> {
+            originRequests.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "image/png");
+            exchange.sendResponseHeaders(200, png.size());
+            exchange.getResponseBody().write(png.toByteArray());
+            exchange.close();
+        });
+        origin.start();
+        try {
+            Long id = jdbcTemplate.queryForObject("SELECT MIN(Id) FROM Peliculas", Long.class);
+            jdbcTemplate.update("UPDATE Peliculas SET Cubierta = ? WHERE Id = ?",
+                    "http://127.0.0.1:" + origin.getAddress().getPort() + "/poster.png", id);
+
+            MvcResult original = mockMvc.perform(get("/api/v1/pelicula/" + id + "/cubierta"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", "image/png"))
+                    .andExpect(header().string("Cache-Control", "max-age=86400, public"))
+                    .andExpect(header().exists("ETag"))
+                    .andReturn();
+            assertThat(original.getResponse().getContentAsByteArray()).isEqualTo(png.toByteArray());
+
+            // El ancho pedido se redondea a la variante configurada de 160 px
+            byte[] resized = mockMvc.perform(get("/api/v1/pelicula/" + id + "/cubierta").param("w", "100"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(resized));
+            assertThat(image.getWidth()).isEqualTo(160);
+            assertThat(image.getHeight()).isEqualTo(80);
+
+            // Un ancho mayor que el original devuelve el original
+            mockMvc.perform(get("/api/v1/pelicula/" + id + "/cubierta").param("w", "2000"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", original.getResponse().getHeader("ETag")));
+            mockMvc.perform(get("/api/v1/pelicula/" + id + "/cubierta")
+                            .header("If-None-Match", original.getResponse().getHeader("ETag")))
+                    .andExpect(status().isNotModified());
+            assertThat(originRequests).hasValue(1);
+
+            // Películas sin cubierta y orígenes que no responden con una imagen
+            Long other = jdbcTemplate.queryForObject("SELECT MAX(Id) FROM Peliculas", Long.class);
+            mockMvc.perform(get("/api/v1/pelicula/" + other + "/cubierta"))
+                    .andExpect(status().isNotFound());
+            mockMvc.perform(patch("/api/v1/pelicula/" + other).contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"cubierta\":\"http://127.0.0.1:" + origin.getAddress().getPort() + "/no-existe.png\"}"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/api/v1/pelicula/" + other + "/cubierta"))
+                    .andExpect(status().isBadGateway());
+        } finally {
+            origin.stop(0);
+        }
+    }
+
+    @Test
+    void acceptEncodingWeightsDecideWhetherGzipIsServed() {
+        assertThat(PeliculaController.acceptsGzip(null)).isFalse();
+        assertThat(PeliculaController.acceptsGzip("gzip")).isTrue();
+        assertThat(PeliculaController.acceptsGzip("br, GZIP ; Q=0.5")).isTrue();
+        assertThat(PeliculaController.acceptsGzip("x-gzip;q=1.000")).isTrue();
+        assertThat(PeliculaController.acceptsGzip("*")).isTrue();
+        assertThat(PeliculaController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(PeliculaController.acceptsGzip("gzip;q=0.000")).isFalse();
+        // Una entrada explícita de gzip tiene prioridad sobre *
+        assertThat(PeliculaController.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(PeliculaController.acceptsGzip("*;q=0, gzip;q=0.1")).isTrue();
+        assertThat(PeliculaController.acceptsGzip("*;q=0")).isFalse();
+        assertThat(PeliculaController.acceptsGzip("br, identity")).isFalse();
+        // Pesos inválidos cuentan como 0
+        assertThat(PeliculaController.acceptsGzip("gzip;q=2")).isFalse();
+        assertThat(PeliculaController.acceptsGzip("gzip;q=abc")).isFalse();
+    }
+
+    @Test
+    void listServesPreCompressedCatalogWhenGzipIsAccepted() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/pelicula/list").header("Accept-Encoding", "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+        assertThat(String.join(",", result.getResponse().getHeaders("Vary"))).contains("Accept-Encoding");
+
+        byte[] compressed = result.getResponse().getContentAsByteArray();
+        String json;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(json).startsWith("[").contains("\"nombre\":\"Pelicula 5\"");
+
+        mockMvc.perform(get("/api/v1/pelicula/list").header("Accept-Encoding", "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$", hasSize(5)));
+    }
+
+    @Test
+    void eventsStreamsCommittedChangesAndReplaysFromLastEventId() throws Exception {
+        Long id = jdbcTemplate.queryForObject("SELECT MIN(Id) FROM Peliculas", Long.class);
+        MvcResult subscription = mockMvc.perform(get("/api/v1/pelicula/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(put("/api/v1/pelicula/checkout/" + id))
+                .andExpect(status().isOk());
+
+        String stream = awaitContent(subscription, "event:rental");
+        assertThat(stream).contains("\"id\":" + id).contains("\"estadoAlquiler\":\"Alquilada\"");
+
+        // Un cliente que se reconecta con el evento anterior recibe la devolución que se perdió
+        String sequence = stream.substring(stream.lastIndexOf("id:") + 3, stream.indexOf('\n', stream.lastIndexOf("id:")));
+        mockMvc.perform(put("/api/v1/pelicula/return/" + id))
+                .andExpect(status().isOk());
+        MvcResult reconnection = mockMvc.perform(get("/api/v1/pelicula/events").header("Last-Event-ID", sequence))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(awaitContent(reconnection, "\"estadoAlquiler\":\"Disponible\""))
+                .doesNotContain("Alquilada")
+                .contains("id:" + (Long.parseLong(sequence) + 1));
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+    @Test
+    void binaryFormatsAreNegotiatedForListsItemsAndRequestBodies() throws Exception {
+        ObjectMapper cbor = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+        ObjectMapper smile = SmileMapper.builder().addModule(new JavaTimeModule()).build();
+
+        MvcResult list = mockMvc.perform(get("/api/v1/pelicula/list").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/cbor"))
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        PeliculaModel[] peliculas = cbor.readValue(list.getResponse().getContentAsByteArray(), PeliculaModel[].class);
+        assertThat(peliculas).hasSize(5);
+        assertThat(peliculas[4].getNombre()).isEqualTo("Pelicula 5");
+
+        PeliculaModel nueva = new PeliculaModel();
+        nueva.setNombre("Binaria");
+        nueva.setPuntaje(7);
+        nueva.setEstado("Publicada");
+        nueva.setEstadoAlquiler("Disponible");
+        mockMvc.perform(post("/api/v1/pelicula/save").contentType("application/x-jackson-smile").content(smile.writeValueAsBytes(nueva)))
+                .andExpect(status().isOk());
+
+        Long id = jdbcTemplate.queryForObject("SELECT Id FROM Peliculas WHERE Nombre = 'Binaria'", Long.class);
+        MvcResult item = mockMvc.perform(get("/api/v1/pelicula/" + id).accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(smile.readValue(item.getResponse().getContentAsByteArray(), PeliculaModel.class).getPuntaje()).isEqualTo(7);
+
+        // Sin Accept, la respuesta sigue siendo JSON
+        mockMvc.perform(get("/api/v1/pelicula/list"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(6)));
+    }
+}
@@ -0,0 +1,108 @@
+package com.crud.peliculas.pelicula.controller;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+class PeliculaReactiveControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM Peliculas").then().block();
+        for (int i = 1; i <= 5; i++) {
+            databaseClient.sql("INSERT INTO Peliculas (Nombre, Descripcion, Puntaje, Estado, Estado_alquiler) " +
+                            "VALUES (:nombre, :descripcion, :puntaje, 'Publicada', 'Disponible')")
+                    .bind("nombre", "Pelicula " + i)
+                    .bind("descripcion", "Descripcion " + i)
+                    .bind("puntaje", i)
+                    .then()
+                    .block();
+        }
+    }
+
+    @Test
+    void listPaginatesByIdCursor() {
+        String next = webTestClient.get().uri("/api/v1/pelicula/list?limit=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(3)
+                .returnResult().getResponseHeaders().getFirst("X-Next-After");
+
+        webTestClient.get().uri("/api/v1/pelicula/list?after={after}&limit=3", next)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("X-Next-After")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].nombre").isEqualTo("Pelicula 4");
+    }
+
+    @Test
+    void listStreamWritesNdjson() {
+        List<PeliculaModel> peliculas = webTestClient.get().uri("/api/v1/pelicula/list/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(PeliculaModel.class)
+                .returnResult().getResponseBody();
+
+        assertThat(peliculas).hasSize(5);
+        assertThat(peliculas.get(4).getNombre()).isEqualTo("Pelicula 5");
+        assertThat(peliculas.get(4).getPuntaje()).isEqualTo(5);
+    }
+
+    @Test
+    void searchFiltersInDatabase() {
+        webTestClient.get().uri("/api/v1/pelicula/search?puntajeMin=4&sort=puntaje&direction=desc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].nombre").isEqualTo("Pelicula 5");
+    }
+
+    @Test
+    void saveAssignsGeneratedIdAndCheckoutConflicts() {
+        PeliculaModel pelicula = new PeliculaModel();
+        pelicula.setNombre("Nueva");
+        pelicula.setPuntaje(7);
+        pelicula.setEstado("Publicada");
+        pelicula.setEstadoAlquiler("Disponible");
+
+        webTestClient.post().uri("/api/v1/pelicula/save")
+                .bodyValue(pelicula)
+                .exchange()
+                .expectStatus().isOk();
+
+        Integer id = databaseClient.sql("SELECT Id FROM Peliculas WHERE Nombre = 'Nueva'")
+                .map(row -> row.get("Id", Integer.class))
+                .one()
+                .block();
+
+        webTestClient.put().uri("/api/v1/pelicula/checkout/{id}", id).exchange().expectStatus().isOk();
+        webTestClient.put().uri("/api/v1/pelicula/checkout/{id}", id).exchange().expectStatus().isEqualTo(409);
+        webTestClient.put().uri("/api/v1/pelicula/checkout/{id}", 999999).exchange().expectStatus().isNotFound();
+        webTestClient.delete().uri("/api/v1/pelicula/delete/{id}", id).exchange().expectStatus().isOk();
+    }
+}
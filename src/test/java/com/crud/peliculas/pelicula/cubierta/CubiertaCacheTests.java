@@ -0,0 +1,240 @@
+package com.crud.peliculas.pelicula.cubierta;
+
+import com.crud.peliculas.pelicula.service.SingleFlight;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CubiertaCacheTests {
+
+    private static final int IMAGE_SIZE = 1000;
+
+    @TempDir
+    Path directory;
+
+    private HttpServer origin;
+
+    private final Map<String, AtomicInteger> originRequests = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        origin = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        origin.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            originRequests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+            if (path.equals("/redirect")) {
+                // Redirige al destino indicado en la consulta
+                exchange.getResponseHeaders().add("Location", exchange.getRequestURI().getQuery());
+                exchange.sendResponseHeaders(302, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", path.endsWith(".html") ? "text/html" : "image/png");
+            if (path.equals("/poster.png")) {
+                ByteArrayOutputStream png = new ByteArrayOutputStream();
+                ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "png", png);
+                exchange.sendResponseHeaders(200, png.size());
+                exchange.getResponseBody().write(png.toByteArray());
+            } else {
+                exchange.sendResponseHeaders(200, IMAGE_SIZE);
+                exchange.getResponseBody().write(new byte[IMAGE_SIZE]);
+            }
+            exchange.close();
+        });
+        origin.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        origin.stop(0);
+    }
+
+    @Test
+    void leastRecentlyUsedFilesAreEvictedOverTheSizeLimit() throws Exception {
+        CubiertaCache cache = cache(DataSize.ofBytes(IMAGE_SIZE * 2 + IMAGE_SIZE / 2));
+
+        CubiertaCache.Entry a = cache.get(url("/a.png"), null);
+        cache.get(url("/b.png"), null);
+        cache.get(url("/a.png"), null);
+        cache.get(url("/c.png"), null);
+
+        // b es la menos usada recientemente: se borra y vuelve a descargarse
+        assertThat(a.contentType()).isEqualTo("image/png");
+        assertThat(cache.cachedBytes()).isEqualTo(IMAGE_SIZE * 2);
+        try (var files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+        cache.get(url("/b.png"), null);
+        assertThat(originRequests.get("/a.png")).hasValue(1);
+        assertThat(originRequests.get("/b.png")).hasValue(2);
+    }
+
+    @Test
+    void evictedFilesAreDeletedOnlyAfterTheLastReaderCloses() throws Exception {
+        CubiertaCache cache = cache(DataSize.ofBytes(IMAGE_SIZE * 2 + IMAGE_SIZE / 2));
+        ReflectionTestUtils.setField(cache, "deleteGrace", Duration.ZERO);
+
+        CubiertaCache.Lease a = cache.open(url("/a.png"), null);
+        cache.get(url("/b.png"), null);
+        cache.get(url("/c.png"), null);
+
+        // a salió del índice pero una respuesta la sigue enviando
+        assertThat(cache.cachedBytes()).isEqualTo(IMAGE_SIZE * 2);
+        assertThat(Files.readAllBytes(a.entry().file())).hasSize(IMAGE_SIZE);
+
+        a.close();
+        assertThat(a.entry().file()).doesNotExist();
+        a.close();
+
+        // Al volver a cargarla se escribe en un archivo nuevo
+        CubiertaCache.Entry reloaded = cache.get(url("/a.png"), null);
+        assertThat(reloaded.file()).isNotEqualTo(a.entry().file());
+        assertThat(reloaded.key()).isEqualTo(a.entry().key());
+    }
+
+    @Test
+    void indexIsRebuiltFromTheDirectoryOnStartup() throws Exception {
+        CubiertaCache first = cache(DataSize.ofMegabytes(1));
+        CubiertaCache.Entry entry = first.get(url("/a.png"), null);
+        Files.write(directory.resolve("incompleto.png.tmp"), new byte[10]);
+
+        CubiertaCache restarted = cache(DataSize.ofMegabytes(1));
+        assertThat(restarted.get(url("/a.png"), null)).isEqualTo(entry);
+        assertThat(restarted.cachedBytes()).isEqualTo(IMAGE_SIZE);
+        assertThat(directory.resolve("incompleto.png.tmp")).doesNotExist();
+        assertThat(originRequests.get("/a.png")).hasValue(1);
+    }
+
+    @Test
+    void onlyImagesFromAllowedHttpOriginsAreCached() throws Exception {
+        CubiertaCache cache = cache(DataSize.ofMegabytes(1));
+
+        assertThatThrownBy(() -> cache.get(url("/pagina.html"), null))
+                .hasMessageContaining("no devolvió una imagen");
+        assertThatThrownBy(() -> cache.get("file:///etc/passwd", null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        ReflectionTestUtils.setField(cache, "allowedHosts", Set.of("cdn.example.com"));
+        assertThatThrownBy(() -> cache.get(url("/a.png"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(originRequests).doesNotContainKey("/a.png");
+        assertThat(cache.cachedBytes()).isZero();
+    }
+
+    @Test
+    void originsOutsideTheAllowListOrOnPrivateAddressesAreRejected() throws Exception {
+        CubiertaCache cache = cache(DataSize.ofMegabytes(1));
+
+        // Sin hosts configurados no se permite ninguno
+        ReflectionTestUtils.setField(cache, "allowedHosts", Set.of());
+        assertThatThrownBy(() -> cache.get(url("/a.png"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Un host permitido que resuelve a loopback
+        ReflectionTestUtils.setField(cache, "allowedHosts", Set.of("127.0.0.1", "localhost"));
+        ReflectionTestUtils.setField(cache, "allowPrivateAddresses", false);
+        assertThatThrownBy(() -> cache.get(url("/a.png"), null))
+                .hasMessageContaining("local o privada");
+        assertThat(originRequests).isEmpty();
+
+        assertThat(CubiertaCache.isPrivate(InetAddress.getByName("10.1.2.3"))).isTrue();
+        assertThat(CubiertaCache.isPrivate(InetAddress.getByName("169.254.169.254"))).isTrue();
+        assertThat(CubiertaCache.isPrivate(InetAddress.getByName("100.64.0.1"))).isTrue();
+        assertThat(CubiertaCache.isPrivate(InetAddress.getByName("fd00::1"))).isTrue();
+        assertThat(CubiertaCache.isPrivate(InetAddress.getByName("::ffff:127.0.0.1"))).isTrue();
+        assertThat(CubiertaCache.isPrivate(InetAddress.getByName("93.184.216.34"))).isFalse();
+    }
+
+    @Test
+    void redirectsAreCheckedHopByHop() throws Exception {
+        CubiertaCache cache = cache(DataSize.ofMegabytes(1));
+
+        // Una redirección a otro host permitido se sigue
+        assertThat(cache.get(url("/redirect?" + url("/a.png")), null).contentType()).isEqualTo("image/png");
+        assertThat(originRequests.get("/a.png")).hasValue(1);
+
+        // Una redirección a un host fuera de la lista no se sigue
+        String port = String.valueOf(origin.getAddress().getPort());
+        assertThatThrownBy(() -> cache.get(url("/redirect?http://localhost:" + port + "/b.png"), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(originRequests).doesNotContainKey("/b.png");
+    }
+
+    @Test
+    void imagesOverTheSizeOrPixelLimitsAreRejectedBeforeDecoding() throws Exception {
+        CubiertaCache cache = cache(DataSize.ofMegabytes(1));
+
+        // 400x200 son 80000 píxeles: se rechaza con solo leer la cabecera
+        ReflectionTestUtils.setField(cache, "maxImagePixels", 50_000L);
+        assertThatThrownBy(() -> cache.get(url("/poster.png"), null))
+                .hasMessageContaining("píxeles");
+
+        ReflectionTestUtils.setField(cache, "maxImagePixels", 100_000L);
+        ReflectionTestUtils.setField(cache, "maxImageSize", DataSize.ofBytes(IMAGE_SIZE - 1));
+        assertThatThrownBy(() -> cache.get(url("/a.png"), null))
+                .hasMessageContaining("supera");
+        assertThat(cache.cachedBytes()).isZero();
+
+        ReflectionTestUtils.setField(cache, "maxImageSize", DataSize.ofMegabytes(1));
+        assertThat(cache.get(url("/poster.png"), 160).key()).endsWith("-160");
+    }
+
+    @Test
+    void requestedWidthsAreRoundedUpToConfiguredVariants() throws Exception {
+        CubiertaCache cache = cache(DataSize.ofMegabytes(1));
+
+        assertThat(cache.variantWidth(null)).isZero();
+        assertThat(cache.variantWidth(0)).isZero();
+        assertThat(cache.variantWidth(1)).isEqualTo(160);
+        assertThat(cache.variantWidth(161)).isEqualTo(320);
+        assertThat(cache.variantWidth(5000)).isEqualTo(640);
+    }
+
+    private CubiertaCache cache(DataSize maxCacheSize) throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SingleFlight singleFlight = new SingleFlight();
+        ReflectionTestUtils.setField(singleFlight, "meterRegistry", meterRegistry);
+
+        CubiertaCache cache = new CubiertaCache();
+        ReflectionTestUtils.setField(cache, "singleFlight", singleFlight);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cache, "directory", directory);
+        ReflectionTestUtils.setField(cache, "maxCacheSize", maxCacheSize);
+        ReflectionTestUtils.setField(cache, "maxImageSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(cache, "maxImagePixels", 25_000_000L);
+        ReflectionTestUtils.setField(cache, "widths", new int[]{640, 160, 320});
+        ReflectionTestUtils.setField(cache, "allowedHosts", Set.of("127.0.0.1"));
+        // El origen de las pruebas escucha en loopback
+        ReflectionTestUtils.setField(cache, "allowPrivateAddresses", true);
+        ReflectionTestUtils.setField(cache, "timeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.invokeMethod(cache, "init");
+        return cache;
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + origin.getAddress().getPort() + path;
+    }
+}
@@ -0,0 +1,152 @@
+package com.crud.peliculas.pelicula.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitFilterTests {
+
+    private MeterRegistry meterRegistry;
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "apiKeys", Set.of("cliente-a"));
+        ReflectionTestUtils.setField(filter, "bulkRate", 1.0);
+        ReflectionTestUtils.setField(filter, "bulkBurst", 1);
+        ReflectionTestUtils.setField(filter, "writeRate", 1.0);
+        ReflectionTestUtils.setField(filter, "writeBurst", 2);
+        ReflectionTestUtils.setField(filter, "readRate", 1.0);
+        ReflectionTestUtils.setField(filter, "readBurst", 3);
+        ReflectionTestUtils.setField(filter, "idleEviction", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(filter, "maxInFlight", 100);
+        ReflectionTestUtils.setField(filter, "maxPoolWaiters", 5);
+        ReflectionTestUtils.setField(filter, "shedRetryAfter", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(filter, "pools", pools());
+        ReflectionTestUtils.invokeMethod(filter, "init");
+        filter.onApplicationEvent(null);
+    }
+
+    @Test
+    void tokenBucketAllowsBurstAndRefillsAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+        long now = 0;
+
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isZero();
+        // Balde vacío: el siguiente token llega en 1/10 de segundo
+        assertThat(bucket.tryAcquire(now)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100))).isZero();
+        // Tras un tiempo largo el balde vuelve a estar lleno, sin acumular más que la ráfaga
+        long later = now + TimeUnit.SECONDS.toNanos(10);
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isPositive();
+    }
+
+    @Test
+    void clientsOverTheirLimitGet429WhileOthersAreServed() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(perform(get("/api/v1/pelicula/1", "10.0.0.1")).getStatus()).isEqualTo(200);
+        }
+        MockHttpServletResponse rejected = perform(get("/api/v1/pelicula/1", "10.0.0.1"));
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(rejected.getContentAsString()).contains("Demasiadas solicitudes");
+
+        // Otra IP, la misma IP con clave de API y otro grupo de endpoints tienen su propio balde
+        assertThat(perform(get("/api/v1/pelicula/1", "10.0.0.2")).getStatus()).isEqualTo(200);
+        MockHttpServletRequest withKey = get("/api/v1/pelicula/1", "10.0.0.1");
+        withKey.addHeader(RateLimitFilter.API_KEY_HEADER, "cliente-a");
+        assertThat(perform(withKey).getStatus()).isEqualTo(200);
+        // Una clave no configurada no da un balde nuevo: se limita por la IP
+        MockHttpServletRequest unknownKey = get("/api/v1/pelicula/1", "10.0.0.1");
+        unknownKey.addHeader(RateLimitFilter.API_KEY_HEADER, "inventada-" + System.nanoTime());
+        assertThat(perform(unknownKey).getStatus()).isEqualTo(429);
+        MockHttpServletRequest write = get("/api/v1/pelicula/save", "10.0.0.1");
+        write.setMethod("POST");
+        assertThat(perform(write).getStatus()).isEqualTo(200);
+
+        // El catálogo completo tiene un límite menor que las lecturas paginadas
+        assertThat(perform(get("/api/v1/pelicula/list", "10.0.0.3")).getStatus()).isEqualTo(200);
+        assertThat(perform(get("/api/v1/pelicula/list", "10.0.0.3")).getStatus()).isEqualTo(429);
+        MockHttpServletRequest page = get("/api/v1/pelicula/list", "10.0.0.3");
+        page.setParameter("limit", "10");
+        assertThat(perform(page).getStatus()).isEqualTo(200);
+
+        // Las rutas fuera de la API no se limitan
+        for (int i = 0; i < 5; i++) {
+            assertThat(perform(get("/actuator/health", "10.0.0.1")).getStatus()).isEqualTo(200);
+        }
+        assertThat(meterRegistry.get("pelicula.ratelimit.rejected").tag("group", "bulk").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("pelicula.ratelimit.rejected").tag("group", "read").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void overloadIsShedWith503() throws Exception {
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        ReflectionTestUtils.setField(filter, "hikariPools", List.of(dataSource));
+
+        when(pool.getThreadsAwaitingConnection()).thenReturn(5);
+        MockHttpServletRequest request = get("/api/v1/pelicula/1", "10.0.0.1");
+        request.addHeader("Origin", "http://localhost:3000");
+        MockHttpServletResponse shed = perform(request);
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(shed.getHeader("Access-Control-Allow-Origin")).isEqualTo("*");
+
+        when(pool.getThreadsAwaitingConnection()).thenReturn(0);
+        assertThat(perform(get("/api/v1/pelicula/1", "10.0.0.1")).getStatus()).isEqualTo(200);
+
+        ReflectionTestUtils.setField(filter, "maxInFlight", 0);
+        assertThat(perform(get("/api/v1/pelicula/1", "10.0.0.2")).getStatus()).isEqualTo(503);
+        assertThat(meterRegistry.get("pelicula.ratelimit.rejected").tag("reason", "overload").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("pelicula.ratelimit.in-flight").gauge().value()).isZero();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String uri, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<HikariDataSource> pools() {
+        ObjectProvider<HikariDataSource> provider = mock(ObjectProvider.class);
+        when(provider.orderedStream()).thenAnswer(invocation -> Stream.empty());
+        return provider;
+    }
+}
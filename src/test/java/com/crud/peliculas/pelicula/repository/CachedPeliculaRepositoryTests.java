@@ -0,0 +1,168 @@
+package com.crud.peliculas.pelicula.repository;
+
+import com.crud.peliculas.pelicula.config.RecentWriters;
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachedPeliculaRepositoryTests {
+
+    private IPeliculaRepository delegate;
+
+    private MeterRegistry meterRegistry;
+
+    private CachedPeliculaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(IPeliculaRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new CachedPeliculaRepository();
+        ReflectionTestUtils.setField(repository, "delegate", delegate);
+        ReflectionTestUtils.setField(repository, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(repository, "recentWriters", recentWriters(""));
+        ReflectionTestUtils.setField(repository, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(repository, "maximumSize", 100L);
+        repository.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void findAllIsServedFromCacheUntilAWriteInvalidatesIt() {
+        when(delegate.findAll()).thenReturn(List.of(pelicula(1L)));
+
+        repository.findAll();
+        repository.findAll();
+        verify(delegate, times(1)).findAll();
+
+        repository.updateEstadoAlquiler(1, "Alquilada");
+        repository.findAll();
+        verify(delegate, times(2)).findAll();
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "peliculas.lista").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void findByIdIsInvalidatedByUpdateAndDelete() {
+        when(delegate.findById(1)).thenReturn(Optional.of(pelicula(1L)));
+
+        repository.findById(1);
+        repository.findById(1);
+        verify(delegate, times(1)).findById(1);
+
+        repository.update(pelicula(1L));
+        repository.findById(1);
+        verify(delegate, times(2)).findById(1);
+
+        repository.deleteById(1);
+        repository.findById(1);
+        verify(delegate, times(3)).findById(1);
+    }
+
+    @Test
+    void replicaReadsDoNotFillTheCacheWhileAWriteIsInTheStickyWindow() {
+        RecentWriters recentWriters = recentWriters("jdbc:sqlserver://replica");
+        ReflectionTestUtils.setField(repository, "recentWriters", recentWriters);
+        // Como ReplicaRoutingDataSource: quien escribió lee del primario y los demás de una réplica atrasada
+        when(delegate.findById(1)).thenAnswer(invocation ->
+                Optional.of(pelicula(1L, recentWriters.isCurrentClientSticky() ? "Nuevo" : "Anterior")));
+
+        client("escritor");
+        recentWriters.record();
+        repository.update(pelicula(1L, "Nuevo"));
+
+        client("lector");
+        assertThat(repository.findById(1)).map(PeliculaModel::getNombre).hasValue("Anterior");
+
+        // La lectura de la réplica no quedó en la caché: quien escribió ve su propio cambio
+        client("escritor");
+        assertThat(repository.findById(1)).map(PeliculaModel::getNombre).hasValue("Nuevo");
+        verify(delegate, times(2)).findById(1);
+    }
+
+    @Test
+    void rentalTransitionsInvalidateAgainAfterTheTransactionCompletes() {
+        when(delegate.findById(1)).thenReturn(Optional.of(pelicula(1L)));
+        when(delegate.compareAndSetEstadoAlquiler(1, "Disponible", "Alquilada")).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            repository.compareAndSetEstadoAlquiler(1, "Disponible", "Alquilada");
+            repository.updateEstadoAlquiler(1, "Alquilada");
+            // Una lectura concurrente antes del commit vuelve a cargar el valor anterior
+            repository.findById(1);
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            assertThat(synchronizations).hasSize(2);
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        repository.findById(1);
+        verify(delegate, times(2)).findById(1);
+    }
+
+    @Test
+    void emptyResultsAreNotCached() {
+        when(delegate.findAll()).thenReturn(List.of());
+        when(delegate.findById(7)).thenReturn(Optional.empty());
+
+        repository.findAll();
+        repository.findAll();
+        repository.findById(7);
+        repository.findById(7);
+
+        verify(delegate, times(2)).findAll();
+        verify(delegate, times(2)).findById(7);
+    }
+
+    private static PeliculaModel pelicula(Long id) {
+        return pelicula(id, "Pelicula " + id);
+    }
+
+    private static PeliculaModel pelicula(Long id, String nombre) {
+        PeliculaModel pelicula = new PeliculaModel();
+        pelicula.setId(id);
+        pelicula.setNombre(nombre);
+        return pelicula;
+    }
+
+    private static RecentWriters recentWriters(String replicaUrl) {
+        RecentWriters recentWriters = new RecentWriters();
+        ReflectionTestUtils.setField(recentWriters, "replicaUrl", replicaUrl);
+        ReflectionTestUtils.setField(recentWriters, "stickyWindow", Duration.ofSeconds(30));
+        ReflectionTestUtils.invokeMethod(recentWriters, "init");
+        return recentWriters;
+    }
+
+    private static void client(String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(RecentWriters.CLIENT_ID_HEADER, clientId);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,184 @@
+package com.crud.peliculas.pelicula.repository;
+
+import com.crud.peliculas.pelicula.metrics.PeliculaMetrics;
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedPeliculaRepositoryTests {
+
+    private static final int SHARDS = 3;
+
+    private ShardedPeliculaRepository repository;
+
+    private JdbcTemplate[] shards;
+
+    @BeforeEach
+    void setUp() {
+        // Tres bases H2 independientes con la columna Id de scriptDB-shard: IDENTITY(k + 1, N)
+        MockEnvironment environment = new MockEnvironment();
+        shards = new JdbcTemplate[SHARDS];
+        for (int k = 0; k < SHARDS; k++) {
+            String url = "jdbc:h2:mem:shard" + k + ";MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+            shards[k] = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+            shards[k].execute("DROP TABLE IF EXISTS Peliculas");
+            shards[k].execute("CREATE TABLE Peliculas (Id INT IDENTITY(" + (k + 1) + ", " + SHARDS + ") PRIMARY KEY, " +
+                    "Nombre VARCHAR(255) NOT NULL, Descripcion TEXT, Cubierta VARCHAR(255), Puntaje NUMERIC(2, 1), " +
+                    "Estado VARCHAR(20) NOT NULL, Estado_alquiler VARCHAR(20) NOT NULL, " +
+                    "Fecha_creacion DATETIME DEFAULT GETDATE(), Fecha_modificacion DATETIME DEFAULT GETDATE())");
+            environment.setProperty("pelicula.sharding.shards[" + k + "].url", url);
+            environment.setProperty("pelicula.sharding.shards[" + k + "].username", "sa");
+        }
+        environment.setProperty("pelicula.sharding.hikari.maximum-pool-size", "2");
+
+        PeliculaMetrics peliculaMetrics = new PeliculaMetrics();
+        ReflectionTestUtils.setField(peliculaMetrics, "meterRegistry", new SimpleMeterRegistry());
+        repository = new ShardedPeliculaRepository();
+        ReflectionTestUtils.setField(repository, "environment", environment);
+        ReflectionTestUtils.setField(repository, "peliculaMetrics", peliculaMetrics);
+        ReflectionTestUtils.setField(repository, "timeout", Duration.ofSeconds(5));
+        repository.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    void filmsAreSpreadAcrossShardsWithGloballyUniqueIds() {
+        for (int i = 1; i <= 6; i++) {
+            assertThat(repository.save(pelicula("Pelicula " + i, i))).isEqualTo(1);
+        }
+        assertThat(repository.saveAll(List.of(pelicula("Lote 1", 7), pelicula("Lote 2", 8), pelicula("Lote 3", 9))))
+                .containsExactly(1, 1, 1);
+
+        for (int k = 0; k < SHARDS; k++) {
+            int shard = k;
+            assertThat(shards[k].queryForList("SELECT Id FROM Peliculas", Integer.class))
+                    .hasSize(3)
+                    .allMatch(id -> (id - 1) % SHARDS == shard);
+        }
+
+        List<PeliculaModel> all = repository.findAll();
+        assertThat(all).extracting(PeliculaModel::getId).doesNotHaveDuplicates().isSorted().hasSize(9);
+        long id = all.get(4).getId();
+        assertThat(repository.findById((int) id)).get().extracting(PeliculaModel::getNombre).isEqualTo(all.get(4).getNombre());
+        assertThat(repository.updateEstadoAlquiler((int) id, "Alquilada")).isEqualTo(1);
+        assertThat(repository.deleteById((int) id)).isEqualTo(1);
+        assertThat(repository.findByIds(List.of((int) id, all.get(0).getId().intValue()))).containsOnlyKeys(all.get(0).getId().intValue());
+    }
+
+    @Test
+    void pagesAndSearchesAreMergedAcrossShards() {
+        for (int i = 1; i <= 9; i++) {
+            repository.save(pelicula("Pelicula " + i, 10 - i));
+        }
+
+        List<PeliculaModel> first = repository.findPage(0, 4);
+        List<PeliculaModel> second = repository.findPage(first.get(3).getId(), 4);
+        assertThat(first).extracting(PeliculaModel::getId).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(second).extracting(PeliculaModel::getId).containsExactly(5L, 6L, 7L, 8L);
+
+        PeliculaSearchCriteria criteria = new PeliculaSearchCriteria();
+        criteria.setSort("puntaje");
+        criteria.setDirection("desc");
+        criteria.setLimit(3);
+        assertThat(repository.search(criteria)).extracting(PeliculaModel::getPuntaje).containsExactly(9, 8, 7);
+    }
+
+    @Test
+    void aFailingShardFailsTheBatchWithTheShardIdentified() {
+        shards[1].execute("DROP TABLE Peliculas");
+
+        assertThatThrownBy(() -> repository.saveAll(List.of(pelicula("A", 1), pelicula("B", 2), pelicula("C", 3))))
+                .hasMessageContaining("shard 1");
+        // Los shards sanos siguen atendiendo las consultas por ID
+        repository.save(pelicula("D", 4));
+        assertThat(repository.findById(1)).isPresent();
+    }
+
+    @Test
+    void aFailingShardFailsCatalogReadsInsteadOfReturningAPartialCatalog() {
+        for (int i = 1; i <= 6; i++) {
+            repository.save(pelicula("Pelicula " + i, i));
+        }
+        shards[1].execute("DROP TABLE Peliculas");
+
+        PeliculaSearchCriteria criteria = new PeliculaSearchCriteria();
+        criteria.setLimit(10);
+        assertThatThrownBy(() -> repository.findAll()).hasMessageContaining("shard 1");
+        assertThatThrownBy(() -> repository.findPage(0, 10)).hasMessageContaining("shard 1");
+        assertThatThrownBy(() -> repository.search(criteria)).hasMessageContaining("shard 1");
+        assertThatThrownBy(() -> repository.findByIds(List.of(1, 2, 3))).hasMessageContaining("shard 1");
+    }
+
+    @Test
+    void rentalTransitionIsRevertedOnTheShardWhenThePrimaryTransactionRollsBack() {
+        repository.save(pelicula("A", 1));
+        repository.save(pelicula("B", 2));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(repository.compareAndSetEstadoAlquiler(2, "Disponible", "Alquilada")).isEqualTo(1);
+            assertThat(shards[1].queryForObject("SELECT Estado_alquiler FROM Peliculas WHERE Id = 2", String.class))
+                    .isEqualTo("Alquilada");
+            // El registro del historial en la base principal falló y su transacción se revirtió
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(shards[1].queryForObject("SELECT Estado_alquiler FROM Peliculas WHERE Id = 2", String.class))
+                .isEqualTo("Disponible");
+
+        // Sin transacción en curso la transición queda confirmada
+        assertThat(repository.compareAndSetEstadoAlquiler(1, "Disponible", "Alquilada")).isEqualTo(1);
+        assertThat(repository.findById(1)).get().extracting(PeliculaModel::getEstadoAlquiler).isEqualTo("Alquilada");
+    }
+
+    @Test
+    void rentalTransitionErrorsArePropagatedInsteadOfReportedAsConflicts() {
+        repository.save(pelicula("A", 1));
+        shards[0].execute("DROP TABLE Peliculas");
+
+        assertThatThrownBy(() -> repository.compareAndSetEstadoAlquiler(1, "Disponible", "Alquilada"))
+                .isInstanceOf(DataAccessException.class);
+    }
+
+    @Test
+    void writeBehindCannotBeEnabledWithShards() {
+        ShardedPeliculaRepository withWriteBehind = new ShardedPeliculaRepository();
+        MockEnvironment environment = new MockEnvironment().withProperty("pelicula.write-behind.enabled", "true");
+        ReflectionTestUtils.setField(withWriteBehind, "environment", environment);
+
+        assertThatThrownBy(withWriteBehind::init)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("pelicula.write-behind.enabled");
+    }
+
+    private static PeliculaModel pelicula(String nombre, int puntaje) {
+        PeliculaModel pelicula = new PeliculaModel();
+        pelicula.setNombre(nombre);
+        pelicula.setPuntaje(puntaje);
+        pelicula.setEstado("Publicada");
+        pelicula.setEstadoAlquiler("Disponible");
+        return pelicula;
+    }
+}
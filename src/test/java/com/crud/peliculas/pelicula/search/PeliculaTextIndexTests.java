@@ -0,0 +1,75 @@
+package com.crud.peliculas.pelicula.search;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PeliculaTextIndexTests {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void tokenizeIgnoresCaseAccentsAndStopwords() {
+        assertThat(PeliculaTextIndex.tokenize("La Acción de los Piratas, parte 2"))
+                .containsExactly("accion", "piratas", "parte");
+    }
+
+    @Test
+    void matchesInNombreRankAboveMatchesInDescripcion() {
+        put(1, "Viaje a la luna", "Una historia de piratas");
+        put(2, "Piratas del caribe", "Aventura en el mar");
+        put(3, "El mar", "Drama");
+
+        List<InvertedIndex.Hit> hits = search("piratas");
+
+        assertThat(hits).extracting(InvertedIndex.Hit::id).containsExactly(2, 1);
+    }
+
+    @Test
+    void documentsMatchingMoreTermsRankFirstAndLimitIsApplied() {
+        put(1, "Piratas", "Sin barcos");
+        put(2, "Piratas del mar", "Barcos y tesoros en el mar");
+        put(3, "Tesoros", "Barcos");
+
+        assertThat(search("piratas mar")).extracting(InvertedIndex.Hit::id).first().isEqualTo(2);
+        assertThat(index.search(PeliculaTextIndex.tokenize("barcos"), 2)).hasSize(2);
+    }
+
+    @Test
+    void reindexingAndRemovingUpdatePostings() {
+        put(5, "Titanic", "Un barco");
+        put(5, "Interestelar", "El espacio");
+
+        assertThat(search("titanic")).isEmpty();
+        assertThat(search("espacio")).extracting(InvertedIndex.Hit::id).containsExactly(5);
+
+        index.remove(5);
+        assertThat(search("espacio")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void documentsInsertedOutOfOrderAreFound() {
+        put(30, "Matrix", null);
+        put(10, "Matrix recargado", null);
+        put(20, "Matrix revoluciones", null);
+
+        assertThat(search("matrix")).extracting(InvertedIndex.Hit::id).containsExactlyInAnyOrder(10, 20, 30);
+        assertThat(index.maxId()).isEqualTo(30);
+    }
+
+    private void put(int id, String nombre, String descripcion) {
+        PeliculaModel pelicula = new PeliculaModel();
+        pelicula.setId((long) id);
+        pelicula.setNombre(nombre);
+        pelicula.setDescripcion(descripcion);
+        index.put(id, PeliculaTextIndex.analyze(pelicula));
+    }
+
+    private List<InvertedIndex.Hit> search(String query) {
+        return index.search(PeliculaTextIndex.tokenize(query), 10);
+    }
+}
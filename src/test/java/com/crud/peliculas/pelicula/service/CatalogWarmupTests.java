@@ -0,0 +1,100 @@
+package com.crud.peliculas.pelicula.service;
+
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.model.PeliculaSearchCriteria;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CatalogWarmupTests {
+
+    private IPeliculaService service;
+
+    private DataSource dataSource;
+
+    private MeterRegistry meterRegistry;
+
+    private CatalogWarmup warmup;
+
+    @BeforeEach
+    void setUp() {
+        service = mock(IPeliculaService.class);
+        dataSource = mock(DataSource.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        warmup = new CatalogWarmup();
+        ReflectionTestUtils.setField(warmup, "iPeliculaService", service);
+        ReflectionTestUtils.setField(warmup, "dataSource", dataSource);
+        ReflectionTestUtils.setField(warmup, "applicationContext", mock(ApplicationContext.class));
+        ReflectionTestUtils.setField(warmup, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(warmup, "enabled", true);
+        ReflectionTestUtils.setField(warmup, "connections", 3);
+        ReflectionTestUtils.setField(warmup, "requests", 1);
+        ReflectionTestUtils.setField(warmup, "requestTimeout", Duration.ofSeconds(1));
+    }
+
+    @Test
+    void opensThePoolConcurrentlyAndLoadsTheCatalog() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        PeliculaModel pelicula = new PeliculaModel();
+        pelicula.setId(7L);
+        when(service.findPage(0, 1)).thenReturn(List.of(pelicula));
+        when(service.findById(7)).thenReturn(Optional.of(pelicula));
+
+        warmup.run(null);
+
+        // Las tres conexiones se piden antes de devolver ninguna, para que el pool las cree todas
+        verify(dataSource, times(3)).getConnection();
+        verify(connection, times(3)).isValid(1);
+        verify(connection, times(3)).close();
+        verify(service).findAllRendered();
+        verify(service).search(any(PeliculaSearchCriteria.class));
+        verify(service).findById(7);
+        assertThat(meterRegistry.get("pelicula.warmup").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failuresAreLoggedWithoutStoppingStartup() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection).thenThrow(new SQLException("timeout"));
+        when(service.findAllRendered()).thenThrow(new RuntimeException("sin base de datos"));
+
+        warmup.run(null);
+
+        // La conexión ya abierta se devuelve al pool aunque falle la siguiente
+        verify(connection).close();
+        verify(service, never()).findById(anyInt());
+        assertThat(meterRegistry.get("pelicula.warmup").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledWarmupDoesNothing() throws Exception {
+        ReflectionTestUtils.setField(warmup, "enabled", false);
+
+        warmup.run(null);
+
+        verifyNoInteractions(dataSource, service);
+        assertThat(meterRegistry.find("pelicula.warmup").timer()).isNull();
+    }
+}
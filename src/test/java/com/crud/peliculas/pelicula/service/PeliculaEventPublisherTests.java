@@ -0,0 +1,143 @@
+package com.crud.peliculas.pelicula.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PeliculaEventPublisherTests {
+
+    private MeterRegistry meterRegistry;
+
+    private PeliculaEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new PeliculaEventPublisher();
+        ReflectionTestUtils.setField(publisher, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(publisher, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(publisher, "bufferSize", 100);
+        ReflectionTestUtils.setField(publisher, "subscriberQueue", 3);
+        ReflectionTestUtils.setField(publisher, "senderThreads", 2);
+        ReflectionTestUtils.setField(publisher, "heartbeat", Duration.ofHours(1));
+        ReflectionTestUtils.setField(publisher, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.invokeMethod(publisher, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(publisher, "shutdown");
+    }
+
+    @Test
+    void slowSubscriberIsDisconnectedWithoutDelayingTheOthers() throws Exception {
+        RecordingEmitter fast = new RecordingEmitter(null);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        publisher.subscribe(fast, null);
+        publisher.subscribe(slow, null);
+        await(() -> meterRegistry.get("pelicula.events.subscribers").gauge().value() == 2);
+
+        // El suscriptor lento se queda en el primer envío: su cola de 3 se llena y se desconecta
+        for (int i = 1; i <= 6; i++) {
+            publisher.publish("rental", (long) i, Map.of("estadoAlquiler", "Alquilada"));
+            int sent = i;
+            await(() -> fast.sent.size() == sent);
+        }
+
+        await(() -> meterRegistry.get("pelicula.events.dropped").counter().count() == 1);
+        assertThat(meterRegistry.get("pelicula.events.subscribers").gauge().value()).isEqualTo(1);
+        assertThat(fast.completed).isFalse();
+        assertThat(slow.completed).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    void reconnectionReplaysMissedEventsInOrder() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            publisher.publish("rental", (long) i, Map.of("estadoAlquiler", "Alquilada"));
+        }
+        RecordingEmitter reconnected = new RecordingEmitter(null);
+        publisher.subscribe(reconnected, 1L);
+        publisher.publish("rental", 4L, Map.of("estadoAlquiler", "Disponible"));
+
+        await(() -> reconnected.sent.size() == 3);
+        assertThat(reconnected.sent).allMatch(event -> event.contains("event:rental"));
+        assertThat(reconnected.sent.get(0)).contains("id:2");
+        assertThat(reconnected.sent.get(2)).contains("id:4");
+
+        // Más eventos perdidos de los que caben en la cola: se pide recargar el catálogo
+        RecordingEmitter behind = new RecordingEmitter(null);
+        publisher.subscribe(behind, 0L);
+        await(() -> behind.sent.size() == 1);
+        assertThat(behind.sent.get(0)).contains("event:reset");
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    /**
+     * Conexión que guarda el texto de cada evento enviado; con {@code block}, el primer envío
+     * espera hasta que se libera, como un cliente que no lee.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch block;
+
+        private volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch block) {
+            this.block = block;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (block != null) {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completed = true;
+            super.completeWithError(ex);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.crud.peliculas.pelicula.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+    private static final int CALLERS = 8;
+
+    private MeterRegistry meterRegistry;
+
+    private SingleFlight singleFlight;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight();
+        ReflectionTestUtils.setField(singleFlight, "meterRegistry", meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalReadsShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<List<String>>> results = callConcurrently("findAll", () -> {
+            executions.incrementAndGet();
+            await(release);
+            return List.of("Pelicula");
+        });
+
+        waitForCoalesced("findAll", CALLERS - 1);
+        release.countDown();
+
+        List<String> first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<List<String>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(meterRegistry.get("pelicula.singleflight.executions").tag("operation", "findAll").counter().count())
+                .isEqualTo(1);
+
+        // Terminada la consulta, la clave se libera y la siguiente solicitud vuelve a consultar
+        singleFlight.execute("findAll", 1, () -> {
+            executions.incrementAndGet();
+            return List.of();
+        });
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void failuresArePropagatedToEveryCoalescedCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<List<String>>> results = callConcurrently("search", () -> {
+            await(release);
+            throw new IllegalStateException("Base de datos no disponible");
+        });
+
+        waitForCoalesced("search", CALLERS - 1);
+        release.countDown();
+
+        for (Future<List<String>> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void differentArgumentsAreNotCoalesced() {
+        assertThat(singleFlight.<Integer>execute("findById", 1, () -> 1)).isEqualTo(1);
+        assertThat(singleFlight.<Integer>execute("findById", 2, () -> 2)).isEqualTo(2);
+        assertThat(meterRegistry.get("pelicula.singleflight.executions").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("pelicula.singleflight.coalesced").counter().count()).isZero();
+    }
+
+    private List<Future<List<String>>> callConcurrently(String operation, Supplier<List<String>> loader) {
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(operation, 1, loader)));
+        }
+        return results;
+    }
+
+    private void waitForCoalesced(String operation, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Counter counter = meterRegistry.find("pelicula.singleflight.coalesced").tag("operation", operation).counter();
+            if (counter != null && counter.count() >= expected) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Las solicitudes no se agruparon");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.crud.peliculas.pelicula.writebehind;
+
+import com.crud.peliculas.pelicula.config.RecentWriters;
+import com.crud.peliculas.pelicula.model.PeliculaModel;
+import com.crud.peliculas.pelicula.repository.IPeliculaRepository;
+import com.crud.peliculas.pelicula.search.PeliculaTextIndex;
+import com.crud.peliculas.pelicula.service.CatalogVersion;
+import com.crud.peliculas.pelicula.service.PeliculaEventPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WriteBehindQueueTests {
+
+    @TempDir
+    private Path directory;
+
+    private IPeliculaRepository repository;
+
+    private MeterRegistry meterRegistry;
+
+    private WriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = mock(IPeliculaRepository.class);
+        when(repository.patchAll(anyList(), any())).thenAnswer(invocation -> new int[((List<?>) invocation.getArgument(0)).size()]);
+        meterRegistry = new SimpleMeterRegistry();
+        queue = newQueue();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ReflectionTestUtils.invokeMethod(queue, "shutdown");
+    }
+
+    @Test
+    void writesForTheSameFilmAreCoalescedIntoOneFlush() throws Exception {
+        queue.enqueue(PendingWrite.update(pelicula(1, "Primera")));
+        queue.enqueue(PendingWrite.update(pelicula(1, "Segunda")));
+        queue.enqueue(PendingWrite.update(pelicula(1, "Tercera")));
+        queue.enqueue(PendingWrite.update(pelicula(2, "Primera")));
+        queue.enqueue(PendingWrite.update(pelicula(2, "Segunda")));
+        assertThat(meterRegistry.get("pelicula.writebehind.depth").gauge().value()).isEqualTo(2);
+
+        queue.flush();
+
+        verify(repository).patchAll(List.of(pelicula(1, "Tercera"), pelicula(2, "Segunda")), WriteBehindQueue.FIELDS);
+        assertThat(queue.depth()).isZero();
+        assertThat(meterRegistry.get("pelicula.writebehind.flush").timer().count()).isEqualTo(1);
+        try (var files = Files.list(directory)) {
+            // Solo queda el segmento vacío abierto después del vaciado
+            assertThat(files.filter(path -> path.toFile().length() > 0)).isEmpty();
+        }
+    }
+
+    @Test
+    void failedFlushKeepsTheWritesForTheNextAttempt() throws Exception {
+        when(repository.patchAll(anyList(), any())).thenThrow(new CannotGetJdbcConnectionException("Base de datos no disponible"));
+        queue.enqueue(PendingWrite.update(pelicula(1, "Primera")));
+
+        queue.flush();
+
+        assertThat(queue.depth()).isEqualTo(1);
+        assertThat(meterRegistry.get("pelicula.writebehind.flush.errors").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rowThatKeepsFailingIsDeadLetteredWithoutBlockingLaterWrites() throws Exception {
+        // La película 2 viola una restricción: falla el lote y también la fila sola
+        when(repository.patchAll(anyList(), any())).thenAnswer(invocation -> {
+            List<PeliculaModel> peliculas = invocation.getArgument(0);
+            if (peliculas.stream().anyMatch(pelicula -> pelicula.getId() == 2)) {
+                throw new DataIntegrityViolationException("CK_Peliculas_Puntaje");
+            }
+            return new int[peliculas.size()];
+        });
+        queue.enqueue(PendingWrite.update(pelicula(1, "Primera")));
+        queue.enqueue(PendingWrite.update(pelicula(2, "Inválida")));
+        queue.enqueue(PendingWrite.update(pelicula(3, "Tercera")));
+
+        queue.flush();
+
+        verify(repository).patchAll(List.of(pelicula(1, "Primera")), WriteBehindQueue.FIELDS);
+        verify(repository).patchAll(List.of(pelicula(3, "Tercera")), WriteBehindQueue.FIELDS);
+        assertThat(queue.depth()).isZero();
+        assertThat(queue.deadLetters()).extracting(PendingWrite::id).containsExactly(2);
+        assertThat(meterRegistry.get("pelicula.writebehind.dead.letters").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("pelicula.writebehind.flush.errors").counter().count()).isZero();
+
+        // La fila descartada no vuelve a intentarse y las escrituras siguientes se vacían en un lote
+        queue.enqueue(PendingWrite.update(pelicula(4, "Siguiente")));
+        queue.flush();
+
+        verify(repository).patchAll(List.of(pelicula(4, "Siguiente")), WriteBehindQueue.FIELDS);
+        verify(repository, times(1)).patchAll(List.of(pelicula(2, "Inválida")), WriteBehindQueue.FIELDS);
+        assertThat(queue.depth()).isZero();
+        try (var files = Files.list(directory)) {
+            assertThat(files.filter(path -> path.toFile().length() > 0)).isEmpty();
+        }
+    }
+
+    @Test
+    void journaledWritesAreReplayedAfterRestart() throws Exception {
+        queue.enqueue(PendingWrite.update(pelicula(3, "Tercera")));
+        // Simula una caída: la cola se descarta sin vaciar y otra instancia abre el mismo directorio
+        ReflectionTestUtils.setField(queue, "enabled", false);
+        Files.writeString(directory.resolve("journal-1.log"), "{\"id\":3,\"pelicula\":nu", java.nio.file.StandardOpenOption.APPEND);
+
+        WriteBehindQueue restarted = newQueue();
+        try {
+            assertThat(restarted.depth()).isEqualTo(1);
+            restarted.flush();
+            verify(repository, times(1)).patchAll(List.of(pelicula(3, "Tercera")), WriteBehindQueue.FIELDS);
+        } finally {
+            ReflectionTestUtils.invokeMethod(restarted, "shutdown");
+        }
+    }
+
+    private WriteBehindQueue newQueue() throws Exception {
+        ObjectMapper objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        WriteBehindQueue writeBehindQueue = new WriteBehindQueue();
+        ReflectionTestUtils.setField(writeBehindQueue, "iPeliculaRepository", repository);
+        ReflectionTestUtils.setField(writeBehindQueue, "peliculaTextIndex", mock(PeliculaTextIndex.class));
+        ReflectionTestUtils.setField(writeBehindQueue, "catalogVersion", mock(CatalogVersion.class));
+        ReflectionTestUtils.setField(writeBehindQueue, "peliculaEventPublisher", mock(PeliculaEventPublisher.class));
+        ReflectionTestUtils.setField(writeBehindQueue, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(writeBehindQueue, "recentWriters", mock(RecentWriters.class));
+        ReflectionTestUtils.setField(writeBehindQueue, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(writeBehindQueue, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(writeBehindQueue, "enabled", true);
+        ReflectionTestUtils.setField(writeBehindQueue, "directory", directory);
+        // Sin vaciados programados durante la prueba: se invocan explícitamente
+        ReflectionTestUtils.setField(writeBehindQueue, "flushInterval", Duration.ofHours(1));
+        ReflectionTestUtils.invokeMethod(writeBehindQueue, "init");
+        return writeBehindQueue;
+    }
+
+    private static PeliculaModel pelicula(long id, String nombre) {
+        PeliculaModel pelicula = new PeliculaModel();
+        pelicula.setId(id);
+        pelicula.setNombre(nombre);
+        pelicula.setPuntaje(5);
+        pelicula.setEstado("Publicada");
+        pelicula.setEstadoAlquiler("Disponible");
+        return pelicula;
+    }
+}
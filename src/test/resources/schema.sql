@@ -0,0 +1,46 @@
+-- Esquema equivalente a scriptDB para las pruebas sobre H2 (modo MSSQLServer).
+DROP TABLE IF EXISTS Peliculas;
+
+CREATE TABLE Peliculas (
+    Id INT IDENTITY(1,1) PRIMARY KEY,
+    Nombre VARCHAR(255) NOT NULL,
+    Descripcion TEXT,
+    Cubierta VARCHAR(255),
+    Puntaje NUMERIC(2, 1) CHECK (Puntaje BETWEEN 0 AND 10),
+    Estado VARCHAR(20) NOT NULL CHECK (Estado IN ('Publicada', 'Edicion')),
+    Estado_alquiler VARCHAR(20) NOT NULL CHECK (Estado_alquiler IN ('Disponible', 'Alquilada')),
+    Fecha_creacion DATETIME DEFAULT GETDATE(),
+    Fecha_modificacion DATETIME DEFAULT GETDATE()
+);
+
+-- Índices de migraciones/V2__indices_busqueda.sql (H2 no admite INCLUDE).
+CREATE INDEX IX_Peliculas_Estado_EstadoAlquiler_Puntaje ON Peliculas (Estado, Estado_alquiler, Puntaje);
+CREATE INDEX IX_Peliculas_Nombre ON Peliculas (Nombre);
+
+-- Historial de alquileres de migraciones/V3__historial_alquileres.sql.
+DROP TABLE IF EXISTS Alquileres_eventos;
+DROP TABLE IF EXISTS Alquileres_por_hora;
+DROP TABLE IF EXISTS Alquileres_por_dia;
+
+CREATE TABLE Alquileres_eventos (
+    Id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    Pelicula_id INT NOT NULL,
+    Tipo VARCHAR(20) NOT NULL CHECK (Tipo IN ('Disponible', 'Alquilada')),
+    Fecha DATETIME2(3) NOT NULL
+);
+
+CREATE TABLE Alquileres_por_hora (
+    Hora DATETIME2(0) NOT NULL,
+    Pelicula_id INT NOT NULL,
+    Alquileres INT NOT NULL,
+    Devoluciones INT NOT NULL,
+    CONSTRAINT PK_Alquileres_por_hora PRIMARY KEY (Hora, Pelicula_id)
+);
+
+CREATE TABLE Alquileres_por_dia (
+    Dia DATE NOT NULL,
+    Pelicula_id INT NOT NULL,
+    Alquileres INT NOT NULL,
+    Devoluciones INT NOT NULL,
+    CONSTRAINT PK_Alquileres_por_dia PRIMARY KEY (Dia, Pelicula_id)
+);